@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.kscs.util.jaxb.BoundListProxy;
+import com.kscs.util.jaxb.ConcurrentBoundList;
+
+/**
+ * Mixed read/write load on one shared list, comparing {@link ConcurrentBoundList}
+ * with a {@link BoundListProxy} guarded by an external lock.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class ConcurrentBoundListBenchmark {
+	private static final int MAX_SIZE = 10000;
+
+	@Param({"concurrent", "externalLock"})
+	public String implementation;
+
+	@Param({"false", "true"})
+	public boolean listener;
+
+	private List<Integer> list;
+
+	@Setup(Level.Iteration)
+	public void setUp(final Blackhole blackhole) {
+		if ("concurrent".equals(this.implementation)) {
+			final ConcurrentBoundList<Integer> boundList = new ConcurrentBoundList<>();
+			if (this.listener) {
+				boundList.addCollectionChangeListener(event -> blackhole.consume(event.getNewItems()));
+			}
+			this.list = boundList;
+		} else {
+			final BoundListProxy<Integer> boundList = new BoundListProxy<>(new ArrayList<>());
+			if (this.listener) {
+				boundList.addCollectionChangeListener(event -> blackhole.consume(event.getNewItems()));
+			}
+			this.list = Collections.synchronizedList(boundList);
+		}
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(2)
+	public void write() {
+		if (this.list.size() >= MAX_SIZE) {
+			this.list.remove(0);
+		}
+		this.list.add(1);
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(6)
+	public int read() {
+		final int size = this.list.size();
+		return size == 0 ? 0 : this.list.get(size / 2);
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kscs.util.jaxb.Copyable;
+import com.kscs.util.jaxb.ParallelCopy;
+
+/**
+ * Copies a list of small {@link Copyable} elements the way generated code does
+ * with "-copy.parallelThreshold". {@code parallelism} 0 copies sequentially,
+ * otherwise the copy runs on a pool with that many threads, so the results
+ * show how the copy scales with the number of cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelCopyBenchmark {
+	@Param({"100000", "1000000"})
+	public int size;
+
+	@Param({"0", "1", "2", "4", "8"})
+	public int parallelism;
+
+	private List<Item> items;
+	private ForkJoinPool pool;
+
+	public static class Item implements Copyable<Item> {
+		private final String name;
+		private final int[] values;
+
+		Item(final String name, final int[] values) {
+			this.name = name;
+			this.values = values;
+		}
+
+		@Override
+		public Item createCopy() {
+			return new Item(this.name, this.values.clone());
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.items = new ArrayList<>(this.size);
+		for (int i = 0; i < this.size; i++) {
+			this.items.add(new Item("item" + i, new int[] {i, i + 1, i + 2, i + 3}));
+		}
+		if (this.parallelism > 0) {
+			this.pool = new ForkJoinPool(this.parallelism);
+			ParallelCopy.setPool(this.pool);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (this.pool != null) {
+			ParallelCopy.setPool(null);
+			this.pool.shutdown();
+		}
+	}
+
+	@Benchmark
+	public List<Item> copy() {
+		final List<Item> copy = new ArrayList<>(this.items.size());
+		ParallelCopy.copyInto(this.items, copy, this.parallelism > 0 ? 1 : Integer.MAX_VALUE, new ParallelCopy.Copier<Item, RuntimeException>() {
+			@Override
+			public Item copy(final Item item) {
+				return item == null ? null : item.createCopy();
+			}
+		});
+		return copy;
+	}
+}
@@ -29,11 +29,19 @@ import java.beans.PropertyVetoException;
 import java.beans.VetoableChangeListener;
 import java.beans.VetoableChangeSupport;
 import java.util.ArrayList;
+import java.util.List;
+import com.kscs.util.jaxb.AsyncBoundListProxy;
+import com.kscs.util.jaxb.AsyncPropertyChangeSupport;
 import com.kscs.util.jaxb.BoundList;
 import com.kscs.util.jaxb.BoundListProxy;
+import com.kscs.util.jaxb.ChangeBatch;
+import com.kscs.util.jaxb.ChangeBatchOwner;
 import com.kscs.util.jaxb.CollectionChangeEvent;
 import com.kscs.util.jaxb.CollectionChangeEventType;
 import com.kscs.util.jaxb.CollectionChangeListener;
+import com.kscs.util.jaxb.CompoundPropertyChangeEvent;
+import com.kscs.util.jaxb.ConcurrentBoundList;
+import com.kscs.util.jaxb.OrderedExecutor;
 import com.kscs.util.jaxb.VetoableCollectionChangeListener;
 import com.kscs.util.plugins.xjc.base.AbstractPlugin;
 import com.kscs.util.plugins.xjc.base.Opt;
@@ -43,11 +51,14 @@ import com.sun.codemodel.JClass;
 import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JFieldRef;
 import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JSwitch;
 import com.sun.codemodel.JTryBlock;
 import com.sun.codemodel.JType;
 import com.sun.codemodel.JVar;
@@ -67,10 +78,16 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 	public static final String PROXY_SUFFIX = "__Proxy";
 	public static final String SUPPORT_FIELD_SUFFIX = "__Support";
 	public static final String OLD_VALUE_VAR_NAME = "__oldValue";
+	public static final String CHANGE_BATCH_FIELD_NAME = "changeBatch" + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX;
+	public static final String RESTORE_METHOD_NAME = "restoreProperty__";
 	@Opt private boolean constrained = true;
 	@Opt private boolean bound = true;
 	@Opt private boolean setterThrows = false;
 	@Opt private boolean generateTools = true;
+	@Opt private boolean changeBatch = false;
+	@Opt private boolean lazySupport = false;
+	@Opt private boolean asyncDispatch = false;
+	@Opt private boolean concurrentLists = false;
 
 	@Override
 	public String getOptionName() {
@@ -96,12 +113,28 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 			pluginContext.writeSourceFile(CollectionChangeEvent.class);
 			pluginContext.writeSourceFile(CollectionChangeListener.class);
 			pluginContext.writeSourceFile(VetoableCollectionChangeListener.class);
+			// BoundListProxy refers to the batch types even if no batches are generated
+			pluginContext.writeSourceFile(ChangeBatch.class);
+			pluginContext.writeSourceFile(ChangeBatchOwner.class);
+			pluginContext.writeSourceFile(CompoundPropertyChangeEvent.class);
+			if (this.asyncDispatch) {
+				pluginContext.writeSourceFile(OrderedExecutor.class);
+				pluginContext.writeSourceFile(AsyncPropertyChangeSupport.class);
+				pluginContext.writeSourceFile(AsyncBoundListProxy.class);
+			}
+			if (this.concurrentLists) {
+				pluginContext.writeSourceFile(ConcurrentBoundList.class);
+			}
 		}
 
 		if(pluginContext.hasPlugin(ImmutablePlugin.class)) {
 			errorHandler.error(new SAXParseException(getMessage("error.immutableAndConstrainedProperties"), outline.getModel().getLocator()));
 		}
 
+		if (this.asyncDispatch && this.concurrentLists) {
+			errorHandler.error(new SAXParseException(getMessage("error.asyncDispatchAndConcurrentLists"), outline.getModel().getLocator()));
+		}
+
 		final int setterAccess = JMod.PUBLIC;
 
 		for (final ClassOutline classOutline : outline.getClasses()) {
@@ -128,10 +161,13 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 			}
 
 			if (this.constrained)
-				createSupportProperty(outline, classOutline, VetoableChangeSupport.class, VetoableChangeListener.class, "vetoableChange");
+				createSupportProperty(outline, classOutline, VetoableChangeSupport.class, VetoableChangeSupport.class, VetoableChangeListener.class, "vetoableChange");
 			if (this.bound)
-				createSupportProperty(outline, classOutline, PropertyChangeSupport.class, PropertyChangeListener.class, "propertyChange");
+				createSupportProperty(outline, classOutline, PropertyChangeSupport.class, this.asyncDispatch ? AsyncPropertyChangeSupport.class : PropertyChangeSupport.class, PropertyChangeListener.class, "propertyChange");
+			if (this.changeBatch && classOutline.getSuperClass() == null)
+				createChangeBatchProperty(classOutline);
 
+			final List<JFieldVar> restorableFields = new ArrayList<>();
 
 			for (final JFieldVar field : definedClass.fields().values()) {
 				//final JFieldVar field = definedClass.fields().get(fieldOutline.getPropertyInfo().getName(false));
@@ -141,16 +177,29 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 					final JMethod setter = definedClass.method(setterAccess, m.VOID, "set" + outline.getModel().getNameConverter().toPropertyName(field.name()));
 					final JVar setterArg = setter.param(JMod.FINAL, field.type(), "value");
 					final JBlock body = setter.body();
+					if (this.lazySupport) {
+						generateNoListenerShortcut(body, field, setterArg);
+					}
 					final JVar oldValueVar = body.decl(JMod.FINAL, field.type(), BoundPropertiesPlugin.OLD_VALUE_VAR_NAME, JExpr._this().ref(field));
 
+					if (this.changeBatch) {
+						final JFieldRef changeBatchField = JExpr._this().ref(BoundPropertiesPlugin.CHANGE_BATCH_FIELD_NAME);
+						final JBlock batchBlock = body._if(changeBatchField.ne(JExpr._null()).cand(changeBatchField.invoke("isActive")))._then();
+						batchBlock.invoke(changeBatchField, "propertyChange").arg(JExpr.lit(field.name())).arg(oldValueVar).arg(setterArg);
+						batchBlock.assign(JExpr._this().ref(field), setterArg);
+						batchBlock._return();
+						restorableFields.add(field);
+					}
+
 					if (this.constrained) {
+						final JBlock vetoBlock = supportBlock(body, "vetoableChange");
 						final JTryBlock tryBlock;
 						final JBlock block;
 						if (this.setterThrows) {
-							block = body;
+							block = vetoBlock;
 							setter._throws(PropertyVetoException.class);
 						} else {
-							tryBlock = body._try();
+							tryBlock = vetoBlock._try();
 							block = tryBlock.body();
 							final JCatchBlock catchBlock = tryBlock._catch(m.ref(PropertyVetoException.class));
 							final JVar exceptionVar = catchBlock.param("x");
@@ -162,17 +211,111 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 					body.assign(JExpr._this().ref(field), setterArg);
 
 					if (this.bound) {
-						invokeListener(body, field, oldValueVar, setterArg, "propertyChange");
+						invokeListener(supportBlock(body, "propertyChange"), field, oldValueVar, setterArg, "propertyChange");
 					}
 				}
 			}
+
+			if (this.changeBatch) {
+				generateRestoreMethod(classOutline, restorableFields);
+			}
 		}
 		return true;
 	}
 
+	private void generateNoListenerShortcut(final JBlock body, final JFieldVar field, final JVar setterArg) {
+		JExpression noListeners = null;
+		if (this.constrained) {
+			noListeners = JExpr._this().ref("vetoableChange" + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX).eq(JExpr._null());
+		}
+		if (this.bound) {
+			final JExpression noPropertyChangeListeners = JExpr._this().ref("propertyChange" + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX).eq(JExpr._null());
+			noListeners = noListeners == null ? noPropertyChangeListeners : noListeners.cand(noPropertyChangeListeners);
+		}
+		if (this.changeBatch) {
+			final JFieldRef changeBatchField = JExpr._this().ref(BoundPropertiesPlugin.CHANGE_BATCH_FIELD_NAME);
+			noListeners = noListeners.cand(changeBatchField.eq(JExpr._null()).cor(changeBatchField.invoke("isActive").not()));
+		}
+		final JBlock shortcut = body._if(noListeners)._then();
+		shortcut.assign(JExpr._this().ref(field), setterArg);
+		shortcut._return();
+	}
+
+	private JBlock supportBlock(final JBlock body, final String aspectName) {
+		if (this.lazySupport) {
+			return body._if(JExpr._this().ref(aspectName + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX).ne(JExpr._null()))._then();
+		} else {
+			return body;
+		}
+	}
+
+	private void createChangeBatchProperty(final ClassOutline classOutline) {
+		final JCodeModel m = classOutline.parent().getCodeModel();
+		final JDefinedClass definedClass = classOutline.implClass;
+		final JDefinedClass batchClass = m.anonymousClass(ChangeBatch.class);
+		final JMethod getVetoableChangeSupport = batchClass.method(JMod.PROTECTED, VetoableChangeSupport.class, "getVetoableChangeSupport");
+		getVetoableChangeSupport.annotate(Override.class);
+		getVetoableChangeSupport.body()._return(this.constrained ? JExpr.ref("vetoableChange" + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX) : JExpr._null());
+		final JMethod getPropertyChangeSupport = batchClass.method(JMod.PROTECTED, PropertyChangeSupport.class, "getPropertyChangeSupport");
+		getPropertyChangeSupport.annotate(Override.class);
+		getPropertyChangeSupport.body()._return(this.bound ? JExpr.ref("propertyChange" + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX) : JExpr._null());
+		final JMethod restoreProperty = batchClass.method(JMod.PROTECTED, m.VOID, "restoreProperty");
+		restoreProperty.annotate(Override.class);
+		final JVar restoreNameParam = restoreProperty.param(JMod.FINAL, String.class, "propertyName");
+		final JVar restoreValueParam = restoreProperty.param(JMod.FINAL, Object.class, "value");
+		restoreProperty.body().invoke(BoundPropertiesPlugin.RESTORE_METHOD_NAME).arg(restoreNameParam).arg(restoreValueParam);
+
+		// the batch is only created once changes are begun, bound lists ask for it through ChangeBatchOwner
+		definedClass._implements(ChangeBatchOwner.class);
+		final JFieldVar batchField = definedClass.field(JMod.PROTECTED | JMod.TRANSIENT, ChangeBatch.class, BoundPropertiesPlugin.CHANGE_BATCH_FIELD_NAME);
+		final JFieldRef batchFieldRef = JExpr._this().ref(batchField);
+
+		final JMethod getActiveMethod = definedClass.method(JMod.PUBLIC, ChangeBatch.class, "getActiveChangeBatch");
+		getActiveMethod.annotate(Override.class);
+		getActiveMethod.body()._return(JOp.cond(batchFieldRef.ne(JExpr._null()).cand(batchFieldRef.invoke("isActive")), batchFieldRef, JExpr._null()));
+
+		final JMethod beginMethod = definedClass.method(JMod.PUBLIC, ChangeBatch.class, "beginChanges");
+		beginMethod.body()._if(batchFieldRef.eq(JExpr._null()))._then().assign(batchFieldRef, JExpr._new(batchClass).arg(JExpr._this()));
+		beginMethod.body()._return(batchFieldRef.invoke("begin"));
+
+		final JMethod commitMethod = definedClass.method(JMod.PUBLIC, m.VOID, "commitChanges");
+		commitMethod.body()._if(batchFieldRef.eq(JExpr._null()))._then()._throw(JExpr._new(m.ref(IllegalStateException.class)).arg(JExpr.lit("No change batch in progress")));
+		if (this.setterThrows) {
+			commitMethod._throws(PropertyVetoException.class);
+			commitMethod.body().invoke(batchFieldRef, "commit");
+		} else {
+			final JTryBlock tryBlock = commitMethod.body()._try();
+			tryBlock.body().invoke(batchFieldRef, "commit");
+			final JCatchBlock catchBlock = tryBlock._catch(m.ref(PropertyVetoException.class));
+			final JVar exceptionVar = catchBlock.param("x");
+			catchBlock.body()._throw(JExpr._new(m.ref(RuntimeException.class)).arg(exceptionVar));
+		}
+	}
+
+	private void generateRestoreMethod(final ClassOutline classOutline, final List<JFieldVar> restorableFields) {
+		final JCodeModel m = classOutline.parent().getCodeModel();
+		final JDefinedClass definedClass = classOutline.implClass;
+		final JMethod restoreMethod = definedClass.method(JMod.PROTECTED, m.VOID, BoundPropertiesPlugin.RESTORE_METHOD_NAME);
+		final JVar nameParam = restoreMethod.param(JMod.FINAL, String.class, "propertyName");
+		final JVar valueParam = restoreMethod.param(JMod.FINAL, Object.class, "value");
+		final JSwitch propertySwitch = restoreMethod.body()._switch(nameParam);
+		for (final JFieldVar field : restorableFields) {
+			final JBlock caseBlock = propertySwitch._case(JExpr.lit(field.name())).body();
+			caseBlock.assign(JExpr._this().ref(field), JExpr.cast(field.type().boxify(), valueParam));
+			caseBlock._break();
+		}
+		final JBlock defaultBlock = propertySwitch._default().body();
+		if (classOutline.getSuperClass() != null) {
+			restoreMethod.annotate(Override.class);
+			defaultBlock.invoke(JExpr._super(), BoundPropertiesPlugin.RESTORE_METHOD_NAME).arg(nameParam).arg(valueParam);
+		}
+		defaultBlock._break();
+	}
+
 	private void createSupportProperty(final Outline outline,
 										final ClassOutline classOutline,
 										final Class<?> supportClass,
+										final Class<?> supportImplClass,
 										final Class<?> listenerClass,
 										final String aspectName) {
 		final JCodeModel m = outline.getCodeModel();
@@ -181,14 +324,23 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 		final String aspectNameCap = aspectName.substring(0, 1).toUpperCase() + aspectName.substring(1);
 
 		if (classOutline.getSuperClass() == null) { // only generate fields in topmost classes
-			final JFieldVar supportField = definedClass.field(JMod.PROTECTED | JMod.FINAL | JMod.TRANSIENT, supportClass, aspectName + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX, JExpr._new(m.ref(supportClass)).arg(JExpr._this()));
+			final JFieldVar supportField;
+			if (this.lazySupport) {
+				// allocated on first listener registration
+				supportField = definedClass.field(JMod.PROTECTED | JMod.TRANSIENT, supportClass, aspectName + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX, JExpr._null());
+			} else {
+				supportField = definedClass.field(JMod.PROTECTED | JMod.FINAL | JMod.TRANSIENT, supportClass, aspectName + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX, JExpr._new(m.ref(supportImplClass)).arg(JExpr._this()));
+			}
 			final JMethod addMethod = definedClass.method(JMod.PUBLIC, m.VOID, "add" + aspectNameCap + "Listener");
 			final JVar addParam = addMethod.param(JMod.FINAL, listenerClass, aspectName + "Listener");
+			if (this.lazySupport) {
+				addMethod.body()._if(JExpr._this().ref(supportField).eq(JExpr._null()))._then().assign(JExpr._this().ref(supportField), JExpr._new(m.ref(supportImplClass)).arg(JExpr._this()));
+			}
 			addMethod.body().invoke(JExpr._this().ref(supportField), "add" + aspectNameCap + "Listener").arg(addParam);
 
 			final JMethod removeMethod = definedClass.method(JMod.PUBLIC, m.VOID, "remove" + aspectNameCap + "Listener");
 			final JVar removeParam = removeMethod.param(JMod.FINAL, listenerClass, aspectName + "Listener");
-			removeMethod.body().invoke(JExpr._this().ref(supportField), "remove" + aspectNameCap + "Listener").arg(removeParam);
+			supportBlock(removeMethod.body(), aspectName).invoke(JExpr._this().ref(supportField), "remove" + aspectNameCap + "Listener").arg(removeParam);
 		}
 		final JMethod withMethod = definedClass.method(JMod.PUBLIC, definedClass, "with" + aspectNameCap + "Listener");
 		final JVar withParam = withMethod.param(JMod.FINAL, listenerClass, aspectName + "Listener");
@@ -229,14 +381,40 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 		final JFieldRef proxyField = JExpr._this().ref(collectionField.name() + BoundPropertiesPlugin.PROXY_SUFFIX);
 		final JMethod oldGetter = definedClass.getMethod(getterName, new JType[0]);
 		definedClass.methods().remove(oldGetter);
-		final JMethod newGetter = definedClass.method(JMod.PUBLIC, proxyFieldType, getterName);
+		// concurrent lists must not be created twice by competing threads
+		final JMethod newGetter = definedClass.method(this.concurrentLists ? JMod.PUBLIC | JMod.SYNCHRONIZED : JMod.PUBLIC, proxyFieldType, getterName);
 		newGetter.body()._if(collectionFieldRef.eq(JExpr._null()))._then().assign(collectionFieldRef, JExpr._new(m.ref(ArrayList.class).narrow(elementType)));
 		final JBlock ifProxyNull = newGetter.body()._if(proxyField.eq(JExpr._null()))._then();
-		ifProxyNull.assign(proxyField, JExpr._new(m.ref(BoundListProxy.class).narrow(elementType)).arg(collectionFieldRef));
+		final JInvocation newProxy = JExpr._new(m.ref(getProxyClass()).narrow(elementType)).arg(collectionFieldRef);
+		if (this.changeBatch) {
+			newProxy.arg(JExpr._this()).arg(JExpr.lit(fieldName));
+		}
+		if (this.asyncDispatch && this.bound && !this.concurrentLists) {
+			// list events go through the property change support, so that all events of this object are delivered in order
+			final JFieldRef supportField = JExpr._this().ref("propertyChange" + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX);
+			if (this.lazySupport) {
+				ifProxyNull._if(supportField.eq(JExpr._null()))._then().assign(supportField, JExpr._new(m.ref(AsyncPropertyChangeSupport.class)).arg(JExpr._this()));
+			}
+			if (!this.changeBatch) {
+				newProxy.arg(JExpr._null()).arg(JExpr.lit(fieldName));
+			}
+			newProxy.arg(JExpr.cast(m.ref(AsyncPropertyChangeSupport.class), supportField));
+		}
+		ifProxyNull.assign(proxyField, newProxy);
 		newGetter.body()._return(proxyField);
 		return newGetter;
 	}
 
+	private Class<?> getProxyClass() {
+		if (this.concurrentLists) {
+			return ConcurrentBoundList.class;
+		} else if (this.asyncDispatch) {
+			return AsyncBoundListProxy.class;
+		} else {
+			return BoundListProxy.class;
+		}
+	}
+
 	public boolean isConstrained() {
 		return this.constrained;
 	}
@@ -25,9 +25,13 @@ package com.kscs.util.plugins.xjc;
 
 import java.lang.reflect.Modifier;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Consumer;
 
 import javax.xml.namespace.QName;
 
@@ -35,10 +39,14 @@ import org.glassfish.jaxb.core.v2.model.core.TypeInfo;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
+import com.kscs.util.jaxb.Adoptable;
 import com.kscs.util.jaxb.Buildable;
+import com.kscs.util.jaxb.CopyContext;
 import com.kscs.util.jaxb.PropertyTree;
 import com.kscs.util.plugins.xjc.codemodel.ClassName;
 import com.kscs.util.plugins.xjc.codemodel.GenerifiedClass;
+import com.kscs.util.plugins.xjc.codemodel.JSuperWildcard;
+import com.kscs.util.plugins.xjc.codemodel.JTypedInvocation;
 import com.kscs.util.plugins.xjc.outline.DefinedInterfaceOutline;
 import com.kscs.util.plugins.xjc.outline.DefinedPropertyOutline;
 import com.kscs.util.plugins.xjc.outline.DefinedTypeOutline;
@@ -55,10 +63,13 @@ import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JFieldRef;
 import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JForLoop;
 import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
 import com.sun.codemodel.JType;
+import com.sun.codemodel.JTryBlock;
 import com.sun.codemodel.JTypeVar;
 import com.sun.codemodel.JVar;
 import com.sun.tools.xjc.model.CClassInfo;
@@ -66,6 +77,7 @@ import com.sun.tools.xjc.model.CElementInfo;
 import com.sun.tools.xjc.model.nav.NClass;
 import com.sun.tools.xjc.model.nav.NType;
 import com.sun.tools.xjc.outline.Aspect;
+import com.sun.tools.xjc.outline.ClassOutline;
 
 import static com.kscs.util.plugins.xjc.PluginContext.ADD_METHOD_PREFIX;
 import static com.kscs.util.plugins.xjc.PluginContext.BUILD_METHOD_NAME;
@@ -85,7 +97,27 @@ class BuilderGenerator {
 	public static final String STORED_VALUE_PARAM_NAME = "_storedValue";
 	public static final String NEW_BUILDER_VAR_NAME = "_newBuilder";
 	public static final String COPY_FLAG_PARAM_NAME = "_copy";
+	public static final String RESET_METHOD_NAME = "reset";
+	public static final String POOLED_BUILDER_METHOD_NAME = "pooledBuilder";
+	public static final String BUILDER_POOL_FIELD_NAME = "__builderPool";
+	public static final String SPARE_FIELD_SUFFIX = "__Spare";
+	public static final String HAS_BUILDERS_FIELD_SUFFIX = "__HasBuilders";
+	public static final String ADOPT_METHOD_PREFIX = "adopt";
+	public static final String ADOPTED_FIELD_SUFFIX = "__Adopted";
+	public static final String ADOPT_METHOD_NAME = "adopt";
+	public static final String ADOPTABLE_FIELD_NAME = "__adoptable";
+	public static final String ADOPTABLE_UPDATER_FIELD_NAME = "__adoptableUpdater";
+	public static final String STREAM_METHOD_PREFIX = "stream";
+	public static final String SINK_FIELD_SUFFIX = "__Sink";
+	public static final String SINK_PARAM_NAME = "_sink";
+	public static final String FLUSH_METHOD_PREFIX = "flush";
+	public static final String COPY_CONTEXT_VAR_NAME = "_copyContext";
+	public static final String EXISTING_BUILDER_VAR_NAME = "_existingBuilder";
+	public static final String EXISTING_PRODUCT_VAR_NAME = "_existingProduct";
 	private static final String ITEM_VAR_NAME = "_item";
+	private static final String INDEX_VAR_NAME = "_i";
+	private static final String DELIVERED_VAR_NAME = "_delivered";
+	private static final String VALUE_VAR_NAME = "_value";
 	private final PluginContext pluginContext;
 	private final JDefinedClass definedClass;
 	private final GenerifiedClass builderClass;
@@ -93,6 +125,9 @@ class BuilderGenerator {
 	private final Map<String, BuilderOutline> builderOutlines;
 	private final JFieldVar parentBuilderField;
 	private final JAssignmentTarget storedValueField;
+	private final JMethod resetMethod;
+	private final boolean constructorBuild;
+	private final boolean preserveIdentity;
 	private final boolean implement;
 	private final BuilderGeneratorSettings settings;
 	private final ResourceBundle resources;
@@ -106,12 +141,16 @@ class BuilderGenerator {
 		this.builderClass = new GenerifiedClass(builderOutline.getDefinedBuilderClass(), BuilderGenerator.PARENT_BUILDER_TYPE_PARAMETER_NAME);
 		this.resources = ResourceBundle.getBundle(BuilderGenerator.class.getName());
 		this.implement = !this.builderClass.raw.isInterface();
+		final ImmutablePlugin immutablePlugin = this.pluginContext.findPlugin(ImmutablePlugin.class);
+		this.constructorBuild = this.implement && immutablePlugin != null && !immutablePlugin.isFake() && isConstructorBuildable(this.typeOutline);
+		final DeepCopyPlugin deepCopyPlugin = this.pluginContext.findPlugin(DeepCopyPlugin.class);
+		this.preserveIdentity = this.implement && deepCopyPlugin != null && deepCopyPlugin.isPreserveIdentity();
 		if (!isSuperClassBuildable(builderOutline.getClassOutline())) {
 			final JMethod endMethod = this.builderClass.raw.method(JMod.PUBLIC, this.builderClass.typeParam, this.settings.getEndMethodName());
 			if (this.implement) {
 				this.parentBuilderField = this.builderClass.raw.field(JMod.PROTECTED | JMod.FINAL, this.builderClass.typeParam, BuilderGenerator.PARENT_BUILDER_PARAM_NAME);
 				endMethod.body()._return(JExpr._this().ref(this.parentBuilderField));
-				this.storedValueField = this.settings.isCopyAlways() ? null : this.builderClass.raw.field(JMod.PROTECTED | JMod.FINAL, this.definedClass, BuilderGenerator.STORED_VALUE_PARAM_NAME);
+				this.storedValueField = this.settings.isCopyAlways() ? null : this.builderClass.raw.field(this.settings.isGeneratingReset() ? JMod.PROTECTED : JMod.PROTECTED | JMod.FINAL, this.definedClass, BuilderGenerator.STORED_VALUE_PARAM_NAME);
 			} else {
 				this.parentBuilderField = null;
 				this.storedValueField = null;
@@ -120,6 +159,20 @@ class BuilderGenerator {
 			this.parentBuilderField = null;
 			this.storedValueField = this.implement ? JExpr.ref(BuilderGenerator.STORED_VALUE_PARAM_NAME) : null;
 		}
+		if (this.implement && this.settings.isGeneratingReset()) {
+			this.resetMethod = this.builderClass.raw.method(JMod.PUBLIC, this.builderClass.type, BuilderGenerator.RESET_METHOD_NAME);
+			final TypeOutline superClass = builderOutline.getClassOutline().getSuperClass();
+			if (superClass != null && superClass.isLocal()) {
+				this.resetMethod.annotate(Override.class);
+				this.resetMethod.body().add(JExpr._super().invoke(BuilderGenerator.RESET_METHOD_NAME));
+			} else if (!isSuperClassBuildable(builderOutline.getClassOutline()) && this.storedValueField != null) {
+				this.resetMethod.body().assign(this.storedValueField, JExpr._null());
+			}
+			this.resetMethod.javadoc().append(JavadocUtils.hardWrapTextForJavadoc(getMessage("comment.resetMethod")));
+			this.resetMethod.javadoc().addReturn().append(getMessage("comment.resetMethod.return"));
+		} else {
+			this.resetMethod = null;
+		}
 		if (this.implement) {
 			generateCopyConstructor(false);
 			if (this.settings.isGeneratingPartialCopy()) {
@@ -220,11 +273,24 @@ class BuilderGenerator {
 			final BuilderOutline choiceChildBuilderOutline = getBuilderDeclaration(propertyOutline.getElementType());
 			final JClass childBuilderType = childBuilderOutline == null ? this.pluginContext.buildableInterface : childBuilderOutline.getBuilderClass().narrow(this.builderClass.type);
 			final JClass builderFieldElementType = choiceChildBuilderOutline == null ? this.pluginContext.buildableInterface : choiceChildBuilderOutline.getBuilderClass().narrow(this.builderClass.type);
-			final JClass builderArrayListClass = propertyOutline.getMutableListClass().narrow(builderFieldElementType);
+			final boolean flat = this.settings.isGeneratingFlatStorage();
+			final JClass builderArrayListClass = propertyOutline.getMutableListClass().narrow(flat ? this.pluginContext.codeModel.ref(Object.class) : builderFieldElementType);
 			final JFieldVar builderField = this.builderClass.raw.fields().get(propertyOutline.getFieldName());
+			final JFieldVar hasBuildersField = this.builderClass.raw.fields().get(propertyOutline.getFieldName() + BuilderGenerator.HAS_BUILDERS_FIELD_SUFFIX);
 			addVarargsMethod.body()._return(JExpr.invoke(addIterableMethod).arg(this.pluginContext.asList(addVarargsParam)));
 			if (addMethod == null) {
 				addIterableMethod.body()._return(JExpr.invoke(PluginContext.ADD_METHOD_PREFIX + propertyOutline.getBaseName()).arg(addIterableParam));
+			} else if (flat) {
+				final JBlock addIterableBody = addIterableMethod.body()._if(addIterableParam.ne(JExpr._null()))._then();
+				addIterableBody._if(JExpr._this().ref(builderField).eq(JExpr._null()))._then().assign(JExpr._this().ref(builderField), JExpr._new(builderArrayListClass));
+				generateFlatAdd(addIterableBody, builderField, hasBuildersField, addIterableParam, elementType, childBuilderType);
+				addIterableMethod.body()._return(JExpr._this());
+
+				addMethod.body()._if(JExpr._this().ref(builderField).eq(JExpr._null()))._then().assign(JExpr._this().ref(builderField), JExpr._new(builderArrayListClass));
+				final JVar childBuilderVar = addMethod.body().decl(JMod.FINAL, childBuilderType, fieldName + this.settings.getBuilderFieldSuffix(), JExpr._new(childBuilderType).arg(JExpr._this()).arg(JExpr._null()).arg(JExpr.FALSE));
+				addMethod.body().add(JExpr._this().ref(builderField).invoke(ADD_METHOD_PREFIX).arg(childBuilderVar));
+				addMethod.body().assign(JExpr._this().ref(hasBuildersField), JExpr.TRUE);
+				addMethod.body()._return(childBuilderVar);
 			} else {
 				final JConditional addIterableIfParamNull = addIterableMethod.body()._if(addIterableParam.ne(JExpr._null()));
 				final JConditional addIterableIfNull = addIterableIfParamNull._then()._if(JExpr._this().ref(builderField).eq(JExpr._null()));
@@ -302,48 +368,377 @@ class BuilderGenerator {
 		} else {
 			addMethod = null;
 		}
+		final JMethod adoptMethod = this.settings.isGeneratingAdoption() ? generateAdoptMethod(propertyName, fieldName, elementType, propertyOutline.getSchemaAnnotationText().orElse(null)) : null;
+		final JMethod streamMethod = this.settings.isGeneratingStreaming() ? generateStreamMethod(propertyName, fieldName, elementType, propertyOutline.getSchemaAnnotationText().orElse(null)) : null;
 		if (this.implement) {
-			final JClass childBuilderType = childBuilderOutline == null ? this.pluginContext.buildableInterface : childBuilderOutline.getBuilderClass().narrow(this.builderClass.type);
-			final JClass builderArrayListClass = propertyOutline.getMutableListClass().narrow(childBuilderType);
-			final JClass builderListClass = this.pluginContext.listClass.narrow(childBuilderType);
-			final JFieldVar builderField = this.builderClass.raw.field(JMod.PRIVATE, builderListClass, fieldName);
+			if (adoptMethod != null) {
+				generateAdoptedListStorage(adoptMethod, withIterableMethod, iterableType, fieldName, elementType);
+			}
+			if (streamMethod != null) {
+				generateStreamingSink(initBody, streamMethod, addIterableMethod, addIterableParam, addMethod, propertyOutline, elementType, childBuilderOutline);
+			}
 			addVarargsMethod.body().invoke(addIterableMethod).arg(this.pluginContext.asList(addVarargsParam));
 			addVarargsMethod.body()._return(JExpr._this());
 			withVarargsMethod.body().invoke(withIterableMethod).arg(this.pluginContext.asList(withVarargsParam));
 			withVarargsMethod.body()._return(JExpr._this());
-			final JConditional addIterableIfParamNull = addIterableMethod.body()._if(addIterableParam.ne(JExpr._null()));
-			final JConditional addIterableIfNull = addIterableIfParamNull._then()._if(JExpr._this().ref(builderField).eq(JExpr._null()));
-			addIterableIfNull._then().assign(JExpr._this().ref(builderField), JExpr._new(builderArrayListClass));
-			final JForEach jForEach = addIterableIfParamNull._then().forEach(elementType, BuilderGenerator.ITEM_VAR_NAME, addIterableParam);
-			final JExpression builderCreationExpression = childBuilderOutline == null
-					? JExpr._new(this.pluginContext.buildableClass).arg(jForEach.var())
-					: JExpr._new(childBuilderType).arg(JExpr._this()).arg(jForEach.var()).arg(this.settings.isCopyAlways() ? JExpr.TRUE : JExpr.FALSE);
-			jForEach.body().add(JExpr._this().ref(builderField).invoke(ADD_METHOD_PREFIX).arg(builderCreationExpression));
-			addIterableMethod.body()._return(JExpr._this());
-			final JConditional withIterableIfNull = withIterableMethod.body()._if(JExpr._this().ref(builderField).ne(JExpr._null()));
-			withIterableIfNull._then().add(JExpr._this().ref(builderField).invoke("clear"));
-			withIterableMethod.body()._return(JExpr.invoke(addIterableMethod).arg(withIterableParam));
-			final JConditional ifNull = initBody._if(JExpr._this().ref(builderField).ne(JExpr._null()));
-			final var newMutableListExpression = JExpr._new(propertyOutline.getMutableListClass().narrow(elementType));
-			final var mutableListClassFullName = propertyOutline.getMutableListClass().fullName();
-			final var newMutableListExpressionWithArg = mutableListClassFullName.equals("java.util.ArrayList") ? newMutableListExpression.arg(JExpr._this().ref(builderField).invoke("size")) : newMutableListExpression;
-			final JVar collectionVar = ifNull._then().decl(JMod.FINAL, this.pluginContext.listClass.narrow(elementType), fieldName, newMutableListExpressionWithArg);
-			final JForEach initForEach = ifNull._then().forEach(childBuilderType, BuilderGenerator.ITEM_VAR_NAME, JExpr._this().ref(builderField));
-			final JInvocation buildMethodInvocation = initForEach.var().invoke(this.settings.getBuildMethodName());
-			final JExpression buildExpression = childBuilderOutline == null ? JExpr.cast(elementType, buildMethodInvocation) : buildMethodInvocation;
-			initForEach.body().add(collectionVar.invoke(ADD_METHOD_PREFIX).arg(buildExpression));
-			ifNull._then().assign(productParam.ref(fieldName), collectionVar);
-			if (addMethod != null) {
-				final JConditional addIfNull = addMethod.body()._if(JExpr._this().ref(builderField).eq(JExpr._null()));
-				addIfNull._then().assign(JExpr._this().ref(builderField), JExpr._new(builderArrayListClass));
-				final JVar childBuilderVar = addMethod.body().decl(JMod.FINAL, childBuilderType, fieldName + this.settings.getBuilderFieldSuffix(), JExpr._new(childBuilderType).arg(JExpr._this()).arg(JExpr._null()).arg(JExpr.FALSE));
-				addMethod.body().add(JExpr._this().ref(builderField).invoke(ADD_METHOD_PREFIX).arg(childBuilderVar));
-				addMethod.body()._return(childBuilderVar);
+			if (this.settings.isGeneratingFlatStorage()) {
+				generateFlatCollectionStorage(initBody, productParam, propertyOutline, elementType, childBuilderOutline, addIterableMethod, addIterableParam, withIterableMethod, withIterableParam, addMethod);
+			} else {
+				final JClass childBuilderType = childBuilderOutline == null ? this.pluginContext.buildableInterface : childBuilderOutline.getBuilderClass().narrow(this.builderClass.type);
+				final JClass builderArrayListClass = propertyOutline.getMutableListClass().narrow(childBuilderType);
+				final JClass builderListClass = this.pluginContext.listClass.narrow(childBuilderType);
+				final JFieldVar builderField = this.builderClass.raw.field(getBuilderFieldMods(), builderListClass, fieldName);
+				final JExpression newBuilderList = generateListReset(builderField, JExpr._new(builderArrayListClass), null);
+				final JConditional addIterableIfParamNull = addIterableMethod.body()._if(addIterableParam.ne(JExpr._null()));
+				final JConditional addIterableIfNull = addIterableIfParamNull._then()._if(JExpr._this().ref(builderField).eq(JExpr._null()));
+				addIterableIfNull._then().assign(JExpr._this().ref(builderField), newBuilderList);
+				final JForEach jForEach = addIterableIfParamNull._then().forEach(elementType, BuilderGenerator.ITEM_VAR_NAME, addIterableParam);
+				if (childBuilderOutline == null) {
+					generateClaim(jForEach.body(), jForEach.var(), elementType);
+				}
+				final JExpression builderCreationExpression = childBuilderOutline == null
+						? JExpr._new(this.pluginContext.buildableClass).arg(jForEach.var())
+						: JExpr._new(childBuilderType).arg(JExpr._this()).arg(jForEach.var()).arg(this.settings.isCopyAlways() ? JExpr.TRUE : JExpr.FALSE);
+				jForEach.body().add(JExpr._this().ref(builderField).invoke(ADD_METHOD_PREFIX).arg(builderCreationExpression));
+				addIterableMethod.body()._return(JExpr._this());
+				final JConditional withIterableIfNull = withIterableMethod.body()._if(JExpr._this().ref(builderField).ne(JExpr._null()));
+				withIterableIfNull._then().add(JExpr._this().ref(builderField).invoke("clear"));
+				withIterableMethod.body()._return(JExpr.invoke(addIterableMethod).arg(withIterableParam));
+				final JConditional ifNull = initBody._if(JExpr._this().ref(builderField).ne(JExpr._null()));
+				final var newMutableListExpression = JExpr._new(propertyOutline.getMutableListClass().narrow(elementType));
+				final var mutableListClassFullName = propertyOutline.getMutableListClass().fullName();
+				final var newMutableListExpressionWithArg = mutableListClassFullName.equals("java.util.ArrayList") ? newMutableListExpression.arg(JExpr._this().ref(builderField).invoke("size")) : newMutableListExpression;
+				final JVar collectionVar = ifNull._then().decl(JMod.FINAL, this.pluginContext.listClass.narrow(elementType), fieldName, newMutableListExpressionWithArg);
+				final JForEach initForEach = ifNull._then().forEach(childBuilderType, BuilderGenerator.ITEM_VAR_NAME, JExpr._this().ref(builderField));
+				final JInvocation buildMethodInvocation = initForEach.var().invoke(this.settings.getBuildMethodName());
+				final JExpression buildExpression = childBuilderOutline == null ? JExpr.cast(elementType, buildMethodInvocation) : buildMethodInvocation;
+				initForEach.body().add(collectionVar.invoke(ADD_METHOD_PREFIX).arg(buildExpression));
+				ifNull._then().assign(productParam.ref(fieldName), collectionVar);
+				if (addMethod != null) {
+					final JConditional addIfNull = addMethod.body()._if(JExpr._this().ref(builderField).eq(JExpr._null()));
+					addIfNull._then().assign(JExpr._this().ref(builderField), newBuilderList);
+					final JVar childBuilderVar = addMethod.body().decl(JMod.FINAL, childBuilderType, fieldName + this.settings.getBuilderFieldSuffix(), JExpr._new(childBuilderType).arg(JExpr._this()).arg(JExpr._null()).arg(JExpr.FALSE));
+					addMethod.body().add(JExpr._this().ref(builderField).invoke(ADD_METHOD_PREFIX).arg(childBuilderVar));
+					addMethod.body()._return(childBuilderVar);
+				}
+			}
+			if (adoptMethod != null) {
+				generateAdoptedListTransfer(initBody, productParam.ref(fieldName), fieldName, elementType);
 			}
 			this.pluginContext.generateImmutableFieldInit(initBody, productParam, propertyOutline);
 		}
 	}
 
+	/**
+	 * Generates the builder storage of a collection property as a plain list of values.
+	 * Child builders are only stored for elements built through them, which is recorded
+	 * in a flag so that <code>init</code> can bulk-copy the list to the product otherwise.
+	 */
+	private void generateFlatCollectionStorage(final JBlock initBody, final JVar productParam, final PropertyOutline propertyOutline, final JClass elementType, final BuilderOutline childBuilderOutline,
+	                                           final JMethod addIterableMethod, final JVar addIterableParam, final JMethod withIterableMethod, final JVar withIterableParam, final JMethod addMethod) {
+		final String fieldName = propertyOutline.getFieldName();
+		final JClass objectClass = this.pluginContext.codeModel.ref(Object.class);
+		final boolean holdingBuilders = isHoldingBuilders(propertyOutline, elementType);
+		final JClass storedType = holdingBuilders ? objectClass : elementType;
+		final JFieldVar builderField = this.builderClass.raw.field(getBuilderFieldMods(), this.pluginContext.listClass.narrow(storedType), fieldName);
+		final JFieldVar hasBuildersField = holdingBuilders ? this.builderClass.raw.field(getBuilderFieldMods(), this.pluginContext.codeModel.BOOLEAN, fieldName + BuilderGenerator.HAS_BUILDERS_FIELD_SUFFIX) : null;
+		final JClass childBuilderType = childBuilderOutline == null ? null : childBuilderOutline.getBuilderClass().narrow(this.builderClass.type);
+		final JExpression newBuilderList = generateListReset(builderField, JExpr._new(propertyOutline.getMutableListClass().narrow(storedType)), hasBuildersField);
+		final JBlock addIterableBody = addIterableMethod.body()._if(addIterableParam.ne(JExpr._null()))._then();
+		addIterableBody._if(JExpr._this().ref(builderField).eq(JExpr._null()))._then().assign(JExpr._this().ref(builderField), newBuilderList);
+		generateFlatAdd(addIterableBody, builderField, hasBuildersField, addIterableParam, elementType, childBuilderType);
+		addIterableMethod.body()._return(JExpr._this());
+		final JBlock withIterableIfNotNull = withIterableMethod.body()._if(JExpr._this().ref(builderField).ne(JExpr._null()))._then();
+		withIterableIfNotNull.add(JExpr._this().ref(builderField).invoke("clear"));
+		if (hasBuildersField != null) {
+			withIterableIfNotNull.assign(JExpr._this().ref(hasBuildersField), JExpr.FALSE);
+		}
+		withIterableMethod.body()._return(JExpr.invoke(addIterableMethod).arg(withIterableParam));
+		final JBlock initIfNotNull = initBody._if(JExpr._this().ref(builderField).ne(JExpr._null()))._then();
+		final JBlock copyBlock;
+		if (hasBuildersField != null) {
+			final JConditional ifHasBuilders = initIfNotNull._if(JExpr._this().ref(hasBuildersField));
+			final JVar collectionVar = ifHasBuilders._then().decl(JMod.FINAL, this.pluginContext.listClass.narrow(elementType), fieldName, newMutableList(propertyOutline, elementType, JExpr._this().ref(builderField).invoke("size")));
+			final JForEach initForEach = ifHasBuilders._then().forEach(objectClass, BuilderGenerator.ITEM_VAR_NAME, JExpr._this().ref(builderField));
+			initForEach.body().add(collectionVar.invoke(ADD_METHOD_PREFIX).arg(JOp.cond(initForEach.var()._instanceof(this.pluginContext.buildableInterface),
+					JExpr.cast(elementType, JExpr.cast(this.pluginContext.buildableInterface, initForEach.var()).invoke(this.settings.getBuildMethodName())),
+					JExpr.cast(elementType, initForEach.var()))));
+			ifHasBuilders._then().assign(productParam.ref(fieldName), collectionVar);
+			copyBlock = ifHasBuilders._else();
+		} else {
+			copyBlock = initIfNotNull;
+		}
+		generateBulkCopy(copyBlock, productParam.ref(fieldName), propertyOutline, elementType, JExpr._this().ref(builderField), holdingBuilders);
+		if (addMethod != null) {
+			addMethod.body()._if(JExpr._this().ref(builderField).eq(JExpr._null()))._then().assign(JExpr._this().ref(builderField), newBuilderList);
+			final JVar childBuilderVar = addMethod.body().decl(JMod.FINAL, childBuilderType, fieldName + this.settings.getBuilderFieldSuffix(), JExpr._new(childBuilderType).arg(JExpr._this()).arg(JExpr._null()).arg(JExpr.FALSE));
+			addMethod.body().add(JExpr._this().ref(builderField).invoke(ADD_METHOD_PREFIX).arg(childBuilderVar));
+			addMethod.body().assign(JExpr._this().ref(hasBuildersField), JExpr.TRUE);
+			addMethod.body()._return(childBuilderVar);
+		}
+	}
+
+	/**
+	 * Generates the reset of a builder list. The list is cleared and kept as a spare that is
+	 * used again when the next value is added, so a reset builder holds no list, like a new one,
+	 * but the capacity of the list is reused.
+	 *
+	 * @return The expression to create the builder list with.
+	 */
+	private JExpression generateListReset(final JFieldVar builderField, final JExpression newList, final JFieldVar hasBuildersField) {
+		if (this.resetMethod == null) {
+			return newList;
+		}
+		final JFieldVar spareField = this.builderClass.raw.field(JMod.PRIVATE, builderField.type(), builderField.name() + BuilderGenerator.SPARE_FIELD_SUFFIX);
+		final JBlock resetIfNotNull = this.resetMethod.body()._if(JExpr._this().ref(builderField).ne(JExpr._null()))._then();
+		resetIfNotNull.add(JExpr._this().ref(builderField).invoke("clear"));
+		resetIfNotNull.assign(JExpr._this().ref(spareField), JExpr._this().ref(builderField));
+		resetIfNotNull.assign(JExpr._this().ref(builderField), JExpr._null());
+		if (hasBuildersField != null) {
+			this.resetMethod.body().assign(JExpr._this().ref(hasBuildersField), JExpr.FALSE);
+		}
+		return JOp.cond(JExpr._this().ref(spareField).eq(JExpr._null()), newList, JExpr._this().ref(spareField));
+	}
+
+	/**
+	 * Adds the items of an iterable to a flat builder list. Plain values are bulk-added if
+	 * the iterable is a collection, only when values have to be copied by child builders
+	 * are these created per item.
+	 */
+	private void generateFlatAdd(final JBlock block, final JFieldVar builderField, final JFieldVar hasBuildersField, final JVar iterableParam, final JClass elementType, final JClass childBuilderType) {
+		if (childBuilderType != null && this.settings.isCopyAlways()) {
+			final JForEach forEach = block.forEach(elementType, BuilderGenerator.ITEM_VAR_NAME, iterableParam);
+			forEach.body().add(JExpr._this().ref(builderField).invoke(ADD_METHOD_PREFIX).arg(JExpr._new(childBuilderType).arg(JExpr._this()).arg(forEach.var()).arg(JExpr.TRUE)));
+			block.assign(JExpr._this().ref(hasBuildersField), JExpr.TRUE);
+		} else if (isPossiblyAdoptable(elementType)) {
+			final JForEach forEach = block.forEach(elementType, BuilderGenerator.ITEM_VAR_NAME, iterableParam);
+			generateClaim(forEach.body(), forEach.var(), elementType);
+			forEach.body().add(JExpr._this().ref(builderField).invoke(ADD_METHOD_PREFIX).arg(forEach.var()));
+		} else {
+			final JConditional ifCollection = block._if(iterableParam._instanceof(this.pluginContext.collectionClass));
+			ifCollection._then().add(JExpr._this().ref(builderField).invoke("addAll").arg(JExpr.cast(this.pluginContext.collectionClass.narrow(elementType.wildcard()), iterableParam)));
+			final JForEach forEach = ifCollection._else().forEach(elementType, BuilderGenerator.ITEM_VAR_NAME, iterableParam);
+			forEach.body().add(JExpr._this().ref(builderField).invoke(ADD_METHOD_PREFIX).arg(forEach.var()));
+		}
+	}
+
+	private boolean isHoldingBuilders(final PropertyOutline propertyOutline, final JClass elementType) {
+		if (getBuilderDeclaration(elementType) != null) {
+			return true;
+		}
+		for (final PropertyOutline.TagRef tagRef : propertyOutline.getChoiceProperties()) {
+			if (getBuilderDeclaration(tagRef.getTypeInfo().getType().toType(this.pluginContext.outline, Aspect.EXPOSED).boxify()) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private JInvocation newMutableList(final PropertyOutline propertyOutline, final JClass elementType, final JExpression size) {
+		final JInvocation newMutableListExpression = JExpr._new(propertyOutline.getMutableListClass().narrow(elementType));
+		return propertyOutline.getMutableListClass().fullName().equals("java.util.ArrayList") ? newMutableListExpression.arg(size) : newMutableListExpression;
+	}
+
+	private JMethod generateAdoptMethod(final String propertyName, final String fieldName, final JClass elementType, final String schemaAnnotation) {
+		final JMethod adoptMethod = this.builderClass.raw.method(JMod.PUBLIC, this.builderClass.type, BuilderGenerator.ADOPT_METHOD_PREFIX + propertyName);
+		final JVar adoptParam = adoptMethod.param(JMod.FINAL, this.pluginContext.listClass.narrow(elementType), fieldName);
+		JavadocUtils.appendJavadocCommentParagraphs(
+					adoptMethod.javadoc(),
+						this.settings.isGeneratingJavadocFromAnnotations() ? schemaAnnotation : null,
+					getMessage(this.settings.isCopyAlways() ? "comment.adoptMethod.copyAlways" : "comment.adoptMethod", fieldName))
+				.addParam(adoptParam)
+				.append(JavadocUtils.hardWrapTextForJavadoc(getMessage("comment.adoptMethod.param", fieldName)));
+		return adoptMethod;
+	}
+
+	/**
+	 * Generates the builder field holding a list adopted by <code>adoptXXX()</code>, which
+	 * replaces all previous values and is discarded again by <code>withXXX()</code>.
+	 */
+	private void generateAdoptedListStorage(final JMethod adoptMethod, final JMethod withIterableMethod, final JClass iterableType, final String fieldName, final JClass elementType) {
+		final JFieldVar adoptedField = this.builderClass.raw.field(getBuilderFieldMods(), this.pluginContext.listClass.narrow(elementType), fieldName + BuilderGenerator.ADOPTED_FIELD_SUFFIX);
+		withIterableMethod.body().assign(JExpr._this().ref(adoptedField), JExpr._null());
+		adoptMethod.body().invoke(withIterableMethod).arg(JExpr.cast(iterableType, JExpr._null()));
+		adoptMethod.body().assign(JExpr._this().ref(adoptedField), adoptMethod.params().get(0));
+		adoptMethod.body()._return(JExpr._this());
+		if (this.resetMethod != null) {
+			this.resetMethod.body().assign(JExpr._this().ref(adoptedField), JExpr._null());
+		}
+	}
+
+	/**
+	 * Hands an adopted list over to the product, with the values added to this builder
+	 * after adopting it appended. In "copyAlways" mode, items that can't be adopted
+	 * because they are already owned by another object are replaced by copies.
+	 * The list is owned by the product afterwards, so the builder lets go of it.
+	 */
+	private void generateAdoptedListTransfer(final JBlock block, final JAssignmentTarget target, final String fieldName, final JClass elementType) {
+		final JFieldRef adoptedField = JExpr._this().ref(fieldName + BuilderGenerator.ADOPTED_FIELD_SUFFIX);
+		final JBlock ifAdopted = block._if(adoptedField.ne(JExpr._null()))._then();
+		final BuilderOutline childBuilderOutline = getBuilderDeclaration(elementType);
+		if (this.settings.isCopyAlways() && childBuilderOutline != null) {
+			final JForLoop forLoop = ifAdopted._for();
+			final JVar indexVar = forLoop.init(this.pluginContext.codeModel.INT, BuilderGenerator.INDEX_VAR_NAME, JExpr.lit(0));
+			forLoop.test(indexVar.lt(adoptedField.invoke("size")));
+			forLoop.update(indexVar.incr());
+			final JVar itemVar = forLoop.body().decl(JMod.FINAL, elementType, BuilderGenerator.ITEM_VAR_NAME, adoptedField.invoke("get").arg(indexVar));
+			final JExpression mustCopy = isAdoptable(childBuilderOutline.getClassOutline()) ? itemVar.ne(JExpr._null()).cand(itemVar.invoke(BuilderGenerator.ADOPT_METHOD_NAME).not()) : itemVar.ne(JExpr._null());
+			forLoop.body()._if(mustCopy)._then().add(adoptedField.invoke("set").arg(indexVar).arg(itemVar.invoke(this.settings.getNewCopyBuilderMethodName()).arg(JExpr._this()).invoke(this.settings.getBuildMethodName())));
+		} else if (isPossiblyAdoptable(elementType)) {
+			final JForEach forEach = ifAdopted.forEach(elementType, BuilderGenerator.ITEM_VAR_NAME, adoptedField);
+			generateClaim(forEach.body(), forEach.var(), elementType);
+		}
+		ifAdopted._if(target.ne(JExpr._null()))._then().add(adoptedField.invoke("addAll").arg(target));
+		ifAdopted.assign(target, adoptedField);
+		ifAdopted.assign(adoptedField, JExpr._null());
+	}
+
+	private JMethod generateStreamMethod(final String propertyName, final String fieldName, final JClass elementType, final String schemaAnnotation) {
+		final JMethod streamMethod = this.builderClass.raw.method(JMod.PUBLIC, this.builderClass.type, BuilderGenerator.STREAM_METHOD_PREFIX + propertyName);
+		final JVar sinkParam = streamMethod.param(JMod.FINAL, this.pluginContext.codeModel.ref(Consumer.class).narrow(new JSuperWildcard(elementType)), BuilderGenerator.SINK_PARAM_NAME);
+		JavadocUtils.appendJavadocCommentParagraphs(
+					streamMethod.javadoc(),
+						this.settings.isGeneratingJavadocFromAnnotations() ? schemaAnnotation : null,
+					getMessage("comment.streamMethod", fieldName, this.settings.getBuildMethodName()))
+				.addParam(sinkParam)
+				.append(JavadocUtils.hardWrapTextForJavadoc(getMessage("comment.streamMethod.param", fieldName)));
+		return streamMethod;
+	}
+
+	/**
+	 * Generates the sink set by <code>streamXXX()</code>. While a sink is set, values are handed
+	 * to it as soon as they are complete instead of being collected for the product: plain values
+	 * when they are added, values built by child builders when the next value is added or the
+	 * product is built.
+	 */
+	private void generateStreamingSink(final JBlock initBody, final JMethod streamMethod, final JMethod addIterableMethod, final JVar addIterableParam, final JMethod addMethod,
+	                                   final PropertyOutline propertyOutline, final JClass elementType, final BuilderOutline childBuilderOutline) {
+		final String fieldName = propertyOutline.getFieldName();
+		final JFieldVar sinkField = this.builderClass.raw.field(getBuilderFieldMods(), streamMethod.params().get(0).type(), fieldName + BuilderGenerator.SINK_FIELD_SUFFIX);
+		final JMethod flushMethod = generateFlushMethod(propertyOutline, elementType, sinkField);
+		final JExpression isStreaming = JExpr._this().ref(sinkField).ne(JExpr._null());
+		streamMethod.body().assign(JExpr._this().ref(sinkField), streamMethod.params().get(0));
+		streamMethod.body()._if(isStreaming)._then().invoke(flushMethod);
+		streamMethod.body()._return(JExpr._this());
+		final JBlock addIterableIfStreaming = addIterableMethod.body()._if(isStreaming.cand(addIterableParam.ne(JExpr._null())))._then();
+		addIterableIfStreaming.invoke(flushMethod);
+		final JForEach forEach = addIterableIfStreaming.forEach(elementType, BuilderGenerator.ITEM_VAR_NAME, addIterableParam);
+		final JExpression value = childBuilderOutline != null && this.settings.isCopyAlways()
+				? JExpr._new(childBuilderOutline.getBuilderClass().narrow(this.builderClass.type)).arg(JExpr._this()).arg(forEach.var()).arg(JExpr.TRUE).invoke(this.settings.getBuildMethodName())
+				: forEach.var();
+		forEach.body().add(JExpr._this().ref(sinkField).invoke("accept").arg(value));
+		addIterableIfStreaming._return(JExpr._this());
+		if (addMethod != null) {
+			addMethod.body()._if(isStreaming)._then().invoke(flushMethod);
+		}
+		initBody._if(isStreaming)._then().invoke(flushMethod);
+		if (this.resetMethod != null) {
+			this.resetMethod.body().assign(JExpr._this().ref(sinkField), JExpr._null());
+		}
+	}
+
+	/**
+	 * Generates the method handing all values collected by this builder so far to the sink,
+	 * building the values of child builders. Values are removed from the builder as they are
+	 * handed to the sink, so if the sink throws, a later flush continues with the next value
+	 * instead of delivering the same values again.
+	 */
+	private JMethod generateFlushMethod(final PropertyOutline propertyOutline, final JClass elementType, final JFieldVar sinkField) {
+		final String fieldName = propertyOutline.getFieldName();
+		final JFieldRef builderField = JExpr._this().ref(fieldName);
+		final JMethod flushMethod = this.builderClass.raw.method(getBuilderFieldMods(), this.pluginContext.voidType, BuilderGenerator.FLUSH_METHOD_PREFIX + propertyOutline.getBaseName());
+		final JBlock ifNotNull = flushMethod.body()._if(builderField.ne(JExpr._null()))._then();
+		final JVar deliveredVar = ifNotNull.decl(this.pluginContext.codeModel.INT, BuilderGenerator.DELIVERED_VAR_NAME, JExpr.lit(0));
+		final JTryBlock tryBlock = ifNotNull._try();
+		final JBlock whileBody = tryBlock.body()._while(deliveredVar.lt(builderField.invoke("size"))).body();
+		final JExpression item = builderField.invoke("get").arg(deliveredVar);
+		final JExpression value;
+		if (!this.settings.isGeneratingFlatStorage()) {
+			value = JExpr.cast(elementType, item.invoke(this.settings.getBuildMethodName()));
+		} else if (isHoldingBuilders(propertyOutline, elementType)) {
+			final JVar itemVar = whileBody.decl(JMod.FINAL, this.pluginContext.codeModel.ref(Object.class), BuilderGenerator.ITEM_VAR_NAME, item);
+			value = JOp.cond(itemVar._instanceof(this.pluginContext.buildableInterface),
+					JExpr.cast(elementType, JExpr.cast(this.pluginContext.buildableInterface, itemVar).invoke(this.settings.getBuildMethodName())),
+					JExpr.cast(elementType, itemVar));
+		} else {
+			value = item;
+		}
+		final JVar valueVar = whileBody.decl(JMod.FINAL, elementType, BuilderGenerator.VALUE_VAR_NAME, value);
+		whileBody.assignPlus(deliveredVar, JExpr.lit(1));
+		whileBody.add(JExpr._this().ref(sinkField).invoke("accept").arg(valueVar));
+		tryBlock._finally().add(builderField.invoke("subList").arg(JExpr.lit(0)).arg(deliveredVar).invoke("clear"));
+		if (this.settings.isGeneratingFlatStorage() && isHoldingBuilders(propertyOutline, elementType)) {
+			tryBlock._finally()._if(builderField.invoke("isEmpty"))._then().assign(JExpr._this().ref(fieldName + BuilderGenerator.HAS_BUILDERS_FIELD_SUFFIX), JExpr.FALSE);
+		}
+		return flushMethod;
+	}
+
+	/**
+	 * Objects of a class can only be adopted without copying if the topmost buildable class
+	 * of its hierarchy has been generated with the {@link Adoptable} ownership marker.
+	 */
+	private boolean isAdoptable(final TypeOutline typeOutline) {
+		return this.settings.isCopyAlways() && this.settings.isGeneratingAdoption() && typeOutline.isLocal()
+				&& (!isSuperClassBuildable(typeOutline) || isAdoptable(typeOutline.getSuperClass()));
+	}
+
+	/**
+	 * Generates the {@link Adoptable} ownership marker on the topmost buildable class of a
+	 * hierarchy. The marker is only set on products of builders without a parent builder,
+	 * and is cleared by a compare-and-set, so that an object is only ever adopted once.
+	 */
+	private void generateAdoptableImplementation() {
+		this.definedClass._implements(Adoptable.class);
+		this.definedClass.field(JMod.PROTECTED | JMod.TRANSIENT | JMod.VOLATILE, this.pluginContext.codeModel.INT, BuilderGenerator.ADOPTABLE_FIELD_NAME);
+		final JClass updaterClass = this.pluginContext.codeModel.ref(AtomicIntegerFieldUpdater.class).narrow(this.definedClass);
+		final JFieldVar updaterField = this.definedClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, updaterClass, BuilderGenerator.ADOPTABLE_UPDATER_FIELD_NAME,
+				this.pluginContext.codeModel.ref(AtomicIntegerFieldUpdater.class).staticInvoke("newUpdater").arg(this.definedClass.dotclass()).arg(JExpr.lit(BuilderGenerator.ADOPTABLE_FIELD_NAME)));
+		final JMethod adoptMethod = this.definedClass.method(JMod.PUBLIC, this.pluginContext.codeModel.BOOLEAN, BuilderGenerator.ADOPT_METHOD_NAME);
+		adoptMethod.annotate(Override.class);
+		adoptMethod.body()._return(updaterField.invoke("compareAndSet").arg(JExpr._this()).arg(JExpr.lit(1)).arg(JExpr.lit(0)));
+	}
+
+	/**
+	 * Whether values of the given type may implement {@link Adoptable}, so that they have
+	 * to be claimed when they are attached to a product without being copied.
+	 */
+	private boolean isPossiblyAdoptable(final JType type) {
+		if (!this.settings.isCopyAlways() || !this.settings.isGeneratingAdoption() || type.isPrimitive()) {
+			return false;
+		} else if (type.fullName().equals(Object.class.getName())) {
+			return true;
+		} else {
+			final BuilderOutline builderOutline = getBuilderDeclaration(type);
+			return builderOutline != null && isAdoptable(builderOutline.getClassOutline());
+		}
+	}
+
+	/**
+	 * Generates code claiming a value that is attached to a product without being copied,
+	 * so that it is copied instead of adopted if it is later handed to another builder.
+	 */
+	private void generateClaim(final JBlock block, final JExpression value, final JType type) {
+		if (isPossiblyAdoptable(type)) {
+			final JClass adoptableClass = this.pluginContext.codeModel.ref(Adoptable.class);
+			block._if(value._instanceof(adoptableClass))._then().add(JExpr.cast(adoptableClass, value).invoke(BuilderGenerator.ADOPT_METHOD_NAME));
+		}
+	}
+
+	/**
+	 * Makes the setters of properties that may hold an {@link Adoptable} object claim it,
+	 * as the object is attached to this object from then on.
+	 */
+	private void generateClaimingSetters() {
+		for (final DefinedPropertyOutline propertyOutline : this.typeOutline.getDeclaredFields()) {
+			if (!propertyOutline.isCollection()) {
+				final JMethod setter = this.definedClass.getMethod("set" + propertyOutline.getBaseName(), new JType[] {propertyOutline.getRawType()});
+				if (setter != null) {
+					generateClaim(setter.body(), setter.params().get(0), propertyOutline.getRawType());
+				}
+			}
+		}
+	}
+
 	private void generateSingularProperty(final JBlock initBody, final JVar productParam, final DefinedPropertyOutline propertyOutline) {
 		final String propertyName = propertyOutline.getBaseName();
 		final String fieldName = propertyOutline.getFieldName();
@@ -356,12 +751,16 @@ class BuilderGenerator {
 			final JFieldVar builderField;
 			if (this.implement) {
 				if(propertyOutline.getFieldOutline().getPropertyInfo().defaultValue != null) {
-					builderField = this.builderClass.raw.field(JMod.PRIVATE, fieldType, fieldName, propertyOutline.getFieldOutline().getPropertyInfo().defaultValue.compute(this.pluginContext.outline));
+					builderField = this.builderClass.raw.field(getBuilderFieldMods(), fieldType, fieldName, propertyOutline.getFieldOutline().getPropertyInfo().defaultValue.compute(this.pluginContext.outline));
 				} else {
-					builderField = this.builderClass.raw.field(JMod.PRIVATE, fieldType, fieldName);
+					builderField = this.builderClass.raw.field(getBuilderFieldMods(), fieldType, fieldName);
 				}
+				generateClaim(withMethod.body(), param, fieldType);
 				withMethod.body().assign(JExpr._this().ref(builderField), param);
 				withMethod.body()._return(JExpr._this());
+				if (this.resetMethod != null) {
+					this.resetMethod.body().assign(JExpr._this().ref(builderField), getResetValue(propertyOutline));
+				}
 				if(propertyOutline.isChoice() && fieldType.fullName().equals(Object.class.getName())) {
 					final var ifBlock = initBody._if(JExpr._this().ref(builderField)._instanceof(this.pluginContext.buildableInterface));
 					ifBlock._then().assign(productParam.ref(fieldName), JExpr.cast(this.pluginContext.buildableInterface, JExpr._this().ref(builderField)).invoke(BUILD_METHOD_NAME));
@@ -382,18 +781,53 @@ class BuilderGenerator {
 				generateBuilderMethodJavadoc(withBuilderMethod, WITH_METHOD_PREFIX, fieldName, propertyOutline.getSchemaAnnotationText().orElse(null));
 			}
 			if (this.implement) {
-				final JFieldVar builderField = this.builderClass.raw.field(JMod.PRIVATE, builderFieldElementType, fieldName);
+				final JFieldVar builderField = this.builderClass.raw.field(getBuilderFieldMods(), builderFieldElementType, fieldName);
 				withValueMethod.body().assign(JExpr._this().ref(builderField), nullSafe(param, JExpr._new(builderFieldElementType).arg(JExpr._this()).arg(param).arg(this.settings.isCopyAlways() ? JExpr.TRUE : JExpr.FALSE)));
 				withValueMethod.body()._return(JExpr._this());
 				if (withBuilderMethod != null) {
 					withBuilderMethod.body()._if(JExpr._this().ref(builderField).ne(JExpr._null()))._then()._return(JExpr._this().ref(builderField));
+					if (this.resetMethod != null && childBuilderOutline.getClassOutline().isLocal()) {
+						generateSpareBuilder(withBuilderMethod, builderField, childBuilderOutline);
+					}
 					withBuilderMethod.body()._return(JExpr._this().ref(builderField).assign(JExpr._new(builderFieldElementType).arg(JExpr._this()).arg(JExpr._null()).arg(this.settings.isCopyAlways() ? JExpr.TRUE : JExpr.FALSE)));
 				}
 				initBody.assign(productParam.ref(fieldName), nullSafe(JExpr._this().ref(builderField), JExpr._this().ref(builderField).invoke(this.settings.getBuildMethodName())));
+				if (this.resetMethod != null) {
+					this.resetMethod.body().assign(JExpr._this().ref(builderField), JExpr._null());
+				}
 			}
 		}
 	}
 
+	/**
+	 * Keeps the child builder of a singular property across calls to <code>reset()</code>,
+	 * so the builder-returning "with" method can hand out the reset builder again instead of
+	 * allocating a new one. Only builders of exactly the declared type are kept, builders for
+	 * subtypes created by copy operations are dropped.
+	 */
+	private void generateSpareBuilder(final JMethod withBuilderMethod, final JFieldVar builderField, final BuilderOutline childBuilderOutline) {
+		final JFieldVar spareField = this.builderClass.raw.field(JMod.PRIVATE, builderField.type(), builderField.name() + BuilderGenerator.SPARE_FIELD_SUFFIX);
+		final JConditional ifSpare = withBuilderMethod.body()._if(JExpr._this().ref(spareField).ne(JExpr._null()));
+		ifSpare._then().assign(JExpr._this().ref(builderField), JExpr._this().ref(spareField));
+		ifSpare._then().assign(JExpr._this().ref(spareField), JExpr._null());
+		ifSpare._then()._return(JExpr._this().ref(builderField));
+		final JConditional ifReusable = this.resetMethod.body()._if(JExpr._this().ref(builderField).ne(JExpr._null()).cand(JExpr._this().ref(builderField).invoke("getClass").eq(childBuilderOutline.getBuilderClass().dotclass())));
+		ifReusable._then().assign(JExpr._this().ref(spareField), JExpr._this().ref(builderField).invoke(BuilderGenerator.RESET_METHOD_NAME));
+	}
+
+	private JExpression getResetValue(final DefinedPropertyOutline propertyOutline) {
+		final JType fieldType = propertyOutline.getRawType();
+		if (propertyOutline.getFieldOutline().getPropertyInfo().defaultValue != null) {
+			return propertyOutline.getFieldOutline().getPropertyInfo().defaultValue.compute(this.pluginContext.outline);
+		} else if (!fieldType.isPrimitive()) {
+			return JExpr._null();
+		} else if (fieldType == this.pluginContext.codeModel.BOOLEAN) {
+			return JExpr.FALSE;
+		} else {
+			return JExpr.cast(fieldType, JExpr.lit(0));
+		}
+	}
+
 	void generateBuilderMemberOverride(final PropertyOutline superPropertyOutline, final PropertyOutline propertyOutline, final String superPropertyName) throws SAXException {
 		final JType fieldType = propertyOutline.getRawType();
 		final String fieldName = propertyOutline.getFieldName();
@@ -444,6 +878,22 @@ class BuilderGenerator {
 					withVarargsMethod.body().invoke(JExpr._super(), WITH_METHOD_PREFIX + superPropertyName).arg(withVarargsParam);
 					withVarargsMethod.body()._return(JExpr._this());
 				}
+				if (this.settings.isGeneratingAdoption()) {
+					final JMethod adoptMethod = generateAdoptMethod(superPropertyName, fieldName, elementType, propertyOutline.getSchemaAnnotationText().orElse(null));
+					if (this.implement) {
+						adoptMethod.annotate(Override.class);
+						adoptMethod.body().invoke(JExpr._super(), BuilderGenerator.ADOPT_METHOD_PREFIX + superPropertyName).arg(adoptMethod.params().get(0));
+						adoptMethod.body()._return(JExpr._this());
+					}
+				}
+				if (this.settings.isGeneratingStreaming()) {
+					final JMethod streamMethod = generateStreamMethod(superPropertyName, fieldName, elementType, propertyOutline.getSchemaAnnotationText().orElse(null));
+					if (this.implement) {
+						streamMethod.annotate(Override.class);
+						streamMethod.body().invoke(JExpr._super(), BuilderGenerator.STREAM_METHOD_PREFIX + superPropertyName).arg(streamMethod.params().get(0));
+						streamMethod.body()._return(JExpr._this());
+					}
+				}
 				final BuilderOutline childBuilderOutline = getReferencedBuilderDeclaration(propertyOutline);
 				if (childBuilderOutline != null && !childBuilderOutline.getClassOutline().getImplClass().isAbstract()) {
 					final JClass builderFieldElementType = childBuilderOutline.getBuilderClass().narrow(this.builderClass.type.wildcard());
@@ -514,26 +964,216 @@ class BuilderGenerator {
 			buildMethod.annotate(Override.class);
 		}
 		if (this.implement) {
-			final JExpression buildExpression = JExpr._this().invoke(initMethod).arg(JExpr._new(this.definedClass));
-			if (this.settings.isCopyAlways()) {
-				buildMethod.body()._return(buildExpression);
+			final JBlock body;
+			if (this.preserveIdentity && !this.definedClass.isAbstract()) {
+				// builders shared by an identity-preserving copy build their product only once
+				final JTryBlock tryBlock = openCopyContext(buildMethod.body());
+				body = tryBlock.body();
+				final JVar existingProductVar = body.decl(JMod.FINAL, this.definedClass, BuilderGenerator.EXISTING_PRODUCT_VAR_NAME, JExpr.ref(BuilderGenerator.COPY_CONTEXT_VAR_NAME).invoke("lookup").arg(JExpr._this()));
+				body._if(existingProductVar.ne(JExpr._null()))._then()._return(existingProductVar);
+			} else {
+				body = buildMethod.body();
+			}
+			if (this.settings.isCopyAlways() && isAdoptable(this.typeOutline) && !this.definedClass.isAbstract()) {
+				final JVar productVar = body.decl(JMod.FINAL, this.definedClass, BuilderGenerator.PRODUCT_VAR_NAME, generateBuildExpression(body, initMethod));
+				body._if(JExpr.ref(BuilderGenerator.PARENT_BUILDER_PARAM_NAME).eq(JExpr._null()))._then().assign(productVar.ref(BuilderGenerator.ADOPTABLE_FIELD_NAME), JExpr.lit(1));
+				body._return(productVar);
+			} else if (this.settings.isCopyAlways()) {
+				body._return(generateBuildExpression(body, initMethod));
 			} else if (this.definedClass.isAbstract()) {
-				buildMethod.body()._return(JExpr.cast(this.definedClass, this.storedValueField));
+				body._return(JExpr.cast(this.definedClass, this.storedValueField));
 			} else {
-				final JConditional jConditional = buildMethod.body()._if(this.storedValueField.eq(JExpr._null()));
-				jConditional._then()._return(buildExpression);
+				final JConditional jConditional = body._if(this.storedValueField.eq(JExpr._null()));
+				jConditional._then()._return(generateBuildExpression(jConditional._then(), initMethod));
 				jConditional._else()._return(JExpr.cast(this.definedClass, this.storedValueField));
 			}
 		}
 		return buildMethod;
 	}
 
+	private JExpression generateBuildExpression(final JBlock block, final JMethod initMethod) {
+		final boolean registerProduct = this.preserveIdentity && !this.definedClass.isAbstract();
+		final JExpression copyContext = JExpr.ref(BuilderGenerator.COPY_CONTEXT_VAR_NAME);
+		if (this.constructorBuild && !this.definedClass.isAbstract()) {
+			if (registerProduct) {
+				// the product can only be registered once it is constructed, so a cycle can't be resolved
+				block._if(copyContext.invoke("contains").arg(JExpr._this()))._then()._throw(JExpr._new(this.pluginContext.codeModel.ref(IllegalStateException.class)).arg(JExpr.lit("Cyclic reference to a " + this.definedClass.name() + " builder, which cannot be resolved by constructor")));
+				block.add(copyContext.invoke("register").arg(JExpr._this()).arg(JExpr._null()));
+			}
+			final JInvocation newProduct = JExpr._new(this.definedClass);
+			for (final DefinedPropertyOutline propertyOutline : getConstructorProperties(this.typeOutline)) {
+				newProduct.arg(generateBuildValue(block, propertyOutline));
+			}
+			return registerProduct ? copyContext.invoke("register").arg(JExpr._this()).arg(newProduct) : newProduct;
+		} else {
+			final JExpression newProduct = JExpr._new(this.definedClass);
+			return JExpr._this().invoke(initMethod).arg(registerProduct ? copyContext.invoke("register").arg(JExpr._this()).arg(newProduct) : newProduct);
+		}
+	}
+
+	/**
+	 * Declares a variable holding the builder copy context of the current thread,
+	 * and a try block that closes it again.
+	 */
+	private JTryBlock openCopyContext(final JBlock block) {
+		final JClass copyContextClass = this.pluginContext.codeModel.ref(CopyContext.class);
+		final JVar copyContextVar = block.decl(JMod.FINAL, copyContextClass, BuilderGenerator.COPY_CONTEXT_VAR_NAME, copyContextClass.staticInvoke("openBuilderContext"));
+		final JTryBlock tryBlock = block._try();
+		tryBlock._finally().add(copyContextVar.invoke("close"));
+		return tryBlock;
+	}
+
+	/**
+	 * Generates a package-private constructor on the product class taking the values of all
+	 * properties of the class and its superclasses, so that <code>build()</code> can create
+	 * an immutable product in a single constructor call instead of the <code>init</code> chain.
+	 */
+	private void generateAllFieldsConstructor() {
+		if (this.definedClass.getConstructor(new JType[0]) == null) {
+			final JMethod defaultConstructor = this.definedClass.constructor(this.definedClass.isAbstract() ? JMod.PROTECTED : JMod.PUBLIC);
+			defaultConstructor.body().directStatement("// " + getMessage("comment.defaultConstructor"));
+			defaultConstructor.javadoc().append(getMessage("comment.defaultConstructor"));
+		}
+		final JMethod constructor = this.definedClass.constructor(JMod.NONE);
+		constructor.javadoc().append(JavadocUtils.hardWrapTextForJavadoc(getMessage("comment.allFieldsConstructor", this.settings.getBuildMethodName())));
+		if (isSuperClassBuildable(this.typeOutline)) {
+			final JTypedInvocation superInvocation = this.pluginContext._super();
+			for (final DefinedPropertyOutline propertyOutline : getConstructorProperties(this.typeOutline.getSuperClass())) {
+				superInvocation.arg(constructor.param(JMod.FINAL, propertyOutline.getRawType(), propertyOutline.getFieldName()));
+			}
+			constructor.body().add(superInvocation);
+		}
+		for (final DefinedPropertyOutline propertyOutline : this.typeOutline.getDeclaredFields()) {
+			if (propertyOutline.hasGetter()) {
+				final JVar param = constructor.param(JMod.FINAL, propertyOutline.getRawType(), propertyOutline.getFieldName());
+				constructor.body().assign(JExpr._this().ref(propertyOutline.getFieldName()), param);
+				if (propertyOutline.isCollection() && !propertyOutline.getRawType().isArray()) {
+					this.pluginContext.generateImmutableFieldInit(constructor.body(), JExpr._this(), propertyOutline);
+				}
+			}
+		}
+	}
+
+	private List<DefinedPropertyOutline> getConstructorProperties(final TypeOutline typeOutline) {
+		final List<DefinedPropertyOutline> properties = isSuperClassBuildable(typeOutline) ? getConstructorProperties(typeOutline.getSuperClass()) : new ArrayList<>();
+		for (final DefinedPropertyOutline propertyOutline : ((DefinedTypeOutline)typeOutline).getDeclaredFields()) {
+			if (propertyOutline.hasGetter()) {
+				properties.add(propertyOutline);
+			}
+		}
+		return properties;
+	}
+
+	/**
+	 * Generates the code to compute the value of a property from the state of this builder,
+	 * which must have been declared by this builder or one of its superclass builders.
+	 */
+	private JExpression generateBuildValue(final JBlock block, final DefinedPropertyOutline propertyOutline) {
+		final String fieldName = propertyOutline.getFieldName();
+		final JFieldRef builderField = JExpr._this().ref(fieldName);
+		final JType fieldType = propertyOutline.getRawType();
+		if (propertyOutline.isCollection() && !fieldType.isArray()) {
+			final JClass elementType = ((JClass)fieldType).getTypeParameters().get(0);
+			if (this.settings.isGeneratingStreaming()) {
+				block._if(JExpr._this().ref(fieldName + BuilderGenerator.SINK_FIELD_SUFFIX).ne(JExpr._null()))._then().add(JExpr._this().invoke(BuilderGenerator.FLUSH_METHOD_PREFIX + propertyOutline.getBaseName()));
+			}
+			final JVar collectionVar = block.decl(this.pluginContext.listClass.narrow(elementType), fieldName, JExpr._null());
+			final JBlock ifNotNull = block._if(builderField.ne(JExpr._null()))._then();
+			if (this.settings.isGeneratingFlatStorage()) {
+				if (isHoldingBuilders(propertyOutline, elementType)) {
+					final JConditional ifHasBuilders = ifNotNull._if(JExpr._this().ref(fieldName + BuilderGenerator.HAS_BUILDERS_FIELD_SUFFIX));
+					generateBulkCopy(ifHasBuilders._else(), collectionVar, propertyOutline, elementType, builderField, true);
+					final JBlock buildBlock = ifHasBuilders._then();
+					buildBlock.assign(collectionVar, newMutableList(propertyOutline, elementType, builderField.invoke("size")));
+					final JForEach forEach = buildBlock.forEach(this.pluginContext.codeModel.ref(Object.class), BuilderGenerator.ITEM_VAR_NAME, builderField);
+					forEach.body().add(collectionVar.invoke(ADD_METHOD_PREFIX).arg(JOp.cond(forEach.var()._instanceof(this.pluginContext.buildableInterface),
+							JExpr.cast(elementType, JExpr.cast(this.pluginContext.buildableInterface, forEach.var()).invoke(this.settings.getBuildMethodName())),
+							JExpr.cast(elementType, forEach.var()))));
+				} else {
+					generateBulkCopy(ifNotNull, collectionVar, propertyOutline, elementType, builderField, false);
+				}
+			} else {
+				ifNotNull.assign(collectionVar, newMutableList(propertyOutline, elementType, builderField.invoke("size")));
+				final JForEach forEach = ifNotNull.forEach(this.pluginContext.buildableInterface, BuilderGenerator.ITEM_VAR_NAME, builderField);
+				forEach.body().add(collectionVar.invoke(ADD_METHOD_PREFIX).arg(JExpr.cast(elementType, forEach.var().invoke(this.settings.getBuildMethodName()))));
+			}
+			if (this.settings.isGeneratingAdoption()) {
+				generateAdoptedListTransfer(block, collectionVar, fieldName, elementType);
+			}
+			return collectionVar;
+		} else if (propertyOutline.isCollection() || getReferencedBuilderDeclaration(propertyOutline) == null) {
+			if (propertyOutline.isChoice() && fieldType.fullName().equals(Object.class.getName())) {
+				return JOp.cond(builderField._instanceof(this.pluginContext.buildableInterface), JExpr.cast(this.pluginContext.buildableInterface, builderField).invoke(BUILD_METHOD_NAME), builderField);
+			} else {
+				return builderField;
+			}
+		} else {
+			return nullSafe(builderField, builderField.invoke(this.settings.getBuildMethodName()));
+		}
+	}
+
+	/**
+	 * Copies a flat builder list holding only values to a new product list in one bulk operation.
+	 * A list that may also hold child builders is declared as a list of objects, so it is cast
+	 * to the element type, which is safe as long as no child builders have been added.
+	 */
+	private void generateBulkCopy(final JBlock block, final JAssignmentTarget target, final PropertyOutline propertyOutline, final JClass elementType, final JExpression builderField, final boolean holdingBuilders) {
+		final JExpression valueList = holdingBuilders
+				? JExpr.cast(this.pluginContext.listClass.narrow(elementType.wildcard()), JExpr.cast(this.pluginContext.listClass.narrow(this.pluginContext.codeModel.wildcard()), builderField))
+				: builderField;
+		if (propertyOutline.getMutableListClass().fullName().equals("java.util.ArrayList")) {
+			block.assign(target, JExpr._new(propertyOutline.getMutableListClass().narrow(elementType)).arg(valueList));
+		} else {
+			block.assign(target, JExpr._new(propertyOutline.getMutableListClass().narrow(elementType)));
+			block.add(target.invoke("addAll").arg(valueList));
+		}
+	}
+
+	private boolean isConstructorBuildable(final TypeOutline typeOutline) {
+		if (!isSuperClassBuildable(typeOutline)) {
+			return true;
+		}
+		final TypeOutline superClass = typeOutline.getSuperClass();
+		return superClass.isLocal() && superClass.getImplClass()._package() == typeOutline.getImplClass()._package() && isConstructorBuildable(superClass);
+	}
+
+	private int getBuilderFieldMods() {
+		return this.constructorBuild ? JMod.PROTECTED : JMod.PRIVATE;
+	}
+
 	JMethod generateNewBuilderMethod() {
 		final JMethod builderMethod = this.definedClass.method(JMod.PUBLIC | JMod.STATIC, this.builderClass.raw.narrow(Void.class), this.settings.getNewBuilderMethodName());
 		builderMethod.body()._return(JExpr._new(this.builderClass.raw.narrow(Void.class)).arg(JExpr._null()).arg(JExpr._null()).arg(JExpr.FALSE));
 		return builderMethod;
 	}
 
+	/**
+	 * Generates a static <code>pooledBuilder()</code> method returning a builder that is kept
+	 * per thread and reset on each call, so that repeated construction on the same thread
+	 * doesn't allocate builders. The pooled builder also resets itself when it has built its
+	 * product, so the pool never holds on to the values of the last product built.
+	 */
+	JMethod generatePooledBuilderMethod() {
+		final JClass builderType = this.builderClass.raw.narrow(Void.class);
+		final JDefinedClass pooledBuilderClass = this.pluginContext.codeModel.anonymousClass(builderType);
+		final JMethod buildMethod = pooledBuilderClass.method(JMod.PUBLIC, this.definedClass, this.settings.getBuildMethodName());
+		buildMethod.annotate(Override.class);
+		final JTryBlock tryBlock = buildMethod.body()._try();
+		tryBlock.body()._return(JExpr._super().invoke(this.settings.getBuildMethodName()));
+		tryBlock._finally().invoke(this.resetMethod);
+		final JClass poolType = this.pluginContext.codeModel.ref(ThreadLocal.class).narrow(builderType);
+		final JDefinedClass poolClass = this.pluginContext.codeModel.anonymousClass(poolType);
+		final JMethod initialValueMethod = poolClass.method(JMod.PROTECTED, builderType, "initialValue");
+		initialValueMethod.annotate(Override.class);
+		initialValueMethod.body()._return(JExpr._new(pooledBuilderClass).arg(JExpr._null()).arg(JExpr._null()).arg(JExpr.FALSE));
+		final JFieldVar poolField = this.definedClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, poolType, BuilderGenerator.BUILDER_POOL_FIELD_NAME, JExpr._new(poolClass));
+		final JMethod pooledBuilderMethod = this.definedClass.method(JMod.PUBLIC | JMod.STATIC, builderType, BuilderGenerator.POOLED_BUILDER_METHOD_NAME);
+		pooledBuilderMethod.body()._return(poolField.invoke("get").invoke(this.resetMethod));
+		pooledBuilderMethod.javadoc().append(JavadocUtils.hardWrapTextForJavadoc(getMessage("comment.pooledBuilderMethod", this.definedClass.name())));
+		pooledBuilderMethod.javadoc().addReturn().append(getMessage("comment.pooledBuilderMethod.return", this.definedClass.name()));
+		return pooledBuilderMethod;
+	}
+
 	JMethod generateCopyOfMethod(final TypeOutline paramType, final boolean partial) {
 		if (isSuperClassBuildable(paramType)) {
 			generateCopyOfMethod(paramType.getSuperClass(), partial);
@@ -542,25 +1182,50 @@ class BuilderGenerator {
 		final JTypeVar copyOfMethodTypeParam = copyOfMethod.generify(BuilderGenerator.PARENT_BUILDER_TYPE_PARAMETER_NAME);
 		copyOfMethod.type(this.builderClass.raw.narrow(copyOfMethodTypeParam));
 		final JVar otherParam = copyOfMethod.param(JMod.FINAL, paramType.getImplClass(), BuilderGenerator.OTHER_PARAM_NAME);
-		final CopyGenerator copyGenerator = this.pluginContext.createCopyGenerator(copyOfMethod, partial);
-		final JVar newBuilderVar = copyOfMethod.body().decl(JMod.FINAL, copyOfMethod.type(), BuilderGenerator.NEW_BUILDER_VAR_NAME, JExpr._new(copyOfMethod.type()).arg(JExpr._null()).arg(JExpr._null()).arg(JExpr.FALSE));
-		copyOfMethod.body().add(copyGenerator.generatePartialArgs(this.pluginContext.invoke(otherParam, this.settings.getCopyToMethodName()).arg(newBuilderVar)));
-		copyOfMethod.body()._return(newBuilderVar);
+		final CopyGenerator copyGenerator = this.pluginContext.createCopyGenerator(this.definedClass, copyOfMethod, partial);
+		final JBlock body;
+		if (this.preserveIdentity && !partial) {
+			body = openCopyContext(copyOfMethod.body()).body();
+			generateExistingBuilderLookup(body, otherParam, (JClass)copyOfMethod.type());
+		} else {
+			body = copyOfMethod.body();
+		}
+		final JVar newBuilderVar = body.decl(JMod.FINAL, copyOfMethod.type(), BuilderGenerator.NEW_BUILDER_VAR_NAME, JExpr._new(copyOfMethod.type()).arg(JExpr._null()).arg(JExpr._null()).arg(JExpr.FALSE));
+		body.add(copyGenerator.generatePartialArgs(this.pluginContext.invoke(otherParam, this.settings.getCopyToMethodName()).arg(newBuilderVar)));
+		body._return(newBuilderVar);
 		return copyOfMethod;
 	}
 
+	/**
+	 * Generates code returning the builder already copying <code>source</code> in the
+	 * current copy operation, so that shared references and cycles are copied to
+	 * shared builders. A builder of an unrelated type, e.g. one made by a narrowing
+	 * copy, isn't reused.
+	 */
+	private void generateExistingBuilderLookup(final JBlock block, final JExpression source, final JClass builderType) {
+		final JVar existingBuilderVar = block.decl(JMod.FINAL, this.pluginContext.codeModel.ref(Object.class), BuilderGenerator.EXISTING_BUILDER_VAR_NAME, JExpr.ref(BuilderGenerator.COPY_CONTEXT_VAR_NAME).invoke("lookup").arg(source));
+		block._if(existingBuilderVar._instanceof(this.builderClass.raw))._then()._return(JExpr.cast(builderType, existingBuilderVar));
+	}
+
 	JMethod generateNewCopyBuilderMethod(final boolean partial) {
 		final JDefinedClass typeDefinition = this.typeOutline.isInterface() && ((DefinedInterfaceOutline)this.typeOutline).getSupportInterface() != null ? ((DefinedInterfaceOutline)this.typeOutline).getSupportInterface() : this.definedClass;
 		final int mods = this.implement ? this.definedClass.isAbstract() ? JMod.PUBLIC | JMod.ABSTRACT : JMod.PUBLIC : JMod.NONE;
 		final JMethod copyBuilderMethod = typeDefinition.method(mods, this.builderClass.raw, this.settings.getNewCopyBuilderMethodName());
 		final JTypeVar copyBuilderMethodTypeParam = copyBuilderMethod.generify(BuilderGenerator.PARENT_BUILDER_TYPE_PARAMETER_NAME);
 		final JVar parentBuilderParam = copyBuilderMethod.param(JMod.FINAL, copyBuilderMethodTypeParam, BuilderGenerator.PARENT_BUILDER_PARAM_NAME);
-		final CopyGenerator copyGenerator = this.pluginContext.createCopyGenerator(copyBuilderMethod, partial);
+		final CopyGenerator copyGenerator = this.pluginContext.createCopyGenerator(this.definedClass, copyBuilderMethod, partial);
 		copyBuilderMethod.type(this.builderClass.raw.narrow(copyBuilderMethodTypeParam));
 		final JMethod copyBuilderConvenienceMethod = typeDefinition.method(mods, this.builderClass.raw.narrow(this.pluginContext.voidClass), this.settings.getNewCopyBuilderMethodName());
-		final CopyGenerator copyConvenienceGenerator = this.pluginContext.createCopyGenerator(copyBuilderConvenienceMethod, partial);
+		final CopyGenerator copyConvenienceGenerator = this.pluginContext.createCopyGenerator(this.definedClass, copyBuilderConvenienceMethod, partial);
 		if (this.implement && !this.definedClass.isAbstract()) {
-			copyBuilderMethod.body()._return(copyGenerator.generatePartialArgs(this.pluginContext._new((JClass)copyBuilderMethod.type()).arg(parentBuilderParam).arg(JExpr._this()).arg(JExpr.TRUE)));
+			final JBlock body;
+			if (this.preserveIdentity && !partial) {
+				body = openCopyContext(copyBuilderMethod.body()).body();
+				generateExistingBuilderLookup(body, JExpr._this(), (JClass)copyBuilderMethod.type());
+			} else {
+				body = copyBuilderMethod.body();
+			}
+			body._return(copyGenerator.generatePartialArgs(this.pluginContext._new((JClass)copyBuilderMethod.type()).arg(parentBuilderParam).arg(JExpr._this()).arg(JExpr.TRUE)));
 			copyBuilderConvenienceMethod.body()._return(copyConvenienceGenerator.generatePartialArgs(this.pluginContext.invoke(this.settings.getNewCopyBuilderMethodName()).arg(JExpr._null())));
 		}
 		if (isSuperClassBuildable(this.typeOutline)) {
@@ -601,13 +1266,22 @@ class BuilderGenerator {
 			final JMethod copyToMethod = typeDefinition.method(JMod.PUBLIC, this.pluginContext.voidType, this.settings.getCopyToMethodName());
 			final JTypeVar typeVar = copyToMethod.generify(BuilderGenerator.PARENT_BUILDER_TYPE_PARAMETER_NAME);
 			final JVar otherParam = copyToMethod.param(JMod.FINAL, this.builderClass.raw.narrow(typeVar), BuilderGenerator.OTHER_PARAM_NAME);
-			final CopyGenerator cloneGenerator = this.pluginContext.createCopyGenerator(copyToMethod, partial);
-			final JBlock body = copyToMethod.body();
+			final CopyGenerator cloneGenerator = this.pluginContext.createCopyGenerator(this.definedClass, copyToMethod, partial);
+			final JBlock body;
+			if (this.preserveIdentity && !partial) {
+				// opened before the superclass fields are copied, so that they share copies with the fields of this class
+				body = openCopyContext(copyToMethod.body()).body();
+			} else {
+				body = copyToMethod.body();
+			}
 			final JVar otherRef;
 			if (isSuperClassBuildable(this.typeOutline)) {
 				body.add(cloneGenerator.generatePartialArgs(this.pluginContext.invoke(JExpr._super(), copyToMethod.name()).arg(otherParam)));
 			}
 			otherRef = otherParam;
+			if (this.preserveIdentity && !partial) {
+				body.add(JExpr.ref(BuilderGenerator.COPY_CONTEXT_VAR_NAME).invoke("register").arg(JExpr._this()).arg(otherRef));
+			}
 			generateFieldCopyExpressions(cloneGenerator, body, otherRef, JExpr._this());
 			copyToMethod.javadoc().append(JavadocUtils.hardWrapTextForJavadoc(getMessage("javadoc.method.copyTo")));
 			copyToMethod.javadoc().addParam(otherParam).append(JavadocUtils.hardWrapTextForJavadoc(getMessage("javadoc.method.copyTo.param.other")));
@@ -619,7 +1293,7 @@ class BuilderGenerator {
 		final JVar parentBuilderParam = constructor.param(JMod.FINAL, this.builderClass.typeParam, BuilderGenerator.PARENT_BUILDER_PARAM_NAME);
 		final JVar otherParam = constructor.param(JMod.FINAL, this.typeOutline.getImplClass(), BuilderGenerator.OTHER_PARAM_NAME);
 		final JVar copyParam = constructor.param(JMod.FINAL, this.pluginContext.codeModel.BOOLEAN, BuilderGenerator.COPY_FLAG_PARAM_NAME);
-		final CopyGenerator cloneGenerator = this.pluginContext.createCopyGenerator(constructor, partial);
+		final CopyGenerator cloneGenerator = this.pluginContext.createCopyGenerator(this.definedClass, constructor, partial);
 		if (isSuperClassBuildable(this.typeOutline)) {
 			constructor.body().add(cloneGenerator.generatePartialArgs(this.pluginContext._super().arg(parentBuilderParam).arg(otherParam).arg(copyParam)));
 		} else {
@@ -636,7 +1310,13 @@ class BuilderGenerator {
 		} else {
 			body = ifNullStmt._then();
 		}
-		generateFieldCopyExpressions(cloneGenerator, body, JExpr._this(), otherParam);
+		if (this.preserveIdentity && !partial) {
+			final JTryBlock tryBlock = openCopyContext(body);
+			tryBlock.body().add(JExpr.ref(BuilderGenerator.COPY_CONTEXT_VAR_NAME).invoke("register").arg(otherParam).arg(JExpr._this()));
+			generateFieldCopyExpressions(cloneGenerator, tryBlock.body(), JExpr._this(), otherParam);
+		} else {
+			generateFieldCopyExpressions(cloneGenerator, body, JExpr._this(), otherParam);
+		}
 	}
 
 	private void generateFieldCopyExpressions(final CopyGenerator cloneGenerator, final JBlock body, final JExpression targetObject, final JExpression sourceObject) {
@@ -644,60 +1324,78 @@ class BuilderGenerator {
 			final JFieldVar field = fieldOutline.getFieldVar();
 			if (field != null) {
 				if ((field.mods().getValue() & (JMod.FINAL | JMod.STATIC)) == 0) {
-					final JFieldRef targetField = targetObject.ref(field.name());
-					final JFieldRef sourceRef = sourceObject.ref(field.name());
-					final PropertyTreeVarGenerator treeVarGenerator = cloneGenerator.createPropertyTreeVarGenerator(body, fieldOutline.getFieldName());
-					final JType fieldType = fieldOutline.getRawType();
-					final JBlock currentBlock = treeVarGenerator.generateEnclosingBlock(body);
-					if (fieldType.isReference()) {
-						final JClass fieldClass = (JClass)fieldType;
-						if (this.pluginContext.collectionClass.isAssignableFrom(fieldClass)) {
-							final JClass elementType = fieldClass.getTypeParameters().get(0);
-							final BuilderOutline childBuilderOutline = getBuilderDeclaration(elementType);
-							if (this.settings.isGeneratingNarrowCopy() && this.pluginContext.canInstantiate(elementType)) {
-								final JClass childBuilderType = childBuilderOutline.getBuilderClass().narrow(this.builderClass.type);
-								final JForEach forLoop = loop(currentBlock, sourceRef, elementType, targetField, childBuilderType, fieldOutline);
-								forLoop.body().invoke(targetField, ADD_METHOD_PREFIX).arg(nullSafe(forLoop.var(), treeVarGenerator.generatePartialArgs(this.pluginContext.invoke(elementType, this.pluginContext.buildCopyMethodName).narrow(this.builderClass.type).arg(forLoop.var()))));
-							} else if (childBuilderOutline != null) {
-								final JClass childBuilderType = childBuilderOutline.getBuilderClass().narrow(this.builderClass.type);
-								final JForEach forLoop = loop(currentBlock, sourceRef, elementType, targetField, childBuilderType, fieldOutline);
-								forLoop.body().invoke(targetField, ADD_METHOD_PREFIX).arg(nullSafe(forLoop.var(), treeVarGenerator.generatePartialArgs(this.pluginContext.invoke(forLoop.var(), this.settings.getNewCopyBuilderMethodName()).arg(targetObject))));
-							} else if (this.pluginContext.partialCopyableInterface.isAssignableFrom(elementType)) {
-								final JForEach forLoop = loop(currentBlock, sourceRef, elementType, targetField, elementType, fieldOutline);
-								forLoop.body().invoke(targetField, ADD_METHOD_PREFIX).arg(nullSafe(forLoop.var(), JExpr._new(this.pluginContext.buildableClass).arg(treeVarGenerator.generatePartialArgs(forLoop.var().invoke(this.pluginContext.copyMethodName)))));
-							} else if (this.pluginContext.copyableInterface.isAssignableFrom(elementType)) {
-								final JForEach forLoop = loop(currentBlock, sourceRef, elementType, targetField, elementType, fieldOutline);
-								forLoop.body().invoke(targetField, ADD_METHOD_PREFIX).arg(nullSafe(forLoop.var(), JExpr._new(this.pluginContext.buildableClass).arg(forLoop.var().invoke(this.pluginContext.copyMethodName))));
-							} else if (this.pluginContext.cloneableInterface.isAssignableFrom(elementType)) {
-								final JBlock maybeTryBlock = this.pluginContext.catchCloneNotSupported(currentBlock, elementType);
-								final JForEach forLoop = loop(maybeTryBlock, sourceRef, elementType, targetField, this.pluginContext.buildableInterface, fieldOutline);
-								forLoop.body().invoke(targetField, ADD_METHOD_PREFIX).arg(nullSafe(forLoop.var(), JExpr._new(this.pluginContext.buildableClass).arg(forLoop.var().invoke(this.pluginContext.cloneMethodName))));
-							} else {
-								final JForEach forLoop = loop(currentBlock, sourceRef, elementType, targetField, this.pluginContext.buildableInterface, fieldOutline);
-								forLoop.body().invoke(targetField, ADD_METHOD_PREFIX).arg(nullSafe(forLoop.var(), JExpr._new(this.pluginContext.buildableClass).arg(forLoop.var())));
-							}
-						} else {
-							final BuilderOutline childBuilderOutline = getReferencedBuilderDeclaration(fieldOutline);
-							if (this.settings.isGeneratingNarrowCopy() && this.pluginContext.canInstantiate(fieldType)) {
-								currentBlock.assign(targetField, nullSafe(sourceRef, treeVarGenerator.generatePartialArgs(this.pluginContext.invoke(fieldType, this.pluginContext.buildCopyMethodName).narrow(this.builderClass.type).arg(sourceRef))));
-							} else if (childBuilderOutline != null) {
-								currentBlock.assign(targetField, nullSafe(sourceRef, treeVarGenerator.generatePartialArgs(this.pluginContext.invoke(sourceRef, this.settings.getNewCopyBuilderMethodName()).arg(targetObject))));
-							} else if (this.pluginContext.partialCopyableInterface.isAssignableFrom(fieldClass)) {
-								currentBlock.assign(targetField, nullSafe(sourceRef, this.pluginContext.castOnDemand(fieldType, treeVarGenerator.generatePartialArgs(sourceRef.invoke(this.pluginContext.copyMethodName)))));
-							} else if (this.pluginContext.copyableInterface.isAssignableFrom(fieldClass)) {
-								currentBlock.assign(targetField, nullSafe(sourceRef, this.pluginContext.castOnDemand(fieldType, sourceRef.invoke(this.pluginContext.copyMethodName))));
-							} else if (this.pluginContext.cloneableInterface.isAssignableFrom(fieldClass)) {
-								final JBlock maybeTryBlock = this.pluginContext.catchCloneNotSupported(currentBlock, fieldClass);
-								maybeTryBlock.assign(targetField, nullSafe(sourceRef, this.pluginContext.castOnDemand(fieldType, sourceRef.invoke(this.pluginContext.cloneMethodName))));
-							} else {
-								currentBlock.assign(targetField, sourceRef);
-							}
-						}
-					} else {
-						currentBlock.assign(targetField, sourceRef);
+					generateFieldCopyExpression(cloneGenerator, body, targetObject, sourceObject, fieldOutline);
+				}
+			}
+		}
+	}
+
+	private void generateFieldCopyExpression(final CopyGenerator cloneGenerator, final JBlock body, final JExpression targetObject, final JExpression sourceObject, final DefinedPropertyOutline fieldOutline) {
+		final JFieldVar field = fieldOutline.getFieldVar();
+		final JFieldRef targetField = targetObject.ref(field.name());
+		final JFieldRef sourceRef = sourceObject.ref(field.name());
+		final PropertyTreeVarGenerator treeVarGenerator = cloneGenerator.createPropertyTreeVarGenerator(body, fieldOutline.getFieldName());
+		final JType fieldType = fieldOutline.getRawType();
+		final JBlock currentBlock = treeVarGenerator.generateEnclosingBlock(body);
+		if (fieldType.isReference()) {
+			final JClass fieldClass = (JClass)fieldType;
+			if (this.pluginContext.collectionClass.isAssignableFrom(fieldClass)) {
+				final JClass elementType = fieldClass.getTypeParameters().get(0);
+				final BuilderOutline childBuilderOutline = getBuilderDeclaration(elementType);
+				final boolean flat = this.settings.isGeneratingFlatStorage();
+				final JClass objectClass = this.pluginContext.codeModel.ref(Object.class);
+				if (this.settings.isGeneratingNarrowCopy() && this.pluginContext.canInstantiate(elementType)) {
+					final JClass childBuilderType = childBuilderOutline.getBuilderClass().narrow(this.builderClass.type);
+					if (flat) {
+						currentBlock.assign(targetObject.ref(field.name() + BuilderGenerator.HAS_BUILDERS_FIELD_SUFFIX), JExpr.TRUE);
+					}
+					final JForEach forLoop = loop(currentBlock, sourceRef, elementType, targetField, flat ? objectClass : childBuilderType, fieldOutline);
+					forLoop.body().invoke(targetField, ADD_METHOD_PREFIX).arg(nullSafe(forLoop.var(), treeVarGenerator.generatePartialArgs(this.pluginContext.invoke(elementType, this.pluginContext.buildCopyMethodName).narrow(this.builderClass.type).arg(forLoop.var()))));
+				} else if (childBuilderOutline != null) {
+					final JClass childBuilderType = childBuilderOutline.getBuilderClass().narrow(this.builderClass.type);
+					if (flat) {
+						currentBlock.assign(targetObject.ref(field.name() + BuilderGenerator.HAS_BUILDERS_FIELD_SUFFIX), JExpr.TRUE);
 					}
+					final JForEach forLoop = loop(currentBlock, sourceRef, elementType, targetField, flat ? objectClass : childBuilderType, fieldOutline);
+					forLoop.body().invoke(targetField, ADD_METHOD_PREFIX).arg(nullSafe(forLoop.var(), treeVarGenerator.generatePartialArgs(this.pluginContext.invoke(forLoop.var(), this.settings.getNewCopyBuilderMethodName()).arg(targetObject))));
+				} else if (this.pluginContext.partialCopyableInterface.isAssignableFrom(elementType)) {
+					final JForEach forLoop = loop(currentBlock, sourceRef, elementType, targetField, flat ? objectClass : elementType, fieldOutline);
+					forLoop.body().invoke(targetField, ADD_METHOD_PREFIX).arg(nullSafe(forLoop.var(), storedValue(flat, treeVarGenerator.generatePartialArgs(forLoop.var().invoke(this.pluginContext.copyMethodName)))));
+				} else if (this.pluginContext.copyableInterface.isAssignableFrom(elementType)) {
+					final JForEach forLoop = loop(currentBlock, sourceRef, elementType, targetField, flat ? objectClass : elementType, fieldOutline);
+					forLoop.body().invoke(targetField, ADD_METHOD_PREFIX).arg(nullSafe(forLoop.var(), storedValue(flat, forLoop.var().invoke(this.pluginContext.copyMethodName))));
+				} else if (this.pluginContext.cloneableInterface.isAssignableFrom(elementType)) {
+					final JBlock maybeTryBlock = this.pluginContext.catchCloneNotSupported(currentBlock, elementType);
+					final JForEach forLoop = loop(maybeTryBlock, sourceRef, elementType, targetField, flat ? objectClass : this.pluginContext.buildableInterface, fieldOutline);
+					forLoop.body().invoke(targetField, ADD_METHOD_PREFIX).arg(nullSafe(forLoop.var(), storedValue(flat, forLoop.var().invoke(this.pluginContext.cloneMethodName))));
+				} else if (flat && fieldOutline.getMutableListClass().fullName().equals("java.util.ArrayList")) {
+					currentBlock.assign(targetField, nullSafe(sourceRef, JExpr._new(fieldOutline.getMutableListClass().narrow(objectClass)).arg(sourceRef)));
+				} else if (flat) {
+					final JForEach forLoop = loop(currentBlock, sourceRef, elementType, targetField, objectClass, fieldOutline);
+					forLoop.body().invoke(targetField, ADD_METHOD_PREFIX).arg(forLoop.var());
+				} else {
+					final JForEach forLoop = loop(currentBlock, sourceRef, elementType, targetField, this.pluginContext.buildableInterface, fieldOutline);
+					forLoop.body().invoke(targetField, ADD_METHOD_PREFIX).arg(nullSafe(forLoop.var(), JExpr._new(this.pluginContext.buildableClass).arg(forLoop.var())));
+				}
+			} else {
+				final BuilderOutline childBuilderOutline = getReferencedBuilderDeclaration(fieldOutline);
+				if (this.settings.isGeneratingNarrowCopy() && this.pluginContext.canInstantiate(fieldType)) {
+					currentBlock.assign(targetField, nullSafe(sourceRef, treeVarGenerator.generatePartialArgs(this.pluginContext.invoke(fieldType, this.pluginContext.buildCopyMethodName).narrow(this.builderClass.type).arg(sourceRef))));
+				} else if (childBuilderOutline != null) {
+					currentBlock.assign(targetField, nullSafe(sourceRef, treeVarGenerator.generatePartialArgs(this.pluginContext.invoke(sourceRef, this.settings.getNewCopyBuilderMethodName()).arg(targetObject))));
+				} else if (this.pluginContext.partialCopyableInterface.isAssignableFrom(fieldClass)) {
+					currentBlock.assign(targetField, nullSafe(sourceRef, this.pluginContext.castOnDemand(fieldType, treeVarGenerator.generatePartialArgs(sourceRef.invoke(this.pluginContext.copyMethodName)))));
+				} else if (this.pluginContext.copyableInterface.isAssignableFrom(fieldClass)) {
+					currentBlock.assign(targetField, nullSafe(sourceRef, this.pluginContext.castOnDemand(fieldType, sourceRef.invoke(this.pluginContext.copyMethodName))));
+				} else if (this.pluginContext.cloneableInterface.isAssignableFrom(fieldClass)) {
+					final JBlock maybeTryBlock = this.pluginContext.catchCloneNotSupported(currentBlock, fieldClass);
+					maybeTryBlock.assign(targetField, nullSafe(sourceRef, this.pluginContext.castOnDemand(fieldType, sourceRef.invoke(this.pluginContext.cloneMethodName))));
+				} else {
+					currentBlock.assign(targetField, sourceRef);
 				}
 			}
+		} else {
+			currentBlock.assign(targetField, sourceRef);
 		}
 	}
 
@@ -737,11 +1435,23 @@ class BuilderGenerator {
 			initBody._return(productParam);
 		}
 		generateImplementsClause();
+		if (this.implement && isAdoptable(this.typeOutline) && !isSuperClassBuildable(this.typeOutline)) {
+			generateAdoptableImplementation();
+		}
+		if (this.implement && this.settings.isCopyAlways() && this.settings.isGeneratingAdoption()) {
+			generateClaimingSetters();
+		}
+		if (this.constructorBuild) {
+			generateAllFieldsConstructor();
+		}
 		generateBuildMethod(initMethod);
 		generateCopyToMethod(false);
 		generateNewCopyBuilderMethod(false);
 		if (this.implement && !this.definedClass.isAbstract()) {
 			generateNewBuilderMethod();
+			if (this.settings.isGeneratingBuilderPool()) {
+				generatePooledBuilderMethod();
+			}
 			generateCopyOfMethod(this.typeOutline, false);
 		}
 		if (this.settings.isGeneratingPartialCopy()) {
@@ -754,6 +1464,68 @@ class BuilderGenerator {
 			}
 		}
 		generateCopyOfBuilderMethods();
+		generateProjectionMethods();
+		if (this.resetMethod != null) {
+			this.resetMethod.body()._return(JExpr._this());
+		}
+	}
+
+	/**
+	 * Generates a <code>copyAsXTo(Builder)</code> method for each projection declared on this
+	 * class or one of its subclasses, which copies the selected fields declared by this class,
+	 * and a static <code>copyAsXOf(...)</code> method for each projection that applies to
+	 * this class, if the class isn't abstract.
+	 */
+	private void generateProjectionMethods() throws SAXException {
+		final ClassOutline classOutline = this.pluginContext.getClassOutline(this.definedClass);
+		if (!this.implement || classOutline == null) {
+			return;
+		}
+		final Map<String, Projection> chainedProjections = new LinkedHashMap<>();
+		for (final ClassOutline otherClassOutline : this.pluginContext.outline.getClasses()) {
+			if (Projection.hierarchy(otherClassOutline).contains(classOutline)) {
+				for (final Projection projection : this.pluginContext.getDeclaredProjections(otherClassOutline)) {
+					final Projection previous = chainedProjections.putIfAbsent(projection.getName(), projection);
+					if (previous != null && !previous.getSelection(classOutline).equals(projection.getSelection(classOutline))) {
+						this.pluginContext.errorHandler.error(new SAXParseException(Projection.getMessage("error.conflict", projection.getName(), previous.getDeclaringClass().implClass.name(), projection.getDeclaringClass().implClass.name(), this.definedClass.name()), classOutline.target.getLocator()));
+					}
+				}
+			}
+		}
+		for (final Projection projection : chainedProjections.values()) {
+			if (projection.isNested() && !this.settings.isGeneratingPartialCopy()) {
+				this.pluginContext.errorHandler.error(new SAXParseException(Projection.getMessage("error.partial", projection.getName(), projection.getDeclaringClass().implClass.name()), projection.getDeclaringClass().target.getLocator()));
+				continue;
+			}
+			final JMethod copyToMethod = this.definedClass.method(JMod.PUBLIC, this.pluginContext.voidType, projection.getMethodName(Projection.COPY_AS_METHOD_PREFIX, Projection.COPY_TO_METHOD_SUFFIX));
+			final JTypeVar typeVar = copyToMethod.generify(BuilderGenerator.PARENT_BUILDER_TYPE_PARAMETER_NAME);
+			final JVar otherParam = copyToMethod.param(JMod.FINAL, this.builderClass.raw.narrow(typeVar), BuilderGenerator.OTHER_PARAM_NAME);
+			if (classOutline.getSuperClass() != null && isSuperClassBuildable(this.typeOutline)) {
+				copyToMethod.body().add(JExpr._super().invoke(copyToMethod).arg(otherParam));
+			}
+			final Map<String, PropertyTree> selection = projection.getSelection(classOutline);
+			final CopyGenerator copyGenerator = projection.createCopyGenerator(this.pluginContext, this.definedClass);
+			for (final DefinedPropertyOutline fieldOutline : this.typeOutline.getDeclaredFields()) {
+				if (fieldOutline.getFieldVar() != null && selection.containsKey(fieldOutline.getFieldVar().name())) {
+					generateFieldCopyExpression(copyGenerator, copyToMethod.body(), otherParam, JExpr._this(), fieldOutline);
+				}
+			}
+			copyToMethod.javadoc().append(Projection.getMessage("javadoc.copyAsTo", projection.getName()));
+			copyToMethod.javadoc().addParam(otherParam).append(Projection.getMessage("javadoc.copyAsTo.param.other"));
+		}
+		if (!this.definedClass.isAbstract()) {
+			for (final Projection projection : Projection.getEffective(this.pluginContext, classOutline).values()) {
+				final JMethod copyOfMethod = this.definedClass.method(JMod.PUBLIC | JMod.STATIC, this.builderClass.raw.narrow(Void.class), projection.getMethodName(Projection.COPY_AS_METHOD_PREFIX, Projection.COPY_OF_METHOD_SUFFIX));
+				final JTypeVar copyOfMethodTypeParam = copyOfMethod.generify(BuilderGenerator.PARENT_BUILDER_TYPE_PARAMETER_NAME);
+				copyOfMethod.type(this.builderClass.raw.narrow(copyOfMethodTypeParam));
+				final JVar otherParam = copyOfMethod.param(JMod.FINAL, this.definedClass, BuilderGenerator.OTHER_PARAM_NAME);
+				final JVar newBuilderVar = copyOfMethod.body().decl(JMod.FINAL, copyOfMethod.type(), BuilderGenerator.NEW_BUILDER_VAR_NAME, JExpr._new(copyOfMethod.type()).arg(JExpr._null()).arg(JExpr._null()).arg(JExpr.FALSE));
+				copyOfMethod.body().add(otherParam.invoke(projection.getMethodName(Projection.COPY_AS_METHOD_PREFIX, Projection.COPY_TO_METHOD_SUFFIX)).arg(newBuilderVar));
+				copyOfMethod.body()._return(newBuilderVar);
+				copyOfMethod.javadoc().append(Projection.getMessage("javadoc.copyAsOf", projection.getName(), projection.getInclude()));
+				copyOfMethod.javadoc().addParam(otherParam).append(Projection.getMessage("javadoc.copyAsOf.param.other"));
+			}
+		}
 	}
 
 	private void generateDefinedClassJavadoc() {
@@ -826,13 +1598,20 @@ class BuilderGenerator {
 		final JMethod withVarargsMethod = this.builderClass.raw.method(JMod.PUBLIC, builderType, WITH_METHOD_PREFIX + propertyName);
 		final JVar withVarargsParam = withVarargsMethod.varParam(elementType, fieldName);
 		if (this.implement) {
-			final JFieldVar builderField = this.builderClass.raw.field(JMod.PRIVATE, fieldType, fieldName, JExpr._null());
+			final JFieldVar builderField = this.builderClass.raw.field(getBuilderFieldMods(), fieldType, fieldName, JExpr._null());
 			withVarargsMethod.body().assign(JExpr._this().ref(builderField), withVarargsParam);
 			withVarargsMethod.body()._return(JExpr._this());
 			initBody.assign(productParam.ref(fieldName), JExpr._this().ref(builderField));
+			if (this.resetMethod != null) {
+				this.resetMethod.body().assign(JExpr._this().ref(builderField), JExpr._null());
+			}
 		}
 	}
 
+	private JExpression storedValue(final boolean flat, final JExpression value) {
+		return flat ? value : JExpr._new(this.pluginContext.buildableClass).arg(value);
+	}
+
 	JForEach loop(final JBlock block, final JExpression source, final JType sourceElementType, final JAssignmentTarget target, final JType targetElementType, final PropertyOutline propertyOutline) {
 		final JConditional ifNull = block._if(source.eq(JExpr._null()));
 		ifNull._then().assign(target, JExpr._null());
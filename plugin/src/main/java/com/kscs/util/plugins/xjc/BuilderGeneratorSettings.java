@@ -41,6 +41,11 @@ public class BuilderGeneratorSettings {
 	private final String buildMethodName;
 	private final String endMethodName;
 	private final boolean generatingJavadocFromAnnotations;
+	private final boolean generatingReset;
+	private final boolean generatingBuilderPool;
+	private final boolean generatingFlatStorage;
+	private final boolean generatingAdoption;
+	private final boolean generatingStreaming;
 
 	public BuilderGeneratorSettings(
 			final boolean generatingPartialCopy,
@@ -53,7 +58,12 @@ public class BuilderGeneratorSettings {
 			final boolean copyAlways,
 			final String buildMethodName,
 			final String endMethodName,
-            final boolean generatingJavadocFromAnnotations) {
+            final boolean generatingJavadocFromAnnotations,
+			final boolean generatingReset,
+			final boolean generatingBuilderPool,
+			final boolean generatingFlatStorage,
+			final boolean generatingAdoption,
+			final boolean generatingStreaming) {
 		this.generatingPartialCopy = generatingPartialCopy;
 		this.generatingNarrowCopy = generatingNarrowCopy;
 		this.newBuilderMethodName = newBuilderMethodName;
@@ -65,6 +75,11 @@ public class BuilderGeneratorSettings {
 		this.buildMethodName = buildMethodName;
 		this.endMethodName = endMethodName;
 		this.generatingJavadocFromAnnotations = generatingJavadocFromAnnotations;
+		this.generatingReset = generatingReset || generatingBuilderPool;
+		this.generatingBuilderPool = generatingBuilderPool;
+		this.generatingFlatStorage = generatingFlatStorage;
+		this.generatingAdoption = generatingAdoption;
+		this.generatingStreaming = generatingStreaming;
 	}
 
 	public boolean isGeneratingPartialCopy() {
@@ -110,4 +125,24 @@ public class BuilderGeneratorSettings {
 	boolean isGeneratingJavadocFromAnnotations() {
 		return generatingJavadocFromAnnotations;
 	}
+
+	public boolean isGeneratingReset() {
+		return this.generatingReset;
+	}
+
+	public boolean isGeneratingBuilderPool() {
+		return this.generatingBuilderPool;
+	}
+
+	public boolean isGeneratingFlatStorage() {
+		return this.generatingFlatStorage;
+	}
+
+	public boolean isGeneratingAdoption() {
+		return this.generatingAdoption;
+	}
+
+	public boolean isGeneratingStreaming() {
+		return this.generatingStreaming;
+	}
 }
@@ -26,6 +26,10 @@ package com.kscs.util.plugins.xjc;
 
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import com.kscs.util.jaxb.CopyOnWriteOnDemandList;
+import com.kscs.util.jaxb.ParallelCopy;
 
 import com.kscs.util.plugins.xjc.base.AbstractPlugin;
 import com.kscs.util.plugins.xjc.base.Opt;
@@ -53,6 +57,11 @@ import static com.kscs.util.plugins.xjc.base.PluginUtil.nullSafe;
 public class DeepClonePlugin extends AbstractPlugin {
 	@Opt
 	private boolean cloneThrows = true;
+	@Opt
+	private String parallelThreshold = "0";
+	private int parallelThresholdValue = 0;
+	@Opt
+	private boolean copyOnWrite = false;
 
 	public boolean isCloneThrows() {
 		return this.cloneThrows;
@@ -66,7 +75,18 @@ public class DeepClonePlugin extends AbstractPlugin {
 	@Override
 	public boolean run(final Outline outline, final Options opt, final ErrorHandler errorHandler) throws SAXException {
 		final PluginContext pluginContext = PluginContext.get(outline, opt, errorHandler);
-
+		try {
+			this.parallelThresholdValue = Integer.parseInt(this.parallelThreshold.trim());
+		} catch (final NumberFormatException e) {
+			errorHandler.error(new SAXParseException(getMessage("error.parallelThreshold", this.parallelThreshold), outline.getModel().getLocator()));
+			return false;
+		}
+		if (this.parallelThresholdValue > 0) {
+			pluginContext.writeSourceFile(ParallelCopy.class);
+		}
+		if (this.copyOnWrite) {
+			pluginContext.writeSourceFile(CopyOnWriteOnDemandList.class);
+		}
 
 		for (final ClassOutline classOutline : outline.getClasses()) {
 			classOutline.implClass._implements(Cloneable.class);
@@ -99,12 +119,21 @@ public class DeepClonePlugin extends AbstractPlugin {
 					if (pluginContext.collectionClass.isAssignableFrom(fieldType)) {
 						final JClass elementType = fieldType.getTypeParameters().get(0);
 						if (pluginContext.cloneableInterface.isAssignableFrom(elementType)) {
-							final JBlock maybeTryBlock = this.cloneThrows ? body : pluginContext.catchCloneNotSupported(body, elementType);
 							cloneNotSupportedExceptionPossible |= pluginContext.mustCatch(elementType);
-							final JForEach forLoop = pluginContext.loop(maybeTryBlock, fieldRef, elementType, newField, elementType, fieldOutline);
-							forLoop.body().invoke(newField, "add").arg(nullSafe(forLoop.var(), pluginContext.castOnDemand(elementType, forLoop.var().invoke(pluginContext.cloneMethodName))));
+							if (this.parallelThresholdValue > 0) {
+								final JClass exceptionType = pluginContext.codeModel.ref(this.cloneThrows && pluginContext.mustCatch(elementType) ? CloneNotSupportedException.class : RuntimeException.class);
+								final JMethod copyMethod = pluginContext.parallelLoop(body, fieldRef, elementType, newField, fieldOutline, this.parallelThresholdValue, exceptionType);
+								final JVar itemParam = copyMethod.params().get(0);
+								final JBlock copyBody = this.cloneThrows ? copyMethod.body() : pluginContext.catchCloneNotSupported(copyMethod.body(), elementType);
+								copyBody._return(nullSafe(itemParam, pluginContext.castOnDemand(elementType, itemParam.invoke(pluginContext.cloneMethodName))));
+							} else {
+								final JBlock maybeTryBlock = this.cloneThrows ? body : pluginContext.catchCloneNotSupported(body, elementType);
+								final JForEach forLoop = pluginContext.loop(maybeTryBlock, fieldRef, elementType, newField, elementType, fieldOutline);
+								forLoop.body().invoke(newField, "add").arg(nullSafe(forLoop.var(), pluginContext.castOnDemand(elementType, forLoop.var().invoke(pluginContext.cloneMethodName))));
+							}
 						} else {
-							body.assign(newField, nullSafe(fieldRef, pluginContext.newArrayList(PluginContext.extractMutableListClass(fieldOutline), elementType).arg(fieldRef)));
+							final JClass listClass = this.copyOnWrite ? pluginContext.codeModel.ref(CopyOnWriteOnDemandList.class) : PluginContext.extractMutableListClass(fieldOutline);
+							body.assign(newField, nullSafe(fieldRef, pluginContext.newArrayList(listClass, elementType).arg(fieldRef)));
 						}
 						pluginContext.generateImmutableFieldInit(body, newObjectVar, field);
 					} else if (pluginContext.cloneableInterface.isAssignableFrom(fieldType)) {
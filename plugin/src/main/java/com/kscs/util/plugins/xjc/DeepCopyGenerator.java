@@ -25,24 +25,41 @@
 package com.kscs.util.plugins.xjc;
 
 import java.text.MessageFormat;
+import java.util.Collections;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.function.Consumer;
 
+import com.kscs.util.jaxb.CopyContext;
+import com.kscs.util.jaxb.CopyOnWriteOnDemandList;
+import com.kscs.util.jaxb.CopyStack;
+import com.kscs.util.jaxb.ProjectionCache;
+import com.kscs.util.jaxb.PropertyTransformer;
 import com.kscs.util.jaxb.PropertyTree;
 import com.kscs.util.plugins.xjc.base.PluginUtil;
+import com.kscs.util.plugins.xjc.outline.DefinedPropertyOutline;
 import com.sun.codemodel.JAssignmentTarget;
 import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JClass;
+import com.sun.codemodel.JConditional;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JDocComment;
 import com.sun.codemodel.JExpr;
 import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
 import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JForLoop;
+import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JTryBlock;
+import com.sun.codemodel.JType;
 import com.sun.codemodel.JVar;
 import com.sun.tools.xjc.outline.ClassOutline;
 import com.sun.tools.xjc.outline.FieldOutline;
+import org.xml.sax.SAXException;
 
 import static com.kscs.util.plugins.xjc.base.PluginUtil.nullSafe;
 /**
@@ -51,44 +68,140 @@ import static com.kscs.util.plugins.xjc.base.PluginUtil.nullSafe;
 public class DeepCopyGenerator {
 	private static final ResourceBundle RESOURCE_BUNDLE = ResourceBundle.getBundle(DeepCopyGenerator.class.getName());
 	public static final String OTHER_PARAM_NAME = "_other";
+	public static final String COPY_CONTEXT_PARAM_NAME = "_copyContext";
+	public static final String EXISTING_COPY_VAR_NAME = "_existingCopy";
+	public static final String COPY_STACK_PARAM_NAME = "_stack";
+	public static final String COPY_TARGET_PARAM_NAME = "_target";
+	public static final String CREATE_COPY_TARGET_METHOD_NAME = "createCopyTarget";
+	public static final String COPY_FIELDS_INTO_METHOD_NAME = "copyFieldsInto";
+	public static final String UNCOPIED_FIELD_SUFFIX = "__Uncopied";
+	public static final String MATERIALIZE_METHOD_PREFIX = "materialize";
+	public static final String SHARED_VAR_NAME = "_shared";
+	public static final String COPY_INTO_METHOD_NAME = "copyInto";
+	public static final String TYPED_TARGET_VAR_NAME = "_typedTarget";
+	public static final String TRANSFORMER_PARAM_NAME = "_transformer";
+	public static final String TRANSFORMED_VALUE_VAR_SUFFIX = "Value";
+	public static final String PROJECTION_CACHE_FIELD_NAME = "__projectionCache";
+	public static final String CACHED_METHOD_PREFIX = "cached";
+	public static final String INVALIDATE_METHOD_NAME = "invalidate";
+	public static final String UNSET_METHOD_PREFIX = "unset";
 	private final PluginContext pluginContext;
 	private final ClassOutline classOutline;
+	private final boolean preserveIdentity;
+	private final boolean iterative;
+	private final int parallelThreshold;
+	private final boolean lazy;
+	private final boolean copyOnWrite;
+	private final int projectionCacheSize;
+	private JVar copyContextVar = null;
+	private JVar copyStackVar = null;
+	private JVar transformerVar = null;
 
 	public DeepCopyGenerator(final PluginContext pluginContext, final ClassOutline classOutline) {
+		this(pluginContext, classOutline, false, false, 0, false, false, 0);
+	}
+
+	/**
+	 * @param parallelThreshold Minimum size of a collection property to copy its elements
+	 *                          in parallel, or 0 to always copy sequentially
+	 * @param lazy              Let full copies share child objects with their source
+	 *                          until they are accessed through a getter or setter
+	 * @param copyOnWrite       Copy lists of elements that aren't copied themselves into
+	 *                          a {@link CopyOnWriteOnDemandList}
+	 * @param projectionCacheSize Maximum size of the {@link ProjectionCache} consulted by
+	 *                          <code>copyOnly</code> and <code>copyExcept</code>, or 0 for none
+	 */
+	public DeepCopyGenerator(final PluginContext pluginContext, final ClassOutline classOutline, final boolean preserveIdentity, final boolean iterative, final int parallelThreshold, final boolean lazy, final boolean copyOnWrite, final int projectionCacheSize) {
 		this.pluginContext = pluginContext;
 		this.classOutline = classOutline;
+		this.preserveIdentity = preserveIdentity;
+		this.iterative = iterative;
+		this.parallelThreshold = parallelThreshold;
+		this.lazy = lazy;
+		this.copyOnWrite = copyOnWrite;
+		this.projectionCacheSize = projectionCacheSize;
+	}
+
+	private JInvocation copyInvocation(final JExpression source, final JType type) {
+		if (this.copyStackVar != null && this.pluginContext.getClassOutline(type) != null) {
+			return this.copyStackVar.invoke("push").arg(source);
+		}
+		final JInvocation invocation = source.invoke(this.pluginContext.copyMethodName);
+		if (this.copyContextVar != null && this.pluginContext.getClassOutline(type) != null) {
+			invocation.arg(this.copyContextVar);
+		}
+		if (this.transformerVar != null && this.pluginContext.getClassOutline(type) != null) {
+			invocation.arg(this.transformerVar);
+		}
+		return invocation;
 	}
 
-	public void generateFieldCopyExpression(final CopyGenerator cloneGenerator, final JBlock body, final JExpression targetObject, final JFieldVar field, final JAssignmentTarget targetField, final JExpression sourceField, final FieldOutline fieldOutline) {
+	/**
+	 * Returns the {@link com.kscs.util.jaxb.PropertyInfo} to pass to the transformer for a
+	 * property, if a transforming copy method is being generated and the property can be
+	 * transformed, i.e. it isn't a list of arrays or of <code>JAXBElement</code>s.
+	 */
+	private JExpression getTransformedPropertyInfo(final FieldOutline fieldOutline) {
+		if (this.transformerVar == null) {
+			return null;
+		}
+		final DefinedPropertyOutline propertyOutline = new DefinedPropertyOutline(fieldOutline);
+		if (propertyOutline.isIndirect() || (propertyOutline.isCollection() && propertyOutline.getElementType().isArray())) {
+			return null;
+		}
+		final MetaPlugin metaPlugin = this.pluginContext.findPlugin(MetaPlugin.class);
+		return metaPlugin == null ? null : metaPlugin.getPropertyInfoRef(this.pluginContext, fieldOutline);
+	}
+
+	/**
+	 * Transforming copy methods always copy from <code>this</code>.
+	 */
+	private JExpression transform(final JExpression propertyInfo, final JExpression value) {
+		return this.pluginContext.codeModel.ref(PropertyTransformer.class).staticInvoke("apply").arg(this.transformerVar).arg(propertyInfo).arg(JExpr._this()).arg(value);
+	}
+
+	public void generateFieldCopyExpression(final CopyGenerator cloneGenerator, final JBlock body, final JExpression targetObject, final JFieldVar field, final JAssignmentTarget targetField, final JExpression originalSourceField, final FieldOutline fieldOutline) {
 		final PropertyTreeVarGenerator treeVarGenerator = cloneGenerator.createPropertyTreeVarGenerator(body, field.name());
 		final JBlock currentBlock = treeVarGenerator.generateEnclosingBlock(body);
+		final JExpression propertyInfo = getTransformedPropertyInfo(fieldOutline);
+		final boolean collection = field.type().isReference() && this.pluginContext.collectionClass.isAssignableFrom((JClass)field.type());
+		final JExpression sourceField = propertyInfo != null && !collection ? currentBlock.decl(JMod.FINAL, field.type(), field.name() + DeepCopyGenerator.TRANSFORMED_VALUE_VAR_SUFFIX, transform(propertyInfo, originalSourceField)) : originalSourceField;
 		if (field.type().isReference()) {
 			final JClass fieldType = (JClass) field.type();
-			if (this.pluginContext.collectionClass.isAssignableFrom(fieldType)) {
+			if (collection) {
 				final JClass elementType = fieldType.getTypeParameters().get(0);
-				if (this.pluginContext.partialCopyableInterface.isAssignableFrom(elementType)) {
+				final boolean copyable = this.pluginContext.partialCopyableInterface.isAssignableFrom(elementType) || this.pluginContext.copyableInterface.isAssignableFrom(elementType);
+				final boolean cloneable = !copyable && this.pluginContext.cloneableInterface.isAssignableFrom(elementType);
+				final boolean sharedAlways = this.pluginContext.isShareable(elementType) && treeVarGenerator.getPropertyTreeVar() == null;
+				if (propertyInfo != null && (!(copyable || cloneable) || sharedAlways)) {
 					final JForEach forLoop = this.pluginContext.loop(currentBlock, sourceField, elementType, targetField, elementType, fieldOutline);
-					forLoop.body().invoke(targetField, "add").arg(nullSafe(forLoop.var(), this.pluginContext.castOnDemand(elementType, treeVarGenerator.generatePartialArgs(forLoop.var().invoke(this.pluginContext.copyMethodName)))));
-				} else if (this.pluginContext.copyableInterface.isAssignableFrom(elementType)) {
-					final JForEach forLoop = this.pluginContext.loop(currentBlock, sourceField, elementType, targetField, elementType, fieldOutline);
-					forLoop.body().invoke(targetField, "add").arg(nullSafe(forLoop.var(), this.pluginContext.castOnDemand(elementType, forLoop.var().invoke(this.pluginContext.copyMethodName))));
-				} else if (this.pluginContext.cloneableInterface.isAssignableFrom(elementType)) {
-					final JBlock maybeTryBlock = this.pluginContext.catchCloneNotSupported(currentBlock, elementType);
-					final JForEach forLoop = this.pluginContext.loop(maybeTryBlock, sourceField, elementType, targetField, elementType, fieldOutline);
-					forLoop.body().invoke(targetField, "add").arg(nullSafe(forLoop.var(), this.pluginContext.castOnDemand(elementType, forLoop.var().invoke(this.pluginContext.cloneMethodName))));
+					forLoop.body().invoke(targetField, "add").arg(transform(propertyInfo, forLoop.var()));
+				} else if ((copyable || cloneable) && !sharedAlways) {
+					if (this.parallelThreshold > 0 && this.copyContextVar == null && this.copyStackVar == null && this.transformerVar == null) {
+						final JMethod copyMethod = this.pluginContext.parallelLoop(currentBlock, sourceField, elementType, targetField, fieldOutline, this.parallelThreshold, this.pluginContext.codeModel.ref(RuntimeException.class));
+						final JVar itemParam = copyMethod.params().get(0);
+						final JBlock copyBody = cloneable ? this.pluginContext.catchCloneNotSupported(copyMethod.body(), elementType) : copyMethod.body();
+						copyBody._return(shareOrCopy(treeVarGenerator, itemParam, elementType, elementCopyExpression(treeVarGenerator, itemParam, elementType)));
+					} else {
+						final JBlock maybeTryBlock = cloneable ? this.pluginContext.catchCloneNotSupported(currentBlock, elementType) : currentBlock;
+						final JForEach forLoop = this.pluginContext.loop(maybeTryBlock, sourceField, elementType, targetField, elementType, fieldOutline);
+						final JExpression item = propertyInfo == null ? forLoop.var() : forLoop.body().decl(JMod.FINAL, elementType, forLoop.var().name() + DeepCopyGenerator.TRANSFORMED_VALUE_VAR_SUFFIX, transform(propertyInfo, forLoop.var()));
+						forLoop.body().invoke(targetField, "add").arg(shareOrCopy(treeVarGenerator, item, elementType, elementCopyExpression(treeVarGenerator, item, elementType)));
+					}
 				} else {
-					currentBlock.assign(targetField, nullSafe(sourceField, this.pluginContext.newArrayList(PluginContext.extractMutableListClass(fieldOutline), elementType).arg(sourceField)));
+					final JClass listClass = this.copyOnWrite ? this.pluginContext.codeModel.ref(CopyOnWriteOnDemandList.class) : PluginContext.extractMutableListClass(fieldOutline);
+					currentBlock.assign(targetField, nullSafe(sourceField, this.pluginContext.newArrayList(listClass, elementType).arg(sourceField)));
 				}
 
 				this.pluginContext.generateImmutableFieldInit(body, targetObject, field);
 
 			} else if (this.pluginContext.partialCopyableInterface.isAssignableFrom(fieldType)) {
-				currentBlock.assign(targetField, nullSafe(sourceField, this.pluginContext.castOnDemand(fieldType, treeVarGenerator.generatePartialArgs(sourceField.invoke(this.pluginContext.copyMethodName)))));
+				currentBlock.assign(targetField, shareOrCopy(treeVarGenerator, sourceField, fieldType, this.pluginContext.castOnDemand(fieldType, treeVarGenerator.generatePartialArgs(copyInvocation(sourceField, fieldType)))));
 			} else if (this.pluginContext.copyableInterface.isAssignableFrom(fieldType)) {
-				currentBlock.assign(targetField, nullSafe(sourceField, this.pluginContext.castOnDemand(fieldType, sourceField.invoke(this.pluginContext.copyMethodName))));
+				currentBlock.assign(targetField, shareOrCopy(treeVarGenerator, sourceField, fieldType, this.pluginContext.castOnDemand(fieldType, copyInvocation(sourceField, fieldType))));
 			} else if (this.pluginContext.cloneableInterface.isAssignableFrom(fieldType)) {
 				final JBlock maybeTryBlock = this.pluginContext.catchCloneNotSupported(currentBlock, fieldType);
-				maybeTryBlock.assign(targetField, nullSafe(sourceField, this.pluginContext.castOnDemand(fieldType, sourceField.invoke(this.pluginContext.cloneMethodName))));
+				maybeTryBlock.assign(targetField, shareOrCopy(treeVarGenerator, sourceField, fieldType, this.pluginContext.castOnDemand(fieldType, sourceField.invoke(this.pluginContext.cloneMethodName))));
 			} else {
 				currentBlock.assign(targetField, sourceField);
 			}
@@ -97,11 +210,42 @@ public class DeepCopyGenerator {
 		}
 	}
 
+	/**
+	 * Shares immutable values with the copy instead of copying them, as long as
+	 * the property tree doesn't restrict the part of the value to be copied.
+	 */
+	private JExpression shareOrCopy(final PropertyTreeVarGenerator treeVarGenerator, final JExpression source, final JType type, final JExpression copyExpression) {
+		if (!this.pluginContext.isShareable(type)) {
+			return nullSafe(source, copyExpression);
+		}
+		final JVar treeVar = treeVarGenerator.getPropertyTreeVar();
+		if (treeVar == null) {
+			return source;
+		}
+		return JOp.cond(treeVar.eq(JExpr._null()).cor(treeVar.invoke("isLeaf")), source, nullSafe(source, copyExpression));
+	}
+
+	private JExpression elementCopyExpression(final PropertyTreeVarGenerator treeVarGenerator, final JExpression item, final JClass elementType) {
+		if (this.pluginContext.partialCopyableInterface.isAssignableFrom(elementType)) {
+			return this.pluginContext.castOnDemand(elementType, treeVarGenerator.generatePartialArgs(copyInvocation(item, elementType)));
+		} else if (this.pluginContext.copyableInterface.isAssignableFrom(elementType)) {
+			return this.pluginContext.castOnDemand(elementType, copyInvocation(item, elementType));
+		} else {
+			return this.pluginContext.castOnDemand(elementType, item.invoke(this.pluginContext.cloneMethodName));
+		}
+	}
+
 	JMethod generateCreateCopyMethod(final boolean partial) {
+		if (this.iterative && !partial) {
+			return generateIterativeCreateCopyMethods();
+		}
+		if (this.preserveIdentity && !partial) {
+			return generateIdentityCreateCopyMethods();
+		}
 		final JDefinedClass definedClass = this.classOutline.implClass;
 
 		final JMethod cloneMethod = definedClass.method(JMod.PUBLIC, definedClass, this.pluginContext.copyMethodName);
-		final CopyGenerator cloneGenerator = this.pluginContext.createCopyGenerator(cloneMethod, partial);
+		final CopyGenerator cloneGenerator = this.pluginContext.createCopyGenerator(definedClass, cloneMethod, partial);
 		cloneMethod.annotate(Override.class);
 
 		final JBlock body = cloneMethod.body();
@@ -118,23 +262,384 @@ public class DeepCopyGenerator {
 			final JBlock maybeTryBlock = this.pluginContext.catchCloneNotSupported(body, definedClass._extends());
 			maybeTryBlock.assign(newObjectVar, JExpr.cast(definedClass, JExpr._super().invoke(this.pluginContext.cloneMethodName)));
 		}
-		generateFieldCopyExpressions(cloneGenerator, body, newObjectVar, JExpr._this());
+		generateFieldCopyExpressions(cloneGenerator, body, newObjectVar, JExpr._this(), this.lazy && !partial);
 		body._return(newObjectVar);
 		return cloneMethod;
 	}
 
+	/**
+	 * Generates <code>createCopy(PropertyTransformer)</code>, which passes the value of each
+	 * property through the transformer before copying it. The values of collection properties
+	 * are transformed item by item.
+	 */
+	JMethod generateTransformingCreateCopyMethod(final boolean partial) {
+		final JDefinedClass definedClass = this.classOutline.implClass;
+		final JMethod cloneMethod = definedClass.method(JMod.PUBLIC, definedClass, this.pluginContext.copyMethodName);
+		final JVar transformerParam = cloneMethod.param(JMod.FINAL, this.pluginContext.codeModel.ref(PropertyTransformer.class).narrow(this.pluginContext.codeModel.wildcard(), this.pluginContext.codeModel.wildcard()), DeepCopyGenerator.TRANSFORMER_PARAM_NAME);
+		final CopyGenerator cloneGenerator = this.pluginContext.createCopyGenerator(definedClass, cloneMethod, partial);
+		final boolean superTransforming = this.pluginContext.getClassOutline(definedClass._extends()) != null;
+		if (superTransforming) {
+			cloneMethod.annotate(Override.class);
+		}
+		cloneMethod.javadoc().append(getMessage("createCopy.transformer.javadoc.desc"));
+		cloneMethod.javadoc().addParam(transformerParam).append(getMessage("createCopy.transformer.javadoc.param.transformer"));
+		cloneGenerator.generatePartialArgs(cloneMethod.javadoc());
+
+		final JBlock body = cloneMethod.body();
+		final JVar newObjectVar;
+		if (superTransforming) {
+			newObjectVar = body.decl(JMod.FINAL, definedClass, this.pluginContext.newObjectVarName, JExpr.cast(definedClass, cloneGenerator.generatePartialArgs(this.pluginContext.invoke(JExpr._super(), this.pluginContext.copyMethodName).arg(transformerParam))));
+		} else if (this.pluginContext.partialCopyableInterface.isAssignableFrom(definedClass._extends())) {
+			newObjectVar = body.decl(JMod.FINAL, definedClass, this.pluginContext.newObjectVarName, JExpr.cast(definedClass, cloneGenerator.generatePartialArgs(this.pluginContext.invoke(JExpr._super(), this.pluginContext.copyMethodName))));
+		} else if (this.pluginContext.copyableInterface.isAssignableFrom(definedClass._extends())) {
+			newObjectVar = body.decl(JMod.FINAL, definedClass, this.pluginContext.newObjectVarName, JExpr.cast(definedClass, JExpr._super().invoke(this.pluginContext.copyMethodName)));
+		} else {
+			newObjectVar = body.decl(JMod.FINAL, definedClass, this.pluginContext.newObjectVarName, null);
+			final JBlock maybeTryBlock = this.pluginContext.catchCloneNotSupported(body, definedClass._extends());
+			maybeTryBlock.assign(newObjectVar, JExpr.cast(definedClass, JExpr._super().invoke(this.pluginContext.cloneMethodName)));
+		}
+		this.transformerVar = transformerParam;
+		generateFieldCopyExpressions(cloneGenerator, body, newObjectVar, JExpr._this(), false);
+		this.transformerVar = null;
+		body._return(newObjectVar);
+		return cloneMethod;
+	}
+
+
+	/**
+	 * Generates a <code>copyAsX()</code> method for each projection that applies to this class,
+	 * which copies the selected fields into a new instance one by one. An abstract class
+	 * declares the methods of its own projections as abstract.
+	 */
+	void generateProjectionMethods() throws SAXException {
+		final JDefinedClass definedClass = this.classOutline.implClass;
+		final Map<String, Projection> inheritedProjections = this.classOutline.getSuperClass() == null ? Collections.emptyMap() : Projection.getEffective(this.pluginContext, this.classOutline.getSuperClass());
+		for (final Projection projection : Projection.getEffective(this.pluginContext, this.classOutline).values()) {
+			if (definedClass.isAbstract() && projection.getDeclaringClass() != this.classOutline) {
+				continue;
+			}
+			final JMethod copyMethod = definedClass.method(definedClass.isAbstract() ? JMod.PUBLIC | JMod.ABSTRACT : JMod.PUBLIC, definedClass, projection.getMethodName(Projection.COPY_AS_METHOD_PREFIX, ""));
+			if (inheritedProjections.containsKey(projection.getName())) {
+				copyMethod.annotate(Override.class);
+			}
+			copyMethod.javadoc().append(Projection.getMessage("javadoc.copyAs", projection.getName(), projection.getInclude()));
+			if (!definedClass.isAbstract()) {
+				final CopyGenerator copyGenerator = projection.createCopyGenerator(this.pluginContext, definedClass);
+				final JBlock body = copyMethod.body();
+				final JVar newObjectVar = body.decl(JMod.FINAL, definedClass, this.pluginContext.newObjectVarName, JExpr._new(definedClass));
+				for (final ClassOutline fieldOwner : Projection.hierarchy(this.classOutline)) {
+					for (final FieldOutline fieldOutline : projection.getSelectedFields(fieldOwner)) {
+						final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+						generateFieldCopyExpression(copyGenerator, body, newObjectVar, field, newObjectVar.ref(field.name()), JExpr._this().ref(field.name()), fieldOutline);
+					}
+				}
+				body._return(newObjectVar);
+			}
+		}
+	}
+
+	/**
+	 * Generates the {@link com.kscs.util.jaxb.StackCopyable} methods, and a
+	 * <code>createCopy()</code> that lets a {@link CopyStack} drive them.
+	 */
+	private JMethod generateIterativeCreateCopyMethods() {
+		final JDefinedClass definedClass = this.classOutline.implClass;
+		final boolean superStackCopyable = this.pluginContext.getClassOutline(definedClass._extends()) != null;
+		final boolean superCopyable = this.pluginContext.copyableInterface.isAssignableFrom(definedClass._extends());
+
+		if (!superStackCopyable) {
+			final JMethod createTargetMethod = definedClass.method(JMod.PUBLIC, Object.class, DeepCopyGenerator.CREATE_COPY_TARGET_METHOD_NAME);
+			createTargetMethod.annotate(Override.class);
+			if (superCopyable) {
+				createTargetMethod.body()._return(JExpr._super().invoke(this.pluginContext.copyMethodName));
+			} else {
+				final JBlock maybeTryBlock = this.pluginContext.catchCloneNotSupported(createTargetMethod.body(), definedClass._extends());
+				maybeTryBlock._return(JExpr._super().invoke(this.pluginContext.cloneMethodName));
+			}
+		}
+
+		final JMethod copyFieldsMethod = definedClass.method(JMod.PUBLIC, this.pluginContext.voidType, DeepCopyGenerator.COPY_FIELDS_INTO_METHOD_NAME);
+		final JVar targetParam = copyFieldsMethod.param(JMod.FINAL, Object.class, DeepCopyGenerator.COPY_TARGET_PARAM_NAME);
+		final JVar stackParam = copyFieldsMethod.param(JMod.FINAL, CopyStack.class, DeepCopyGenerator.COPY_STACK_PARAM_NAME);
+		copyFieldsMethod.annotate(Override.class);
+		final JBlock body = copyFieldsMethod.body();
+		if (superStackCopyable) {
+			body.add(JExpr._super().invoke(copyFieldsMethod).arg(targetParam).arg(stackParam));
+		}
+		final JVar newObjectVar = body.decl(JMod.FINAL, definedClass, this.pluginContext.newObjectVarName, JExpr.cast(definedClass, targetParam));
+		this.copyStackVar = stackParam;
+		generateFieldCopyExpressions(new FullCopyGenerator(), body, newObjectVar, JExpr._this(), false);
+		this.copyStackVar = null;
+
+		final JMethod cloneMethod = definedClass.method(JMod.PUBLIC, definedClass, this.pluginContext.copyMethodName);
+		cloneMethod.annotate(Override.class);
+		cloneMethod.body()._return(this.pluginContext.codeModel.ref(CopyStack.class).staticInvoke("copy").arg(JExpr._this()));
+		return cloneMethod;
+	}
+
+	/**
+	 * Generates <code>createCopy()</code>, which runs in the copy context of the
+	 * current thread, and <code>createCopy(CopyContext)</code>, which copies each
+	 * object only once per context.
+	 */
+	private JMethod generateIdentityCreateCopyMethods() {
+		final JDefinedClass definedClass = this.classOutline.implClass;
+		final boolean superInContext = this.pluginContext.getClassOutline(definedClass._extends()) != null;
+		final boolean superCopyable = this.pluginContext.copyableInterface.isAssignableFrom(definedClass._extends());
+
+		final JMethod contextCopyMethod = definedClass.method(JMod.PUBLIC, definedClass, this.pluginContext.copyMethodName);
+		final JVar copyContextParam = contextCopyMethod.param(JMod.FINAL, CopyContext.class, DeepCopyGenerator.COPY_CONTEXT_PARAM_NAME);
+		if (superInContext) {
+			contextCopyMethod.annotate(Override.class);
+		}
+		contextCopyMethod.javadoc().append(getMessage("createCopy.copyContext.javadoc.desc"));
+		contextCopyMethod.javadoc().addParam(copyContextParam).append(getMessage("createCopy.copyContext.javadoc.param.copyContext"));
+		final JBlock body = contextCopyMethod.body();
+		final JVar existingCopyVar = body.decl(JMod.FINAL, definedClass, DeepCopyGenerator.EXISTING_COPY_VAR_NAME, copyContextParam.invoke("get").arg(JExpr._this()));
+		body._if(existingCopyVar.ne(JExpr._null()))._then()._return(existingCopyVar);
+		final JVar newObjectVar;
+		if (superInContext) {
+			newObjectVar = body.decl(JMod.FINAL, definedClass, this.pluginContext.newObjectVarName, JExpr.cast(definedClass, JExpr._super().invoke(this.pluginContext.copyMethodName).arg(copyContextParam)));
+		} else if (superCopyable) {
+			newObjectVar = body.decl(JMod.FINAL, definedClass, this.pluginContext.newObjectVarName, JExpr.cast(definedClass, JExpr._super().invoke(this.pluginContext.copyMethodName)));
+			body.add(copyContextParam.invoke("register").arg(JExpr._this()).arg(newObjectVar));
+		} else {
+			newObjectVar = body.decl(JMod.FINAL, definedClass, this.pluginContext.newObjectVarName, null);
+			final JBlock maybeTryBlock = this.pluginContext.catchCloneNotSupported(body, definedClass._extends());
+			maybeTryBlock.assign(newObjectVar, JExpr.cast(definedClass, JExpr._super().invoke(this.pluginContext.cloneMethodName)));
+			body.add(copyContextParam.invoke("register").arg(JExpr._this()).arg(newObjectVar));
+		}
+		this.copyContextVar = copyContextParam;
+		generateFieldCopyExpressions(new FullCopyGenerator(), body, newObjectVar, JExpr._this(), false);
+		this.copyContextVar = null;
+		body._return(newObjectVar);
+
+		final JMethod cloneMethod = definedClass.method(JMod.PUBLIC, definedClass, this.pluginContext.copyMethodName);
+		cloneMethod.annotate(Override.class);
+		final JVar copyContextVar = cloneMethod.body().decl(JMod.FINAL, this.pluginContext.codeModel.ref(CopyContext.class), DeepCopyGenerator.COPY_CONTEXT_PARAM_NAME, this.pluginContext.codeModel.ref(CopyContext.class).staticInvoke("open"));
+		final JTryBlock tryBlock = cloneMethod.body()._try();
+		tryBlock.body()._return(JExpr.invoke(contextCopyMethod).arg(copyContextVar));
+		tryBlock._finally().add(copyContextVar.invoke("close"));
+		return cloneMethod;
+	}
 
-	private void generateFieldCopyExpressions(final CopyGenerator cloneGenerator, final JBlock body, final JExpression targetObject, final JExpression sourceObject) {
+	private void generateFieldCopyExpressions(final CopyGenerator cloneGenerator, final JBlock body, final JExpression targetObject, final JExpression sourceObject, final boolean lazyCopy) {
 		for (final FieldOutline fieldOutline : this.classOutline.getDeclaredFields()) {
 			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
 			if (field != null) {
 				if ((field.mods().getValue() & (JMod.FINAL | JMod.STATIC)) == 0) {
-					generateFieldCopyExpression(cloneGenerator, body, targetObject, field, targetObject.ref(field.name()), sourceObject.ref(field.name()), fieldOutline);
+					if (lazyCopy && isCopiedLazily(this.pluginContext, field)) {
+						body.assign(targetObject.ref(field.name()), snapshot(field, sourceObject.ref(field.name()), fieldOutline));
+						body.assign(targetObject.ref(field.name() + DeepCopyGenerator.UNCOPIED_FIELD_SUFFIX), JExpr.TRUE);
+					} else {
+						generateFieldCopyExpression(cloneGenerator, body, targetObject, field, targetObject.ref(field.name()), sourceObject.ref(field.name()), fieldOutline);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * A field is copied lazily if its copy, or the copy of its elements,
+	 * would have to do more than assign a reference.
+	 */
+	static boolean isCopiedLazily(final PluginContext pluginContext, final JFieldVar field) {
+		if (!field.type().isReference() || field.type().isArray()) {
+			return false;
+		}
+		final JClass fieldType = (JClass) field.type();
+		return isDeepCopied(pluginContext, pluginContext.collectionClass.isAssignableFrom(fieldType) ? fieldType.getTypeParameters().get(0) : fieldType);
+	}
+
+	private static boolean isDeepCopied(final PluginContext pluginContext, final JClass type) {
+		return !pluginContext.isShareable(type)
+				&& (pluginContext.partialCopyableInterface.isAssignableFrom(type)
+				|| pluginContext.copyableInterface.isAssignableFrom(type)
+				|| pluginContext.cloneableInterface.isAssignableFrom(type));
+	}
+
+	/**
+	 * The state of a lazily copied field as of the time of the copy, which is
+	 * copied deeply on first access. A list is copied shallowly, so that later
+	 * changes to the source list don't show in the copy. The source object
+	 * itself is never modified.
+	 */
+	private JExpression snapshot(final JFieldVar field, final JExpression sourceField, final FieldOutline fieldOutline) {
+		final JClass fieldType = (JClass) field.type();
+		if (!this.pluginContext.collectionClass.isAssignableFrom(fieldType)) {
+			return sourceField;
+		}
+		final JClass listClass = this.copyOnWrite ? this.pluginContext.codeModel.ref(CopyOnWriteOnDemandList.class) : PluginContext.extractMutableListClass(fieldOutline);
+		return nullSafe(sourceField, this.pluginContext.newArrayList(listClass, fieldType.getTypeParameters().get(0)).arg(sourceField));
+	}
+
+	/**
+	 * Declares the "not yet copied" marker of each lazily copied field, and a
+	 * method that replaces the shared child object by its copy. Getters call that
+	 * method before they return the field, setters just clear the marker.
+	 */
+	void generateLazyCopyAccessors() {
+		final JDefinedClass definedClass = this.classOutline.implClass;
+		for (final FieldOutline fieldOutline : this.classOutline.getDeclaredFields()) {
+			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+			if (field != null && (field.mods().getValue() & (JMod.FINAL | JMod.STATIC)) == 0 && isCopiedLazily(this.pluginContext, field)) {
+				final String baseName = fieldOutline.getPropertyInfo().getName(true);
+				final JFieldVar uncopiedField = definedClass.field(JMod.PRIVATE | JMod.TRANSIENT, this.pluginContext.codeModel.BOOLEAN, field.name() + DeepCopyGenerator.UNCOPIED_FIELD_SUFFIX);
+
+				final JMethod materializeMethod = definedClass.method(JMod.PRIVATE, this.pluginContext.voidType, DeepCopyGenerator.MATERIALIZE_METHOD_PREFIX + baseName);
+				final JBlock ifUncopied = materializeMethod.body()._if(JExpr._this().ref(uncopiedField))._then();
+				ifUncopied.assign(JExpr._this().ref(uncopiedField), JExpr.FALSE);
+				final JVar sharedVar = ifUncopied.decl(JMod.FINAL, field.type(), DeepCopyGenerator.SHARED_VAR_NAME, JExpr._this().ref(field));
+				generateFieldCopyExpression(new FullCopyGenerator(), ifUncopied, JExpr._this(), field, JExpr._this().ref(field), sharedVar, fieldOutline);
+
+				final JMethod getter = definedClass.getMethod("get" + baseName, new JType[0]);
+				if (getter != null) {
+					insertFirst(getter.body(), block -> block.invoke(materializeMethod));
+				}
+				final JMethod setter = definedClass.getMethod("set" + baseName, new JType[]{field.type()});
+				if (setter != null) {
+					insertFirst(setter.body(), block -> block.assign(JExpr._this().ref(uncopiedField), JExpr.FALSE));
 				}
 			}
 		}
 	}
 
+	private static void insertFirst(final JBlock block, final Consumer<JBlock> statement) {
+		final int pos = block.pos(0);
+		statement.accept(block);
+		block.pos(pos + 1);
+	}
+
+
+	/**
+	 * Generates <code>copyInto(target)</code>, or its partial variant, which overwrites
+	 * the fields of an existing instance and reuses its child objects and lists where
+	 * their classes match.
+	 */
+	void generateCopyIntoMethod(final boolean partial) {
+		final JDefinedClass definedClass = this.classOutline.implClass;
+		ClassOutline rootOutline = this.classOutline;
+		while (rootOutline.getSuperClass() != null) {
+			rootOutline = rootOutline.getSuperClass();
+		}
+		final JDefinedClass rootClass = rootOutline.implClass;
+
+		final JMethod copyIntoMethod = definedClass.method(JMod.PUBLIC, this.pluginContext.voidType, DeepCopyGenerator.COPY_INTO_METHOD_NAME);
+		final JVar targetParam = copyIntoMethod.param(JMod.FINAL, rootClass, DeepCopyGenerator.COPY_TARGET_PARAM_NAME);
+		final CopyGenerator cloneGenerator = this.pluginContext.createCopyGenerator(definedClass, copyIntoMethod, partial);
+		copyIntoMethod.annotate(Override.class);
+		final JDocComment docComment = copyIntoMethod.javadoc();
+		docComment.append(getMessage("copyInto.javadoc.desc", rootClass.name()));
+		docComment.addParam(targetParam).append(getMessage("copyInto.javadoc.param.target", rootClass.name()));
+		cloneGenerator.generatePartialArgs(docComment);
+
+		final JBlock body = copyIntoMethod.body();
+		if (this.classOutline.getSuperClass() != null) {
+			body.add(cloneGenerator.generatePartialArgs(this.pluginContext.invoke(JExpr._super(), DeepCopyGenerator.COPY_INTO_METHOD_NAME).arg(targetParam)));
+		} else {
+			body._if(targetParam.invoke("getClass").ne(JExpr.invoke("getClass")))._then()._throw(JExpr._new(this.pluginContext.codeModel.ref(IllegalArgumentException.class))
+					.arg(JExpr.lit("Cannot copy ").plus(JExpr.invoke("getClass").invoke("getName")).plus(JExpr.lit(" into ")).plus(targetParam.invoke("getClass").invoke("getName"))));
+		}
+		final JVar targetVar = rootClass == definedClass ? targetParam : body.decl(JMod.FINAL, definedClass, DeepCopyGenerator.TYPED_TARGET_VAR_NAME, JExpr.cast(definedClass, targetParam));
+
+		for (final FieldOutline fieldOutline : this.classOutline.getDeclaredFields()) {
+			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+			if (field != null && (field.mods().getValue() & (JMod.FINAL | JMod.STATIC)) == 0) {
+				final PropertyTreeVarGenerator treeVarGenerator = cloneGenerator.createPropertyTreeVarGenerator(body, field.name());
+				final JBlock fieldBlock = treeVarGenerator.generateEnclosingBlock(body);
+				final JFieldRef targetField = targetVar.ref(field);
+				final JFieldRef sourceField = JExpr._this().ref(field);
+				if (this.lazy && isCopiedLazily(this.pluginContext, field)) {
+					// A target child that is still shared with another object must not be overwritten
+					final JFieldRef uncopiedField = targetVar.ref(field.name() + DeepCopyGenerator.UNCOPIED_FIELD_SUFFIX);
+					final JBlock ifUncopied = fieldBlock._if(uncopiedField)._then();
+					ifUncopied.assign(uncopiedField, JExpr.FALSE);
+					ifUncopied.assign(targetField, JExpr._null());
+				}
+				final JClass fieldType = field.type().isReference() ? (JClass)field.type() : null;
+				if (fieldType != null && this.pluginContext.collectionClass.isAssignableFrom(fieldType)) {
+					final JClass elementType = fieldType.getTypeParameters().get(0);
+					if (this.pluginContext.getClassOutline(elementType) != null) {
+						generateReusingListCopy(treeVarGenerator, fieldBlock, field, targetField, sourceField, elementType, fieldOutline);
+					} else if (this.pluginContext.cloneableInterface.isAssignableFrom(elementType) || !this.copyOnWrite) {
+						generateRefillingListCopy(fieldBlock, field, targetField, sourceField, elementType, fieldOutline);
+					} else {
+						generateFieldCopyExpression(new FullCopyGenerator(), fieldBlock, targetVar, field, targetField, sourceField, fieldOutline);
+					}
+				} else if (fieldType != null && this.pluginContext.getClassOutline(fieldType) != null) {
+					final JConditional ifNull = fieldBlock._if(sourceField.eq(JExpr._null()));
+					ifNull._then().assign(targetField, JExpr._null());
+					final JInvocation copyIntoInvocation = sourceField.invoke(DeepCopyGenerator.COPY_INTO_METHOD_NAME).arg(targetField);
+					treeVarGenerator.generatePartialArgs(copyIntoInvocation);
+					final JConditional ifReusable = ifNull._elseif(targetField.ne(JExpr._null()).cand(targetField.invoke("getClass").eq(sourceField.invoke("getClass"))));
+					ifReusable._then().add(copyIntoInvocation);
+					ifReusable._else().assign(targetField, elementCopyExpression(treeVarGenerator, sourceField, fieldType));
+				} else {
+					generateFieldCopyExpression(new FullCopyGenerator(), fieldBlock, targetVar, field, targetField, sourceField, fieldOutline);
+				}
+			}
+		}
+		if (this.projectionCacheSize > 0) {
+			body.add(invalidateProjections(targetParam));
+		}
+	}
+
+	/**
+	 * Copies a list of generated objects into the target's list, copying each
+	 * element into the target element at the same index if it is of the same class.
+	 */
+	private void generateReusingListCopy(final PropertyTreeVarGenerator treeVarGenerator, final JBlock block, final JFieldVar field, final JFieldRef targetField, final JFieldRef sourceField, final JClass elementType, final FieldOutline fieldOutline) {
+		final JConditional ifNull = block._if(sourceField.eq(JExpr._null()));
+		ifNull._then().assign(targetField, JExpr._null());
+		final JBlock elseBlock = ifNull._else();
+		final JClass mutableListClass = PluginContext.extractMutableListClass(fieldOutline);
+		final JInvocation newList = JExpr._new(mutableListClass.narrow(elementType));
+		if (this.pluginContext.arrayListClass.equals(mutableListClass)) {
+			newList.arg(sourceField.invoke("size"));
+		}
+		elseBlock._if(targetField.eq(JExpr._null()))._then().assign(targetField, newList);
+		final JVar targetListVar = elseBlock.decl(JMod.FINAL, field.type(), "_targetList", targetField);
+		final JVar sizeVar = elseBlock.decl(JMod.FINAL, this.pluginContext.codeModel.INT, "_size", sourceField.invoke("size"));
+		final JForLoop forLoop = elseBlock._for();
+		final JVar indexVar = forLoop.init(this.pluginContext.codeModel.INT, "_i", JExpr.lit(0));
+		forLoop.test(indexVar.lt(sizeVar));
+		forLoop.update(indexVar.incr());
+		final JVar itemVar = forLoop.body().decl(JMod.FINAL, elementType, "_item", sourceField.invoke("get").arg(indexVar));
+		final JConditional ifExisting = forLoop.body()._if(indexVar.lt(targetListVar.invoke("size")));
+		final JVar existingVar = ifExisting._then().decl(JMod.FINAL, elementType, "_existing", targetListVar.invoke("get").arg(indexVar));
+		final JInvocation copyIntoInvocation = itemVar.invoke(DeepCopyGenerator.COPY_INTO_METHOD_NAME).arg(existingVar);
+		treeVarGenerator.generatePartialArgs(copyIntoInvocation);
+		final JConditional ifReusable = ifExisting._then()._if(itemVar.ne(JExpr._null()).cand(existingVar.ne(JExpr._null())).cand(existingVar.invoke("getClass").eq(itemVar.invoke("getClass"))));
+		ifReusable._then().add(copyIntoInvocation);
+		ifReusable._else().invoke(targetListVar, "set").arg(indexVar).arg(nullSafe(itemVar, elementCopyExpression(treeVarGenerator, itemVar, elementType)));
+		ifExisting._else().invoke(targetListVar, "add").arg(nullSafe(itemVar, elementCopyExpression(treeVarGenerator, itemVar, elementType)));
+		elseBlock._if(targetListVar.invoke("size").gt(sizeVar))._then().invoke(targetListVar.invoke("subList").arg(sizeVar).arg(targetListVar.invoke("size")), "clear");
+	}
+
+	/**
+	 * Clears the target's list and fills it with the elements of the source list,
+	 * or clones of them.
+	 */
+	private void generateRefillingListCopy(final JBlock block, final JFieldVar field, final JFieldRef targetField, final JFieldRef sourceField, final JClass elementType, final FieldOutline fieldOutline) {
+		final JConditional ifNull = block._if(sourceField.eq(JExpr._null()));
+		ifNull._then().assign(targetField, JExpr._null());
+		final JBlock elseBlock = ifNull._else();
+		final JClass mutableListClass = PluginContext.extractMutableListClass(fieldOutline);
+		final JInvocation newList = JExpr._new(mutableListClass.narrow(elementType));
+		if (this.pluginContext.arrayListClass.equals(mutableListClass)) {
+			newList.arg(sourceField.invoke("size"));
+		}
+		final JConditional ifTargetNull = elseBlock._if(targetField.eq(JExpr._null()));
+		ifTargetNull._then().assign(targetField, newList);
+		ifTargetNull._else().invoke(targetField, "clear");
+		if (this.pluginContext.cloneableInterface.isAssignableFrom(elementType)) {
+			final JBlock maybeTryBlock = this.pluginContext.catchCloneNotSupported(elseBlock, elementType);
+			final JForEach forLoop = maybeTryBlock.forEach(elementType, "_item", sourceField);
+			forLoop.body().invoke(targetField, "add").arg(nullSafe(forLoop.var(), this.pluginContext.castOnDemand(elementType, forLoop.var().invoke(this.pluginContext.cloneMethodName))));
+		} else {
+			elseBlock.invoke(targetField, "addAll").arg(sourceField);
+		}
+	}
 
 	JMethod generateConveniencePartialCopyMethod(final JMethod cloneMethod, final String methodName, final JExpression secondParam) {
 		final JDefinedClass definedClass = this.classOutline.implClass;
@@ -142,10 +647,59 @@ public class DeepCopyGenerator {
 		final JVar propertyTreeParam = cloneExceptMethod.param(JMod.FINAL, PropertyTree.class, PartialCopyGenerator.PROPERTY_TREE_PARAM_NAME);
 		cloneExceptMethod.body()._return(JExpr.invoke(cloneMethod).arg(propertyTreeParam).arg(secondParam));
 		cloneExceptMethod.annotate(Override.class);
+		if (this.projectionCacheSize > 0) {
+			generateCachedCopyMethod(methodName, secondParam);
+		}
 		return cloneExceptMethod;
 	}
 
+	/**
+	 * Generates a variant of <code>copyOnly</code> or <code>copyExcept</code> that returns
+	 * the copy cached in the {@link ProjectionCache}, instead of a new one.
+	 */
+	private void generateCachedCopyMethod(final String methodName, final JExpression secondParam) {
+		final JDefinedClass definedClass = this.classOutline.implClass;
+		final JMethod cachedCopyMethod = definedClass.method(JMod.PUBLIC, definedClass, DeepCopyGenerator.CACHED_METHOD_PREFIX + Character.toUpperCase(methodName.charAt(0)) + methodName.substring(1));
+		final JVar propertyTreeParam = cachedCopyMethod.param(JMod.FINAL, PropertyTree.class, PartialCopyGenerator.PROPERTY_TREE_PARAM_NAME);
+		cachedCopyMethod.javadoc().append(getMessage("cachedCopy.javadoc.desc", methodName));
+		cachedCopyMethod.javadoc().addParam(propertyTreeParam).append(getMessage("cachedCopy.javadoc.param.propertyTree"));
+		cachedCopyMethod.body()._return(JExpr.ref(DeepCopyGenerator.PROJECTION_CACHE_FIELD_NAME).invoke("get").arg(JExpr._this()).arg(propertyTreeParam).arg(secondParam));
+	}
+
+	/**
+	 * Declares the {@link ProjectionCache} shared by the class hierarchy in its root class,
+	 * and lets the setters of this class invalidate the cached copies of the modified instance.
+	 */
+	void generateProjectionCache() {
+		final JDefinedClass definedClass = this.classOutline.implClass;
+		if (this.classOutline.getSuperClass() == null) {
+			final JClass projectionCacheClass = this.pluginContext.codeModel.ref(ProjectionCache.class);
+			definedClass.field(JMod.PROTECTED | JMod.STATIC | JMod.FINAL, projectionCacheClass, DeepCopyGenerator.PROJECTION_CACHE_FIELD_NAME, JExpr._new(projectionCacheClass).arg(JExpr.lit(this.projectionCacheSize)));
+		}
+		for (final FieldOutline fieldOutline : this.classOutline.getDeclaredFields()) {
+			final JMethod setter = PluginContext.findSetter(fieldOutline);
+			if (setter != null) {
+				setter.body().add(invalidateProjections(JExpr._this()));
+			}
+			final JMethod unsetter = definedClass.getMethod(DeepCopyGenerator.UNSET_METHOD_PREFIX + fieldOutline.getPropertyInfo().getName(true), new JType[0]);
+			if (unsetter != null) {
+				unsetter.body().add(invalidateProjections(JExpr._this()));
+			}
+		}
+	}
+
+	/**
+	 * @param instance The object modified
+	 * @return A statement discarding the cached partial copies of <code>instance</code>
+	 */
+	static JInvocation invalidateProjections(final JExpression instance) {
+		return JExpr.ref(DeepCopyGenerator.PROJECTION_CACHE_FIELD_NAME).invoke(DeepCopyGenerator.INVALIDATE_METHOD_NAME).arg(instance);
+	}
+
 	void generateDefaultConstructor() {
+		if (this.classOutline.implClass.getConstructor(new JType[0]) != null) {
+			return;
+		}
 		final JMethod defaultConstructor = this.classOutline.implClass.constructor( this.classOutline.implClass.isAbstract() ? JMod.PROTECTED : JMod.PUBLIC);
 		defaultConstructor.body().directStatement("// " + getMessage("defaultConstructor.bodyComment"));
 		defaultConstructor.javadoc().append(getMessage("defaultConstructor.javadoc.desc"));
@@ -153,10 +707,14 @@ public class DeepCopyGenerator {
 
 
 	void generateCopyConstructor(final boolean partial) {
+		if (this.preserveIdentity && !partial) {
+			generateIdentityCopyConstructors();
+			return;
+		}
 		final JDefinedClass definedClass = this.classOutline.implClass;
 		final JMethod constructor = definedClass.constructor(definedClass.isAbstract() ? JMod.PROTECTED : JMod.PUBLIC);
 		final JVar otherParam = constructor.param(JMod.FINAL, this.classOutline.implClass, DeepCopyGenerator.OTHER_PARAM_NAME);
-		final CopyGenerator cloneGenerator = this.pluginContext.createCopyGenerator(constructor, partial);
+		final CopyGenerator cloneGenerator = this.pluginContext.createCopyGenerator(definedClass, constructor, partial);
 
 		final JDocComment docComment = constructor.javadoc();
 		docComment.append(getMessage("copyConstructor.javadoc.desc", definedClass.name()));
@@ -171,7 +729,37 @@ public class DeepCopyGenerator {
 		}
 
 		final JBlock body = constructor.body();
-		generateFieldCopyExpressions(cloneGenerator, body, JExpr._this(), otherParam);
+		generateFieldCopyExpressions(cloneGenerator, body, JExpr._this(), otherParam, this.lazy && !partial);
+	}
+
+	/**
+	 * Generates a copy constructor taking a {@link CopyContext} to share copies with,
+	 * and the regular copy constructor delegating to it with a new context.
+	 */
+	private void generateIdentityCopyConstructors() {
+		final JDefinedClass definedClass = this.classOutline.implClass;
+		final JMethod contextConstructor = definedClass.constructor(JMod.PROTECTED);
+		final JVar contextOtherParam = contextConstructor.param(JMod.FINAL, definedClass, DeepCopyGenerator.OTHER_PARAM_NAME);
+		final JVar copyContextParam = contextConstructor.param(JMod.FINAL, CopyContext.class, DeepCopyGenerator.COPY_CONTEXT_PARAM_NAME);
+		contextConstructor.javadoc().append(getMessage("copyConstructor.copyContext.javadoc.desc", definedClass.name()));
+		contextConstructor.javadoc().addParam(contextOtherParam).append(getMessage("copyConstructor.javadoc.param.other", definedClass.name()));
+		contextConstructor.javadoc().addParam(copyContextParam).append(getMessage("createCopy.copyContext.javadoc.param.copyContext"));
+		final JBlock body = contextConstructor.body();
+		if (this.pluginContext.getClassOutline(definedClass._extends()) != null) {
+			body.add(this.pluginContext._super().arg(contextOtherParam).arg(copyContextParam));
+		} else if (this.classOutline.getSuperClass() != null) {
+			body.add(this.pluginContext._super().arg(contextOtherParam));
+		}
+		body.add(copyContextParam.invoke("register").arg(contextOtherParam).arg(JExpr._this()));
+		this.copyContextVar = copyContextParam;
+		generateFieldCopyExpressions(new FullCopyGenerator(), body, JExpr._this(), contextOtherParam, false);
+		this.copyContextVar = null;
+
+		final JMethod constructor = definedClass.constructor(definedClass.isAbstract() ? JMod.PROTECTED : JMod.PUBLIC);
+		final JVar otherParam = constructor.param(JMod.FINAL, definedClass, DeepCopyGenerator.OTHER_PARAM_NAME);
+		constructor.javadoc().append(getMessage("copyConstructor.javadoc.desc", definedClass.name()));
+		constructor.javadoc().addParam(otherParam).append(getMessage("copyConstructor.javadoc.param.other", definedClass.name()));
+		constructor.body().add(JExpr.invoke("this").arg(otherParam).arg(JExpr._new(this.pluginContext.codeModel.ref(CopyContext.class))));
 	}
 
 	private String getMessage(final String resourceKey, final Object... args) {
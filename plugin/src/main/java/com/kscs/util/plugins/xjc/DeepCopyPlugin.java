@@ -24,19 +24,35 @@
 
 package com.kscs.util.plugins.xjc;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.kscs.util.jaxb.CopyContext;
+import com.kscs.util.jaxb.CopyOnWriteOnDemandList;
+import com.kscs.util.jaxb.CopyStack;
 import com.kscs.util.jaxb.Copyable;
+import com.kscs.util.jaxb.InPlaceCopyable;
+import com.kscs.util.jaxb.ParallelCopy;
+import com.kscs.util.jaxb.PartialCopier;
 import com.kscs.util.jaxb.PartialCopyable;
+import com.kscs.util.jaxb.ProjectionCache;
+import com.kscs.util.jaxb.PropertyTransformer;
 import com.kscs.util.jaxb.PropertyTree;
 import com.kscs.util.jaxb.PropertyTreeUse;
 import com.kscs.util.jaxb.Selector;
+import com.kscs.util.jaxb.StackCopyable;
 import com.kscs.util.plugins.xjc.base.AbstractPlugin;
+import com.kscs.util.plugins.xjc.base.Namespaces;
 import com.kscs.util.plugins.xjc.base.Opt;
 import com.sun.codemodel.JMethod;
 import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.Plugin;
 import com.sun.tools.xjc.outline.ClassOutline;
 import com.sun.tools.xjc.outline.Outline;
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
 
 /**
  * XJC Plugin to generate copy and partial copy methods
@@ -48,11 +64,29 @@ public class DeepCopyPlugin extends AbstractPlugin {
 	@Opt protected boolean generateTools = true;
 	@Opt("constructor") protected boolean generateConstructor = true;
 	@Opt protected boolean narrow = false;
+	@Opt protected boolean preserveIdentity = false;
+	@Opt protected boolean iterative = false;
+	@Opt protected String parallelThreshold = "0";
+	@Opt protected boolean lazy = false;
+	@Opt protected boolean copyOnWrite = false;
+	@Opt protected boolean copyInto = false;
+	@Opt protected boolean transform = false;
+	@Opt protected String projectionCache = "0";
 	@Opt
 	protected String selectorClassName = "Selector";
 	@Opt
 	protected final String rootSelectorClassName = "Select";
 
+	@Override
+	public List<String> getCustomizationURIs() {
+		return Collections.singletonList(Namespaces.KSCS_BINDINGS_NS);
+	}
+
+	@Override
+	public boolean isCustomizationTagName(final String nsUri, final String localName) {
+		return Projection.isCustomizationTagName(nsUri, localName);
+	}
+
 	@Override
 	public String getOptionName() {
 		return "Xcopy";
@@ -64,6 +98,80 @@ public class DeepCopyPlugin extends AbstractPlugin {
 
 		if(this.generateTools) {
 			pluginContext.writeSourceFile(Copyable.class);
+			if (this.preserveIdentity) {
+				pluginContext.writeSourceFile(CopyContext.class);
+			}
+			if (this.iterative) {
+				pluginContext.writeSourceFile(StackCopyable.class);
+				pluginContext.writeSourceFile(CopyStack.class);
+			}
+			if (this.copyOnWrite) {
+				pluginContext.writeSourceFile(CopyOnWriteOnDemandList.class);
+			}
+			if (this.copyInto) {
+				pluginContext.writeSourceFile(InPlaceCopyable.class);
+			}
+			if (this.transform) {
+				pluginContext.writeSourceFile(PropertyTransformer.class);
+			}
+		}
+
+		final int projectionCacheSize = getProjectionCacheSize();
+		if (projectionCacheSize < 0) {
+			errorHandler.error(new SAXParseException(getMessage("error.projectionCache", this.projectionCache), outline.getModel().getLocator()));
+			return false;
+		}
+		if (this.generateTools && projectionCacheSize > 0) {
+			pluginContext.writeSourceFile(ProjectionCache.class);
+		}
+
+		final int parallelThresholdValue;
+		try {
+			parallelThresholdValue = Integer.parseInt(this.parallelThreshold.trim());
+		} catch (final NumberFormatException e) {
+			errorHandler.error(new SAXParseException(getMessage("error.parallelThreshold", this.parallelThreshold), outline.getModel().getLocator()));
+			return false;
+		}
+		// used by parallel collection copies and by PartialCopyable.copyAll()
+		if (this.generateTools && (parallelThresholdValue > 0 || this.generatePartialCloneMethod)) {
+			pluginContext.writeSourceFile(ParallelCopy.class);
+		}
+
+		if (this.preserveIdentity && this.iterative) {
+			errorHandler.error(new SAXParseException(getMessage("error.preserveIdentityAndIterative"), outline.getModel().getLocator()));
+		}
+		if (this.lazy && (this.preserveIdentity || this.iterative)) {
+			errorHandler.error(new SAXParseException(getMessage("error.lazy"), outline.getModel().getLocator()));
+		}
+		if (this.copyInto && !this.generatePartialCloneMethod) {
+			errorHandler.error(new SAXParseException(getMessage("error.copyIntoPartial"), outline.getModel().getLocator()));
+		}
+		if (projectionCacheSize > 0) {
+			if (!this.generatePartialCloneMethod) {
+				errorHandler.error(new SAXParseException(getMessage("error.projectionCachePartial"), outline.getModel().getLocator()));
+			}
+			// Only setters invalidate cached copies, not the mutable lists handed out by modifiers
+			for (final Plugin plugin : Arrays.asList(pluginContext.findPlugin(BoundPropertiesPlugin.class), pluginContext.findPlugin(ModifierPlugin.class))) {
+				if (plugin != null) {
+					errorHandler.error(new SAXParseException(getMessage("error.incompatiblePlugin", "projectionCache", plugin.getOptionName().substring(1)), outline.getModel().getLocator()));
+				}
+			}
+		}
+		if (this.transform) {
+			final MetaPlugin metaPlugin = pluginContext.findPlugin(MetaPlugin.class);
+			if (metaPlugin == null || !metaPlugin.isExtended()) {
+				errorHandler.error(new SAXParseException(getMessage("error.transformMeta"), outline.getModel().getLocator()));
+			}
+		}
+		for (final Plugin plugin : Arrays.asList(pluginContext.findPlugin(ImmutablePlugin.class), pluginContext.findPlugin(BoundPropertiesPlugin.class))) {
+			if (plugin != null) {
+				if (this.lazy) {
+					errorHandler.error(new SAXParseException(getMessage("error.incompatiblePlugin", "lazy", plugin.getOptionName().substring(1)), outline.getModel().getLocator()));
+				}
+				if (this.copyInto) {
+					errorHandler.error(new SAXParseException(getMessage("error.incompatiblePlugin", "copyInto", plugin.getOptionName().substring(1)), outline.getModel().getLocator()));
+				}
+			}
 		}
 
 		if (this.generatePartialCloneMethod) {
@@ -72,26 +180,58 @@ public class DeepCopyPlugin extends AbstractPlugin {
 				pluginContext.writeSourceFile(PartialCopyable.class);
 				pluginContext.writeSourceFile(PropertyTree.class);
 				pluginContext.writeSourceFile(Selector.class);
+				pluginContext.writeSourceFile(PartialCopier.class);
 			}
 			final SelectorGenerator selectorGenerator = new SelectorGenerator(pluginContext, Selector.class, this.selectorClassName, this.rootSelectorClassName, null, null, pluginContext.cloneGraphClass);
 			selectorGenerator.generateMetaFields();
 		}
 
+		for (final ClassOutline classOutline : outline.getClasses()) {
+			for (final Projection projection : pluginContext.getDeclaredProjections(classOutline)) {
+				if (projection.isNested() && !this.generatePartialCloneMethod) {
+					errorHandler.error(new SAXParseException(Projection.getMessage("error.partial", projection.getName(), classOutline.implClass.name()), classOutline.target.getLocator()));
+				}
+			}
+		}
+
 		for (final ClassOutline classOutline : outline.getClasses()) {
 			classOutline.implClass._implements(Copyable.class);
+			if (this.iterative) {
+				classOutline.implClass._implements(StackCopyable.class);
+			}
 			if(this.generatePartialCloneMethod) {
 				classOutline.implClass._implements(PartialCopyable.class);
 			}
+			if (this.copyInto && classOutline.getSuperClass() == null) {
+				classOutline.implClass._implements(pluginContext.codeModel.ref(InPlaceCopyable.class).narrow(classOutline.implClass));
+			}
 		}
 
 		for (final ClassOutline classOutline : outline.getClasses()) {
-			final DeepCopyGenerator deepCopyGenerator = new DeepCopyGenerator(pluginContext, classOutline);
+			final DeepCopyGenerator deepCopyGenerator = new DeepCopyGenerator(pluginContext, classOutline, this.preserveIdentity, this.iterative, parallelThresholdValue, this.lazy, this.copyOnWrite, projectionCacheSize);
+			if (projectionCacheSize > 0) {
+				deepCopyGenerator.generateProjectionCache();
+			}
 			deepCopyGenerator.generateCreateCopyMethod(false);
 			if (this.generatePartialCloneMethod) {
 				final JMethod partialCopyMethod =  deepCopyGenerator.generateCreateCopyMethod(true);
 				deepCopyGenerator.generateConveniencePartialCopyMethod(partialCopyMethod, pluginContext.copyExceptMethodName, pluginContext.excludeConst);
 				deepCopyGenerator.generateConveniencePartialCopyMethod(partialCopyMethod, pluginContext.copyOnlyMethodName, pluginContext.includeConst);
 			}
+			if (this.transform) {
+				deepCopyGenerator.generateTransformingCreateCopyMethod(false);
+				if (this.generatePartialCloneMethod) {
+					deepCopyGenerator.generateTransformingCreateCopyMethod(true);
+				}
+			}
+			if (this.copyInto) {
+				deepCopyGenerator.generateCopyIntoMethod(false);
+				deepCopyGenerator.generateCopyIntoMethod(true);
+			}
+			deepCopyGenerator.generateProjectionMethods();
+			if (this.lazy) {
+				deepCopyGenerator.generateLazyCopyAccessors();
+			}
 			if (this.generateConstructor) {
 				deepCopyGenerator.generateDefaultConstructor();
 				deepCopyGenerator.generateCopyConstructor(false);
@@ -104,6 +244,26 @@ public class DeepCopyPlugin extends AbstractPlugin {
 
 	}
 
+	boolean isLazy() {
+		return this.lazy;
+	}
+
+	boolean isPreserveIdentity() {
+		return this.preserveIdentity;
+	}
+
+	/**
+	 * @return The maximum size of the cache of partial copies, 0 if there is none,
+	 * or -1 if the option value is invalid.
+	 */
+	int getProjectionCacheSize() {
+		try {
+			return Math.max(Integer.parseInt(this.projectionCache.trim()), -1);
+		} catch (final NumberFormatException e) {
+			return -1;
+		}
+	}
+
 
 
 
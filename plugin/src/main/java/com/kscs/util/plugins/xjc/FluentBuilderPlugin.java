@@ -24,11 +24,13 @@
 
 package com.kscs.util.plugins.xjc;
 
+import com.kscs.util.jaxb.Adoptable;
 import com.kscs.util.jaxb.Buildable;
 import com.kscs.util.jaxb.PropertyTree;
 import com.kscs.util.jaxb.PropertyTreeUse;
 import com.kscs.util.jaxb.Selector;
 import com.kscs.util.plugins.xjc.base.AbstractPlugin;
+import com.kscs.util.plugins.xjc.base.Namespaces;
 import com.kscs.util.plugins.xjc.base.Opt;
 import com.kscs.util.plugins.xjc.codemodel.ClassName;
 import com.kscs.util.plugins.xjc.outline.DefinedClassOutline;
@@ -45,7 +47,9 @@ import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -82,6 +86,26 @@ public class FluentBuilderPlugin extends AbstractPlugin {
 	protected String endMethodName = "end";
 	@Opt
 	protected boolean generateJavadocFromAnnotations = false;
+	@Opt
+	protected boolean resettable = false;
+	@Opt
+	protected boolean builderPool = false;
+	@Opt
+	protected boolean flatStorage = false;
+	@Opt
+	protected boolean adoptCollections = false;
+	@Opt
+	protected boolean streamCollections = false;
+
+	@Override
+	public List<String> getCustomizationURIs() {
+		return Collections.singletonList(Namespaces.KSCS_BINDINGS_NS);
+	}
+
+	@Override
+	public boolean isCustomizationTagName(final String nsUri, final String localName) {
+		return Projection.isCustomizationTagName(nsUri, localName);
+	}
 
 	@Override
 	public String getOptionName() {
@@ -95,6 +119,9 @@ public class FluentBuilderPlugin extends AbstractPlugin {
 
 		if(this.generateTools) {
 			pluginContext.writeSourceFile(Buildable.class);
+			if (this.adoptCollections) {
+				pluginContext.writeSourceFile(Adoptable.class);
+			}
 		}
 		if (this.copyPartial) {
 			if (this.generateTools) {
@@ -142,6 +169,7 @@ public class FluentBuilderPlugin extends AbstractPlugin {
 	public BuilderGeneratorSettings getSettings() {
 		return new BuilderGeneratorSettings(this.copyPartial, this.narrow, this.newBuilderMethodName, this.newCopyBuilderMethodName, this.builderFieldSuffix,
 				new ClassName(this.builderInterfaceName, this.builderClassName), this.copyToMethodName,
-				this.copyAlways, this.buildMethodName, this.endMethodName, generateJavadocFromAnnotations);
+				this.copyAlways, this.buildMethodName, this.endMethodName, generateJavadocFromAnnotations,
+				this.resettable, this.builderPool, this.flatStorage, this.adoptCollections, this.streamCollections);
 	}
 }
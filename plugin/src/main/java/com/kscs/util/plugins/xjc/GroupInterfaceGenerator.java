@@ -53,17 +53,23 @@ import com.kscs.util.jaxb._interface.Interface;
 import com.kscs.util.jaxb._interface.Interfaces;
 import com.kscs.util.plugins.xjc.base.AbstractXSFunction;
 import com.kscs.util.plugins.xjc.outline.DefinedInterfaceOutline;
+import com.kscs.util.plugins.xjc.outline.DefinedPropertyOutline;
 import com.kscs.util.plugins.xjc.outline.InterfaceOutline;
 import com.kscs.util.plugins.xjc.outline.ReferencedInterfaceOutline;
 import com.kscs.util.plugins.xjc.outline.TypeOutline;
 import com.sun.codemodel.ClassType;
+import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JClassAlreadyExistsException;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JDocComment;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JForEach;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
 import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
 import com.sun.codemodel.util.JavadocEscapeWriter;
 import com.sun.tools.xjc.outline.ClassOutline;
 import com.sun.tools.xjc.outline.FieldOutline;
@@ -89,6 +95,7 @@ import com.sun.xml.xsom.visitor.XSFunction;
 import jakarta.xml.bind.JAXB;
 
 import static com.kscs.util.plugins.xjc.PluginContext.coalesce;
+import static com.kscs.util.plugins.xjc.base.PluginUtil.nullSafe;
 
 /**
  * @author mirko 2014-05-29
@@ -114,6 +121,10 @@ class GroupInterfaceGenerator {
 	};
 	private static final Logger LOGGER = Logger.getLogger(GroupInterfaceGenerator.class.getName());
 	private static final ResourceBundle RESOURCE_BUNDLE = ResourceBundle.getBundle(GroupInterfaceGenerator.class.getName());
+	public static final String COPY_METHOD_NAME = "copy";
+	public static final String COPY_SOURCE_PARAM_NAME = "_source";
+	public static final String COPY_TARGET_PARAM_NAME = "_target";
+	private static final String COPY_ITEM_VAR_NAME = "_item";
 	private final boolean declareBuilderInterface;
 	private final boolean declareModifierInterface;
 	private final JClass overrideCollectionClass;
@@ -157,6 +168,7 @@ class GroupInterfaceGenerator {
 	private final boolean cloneMethodThrows;
 	private final boolean needsCloneMethod;
 	private final boolean needsCopyMethod;
+	private final boolean declareCopyMethod;
 	private final Map<String, List<TypeOutline>> interfacesByClass = new HashMap<>();
 	private final EpisodeBuilder episodeBuilder;
 	private final Enumeration<URL> upstreamEpisodes;
@@ -181,6 +193,7 @@ class GroupInterfaceGenerator {
 		this.needsCloneMethod = deepClonePlugin != null;
 		this.cloneMethodThrows = this.needsCloneMethod && deepClonePlugin.isCloneThrows();
 		this.needsCopyMethod = deepCopyPlugin != null;
+		this.declareCopyMethod = settings.isDeclareCopyMethod() && !this.immutable;
 		this.upstreamEpisodes = upstreamEpisodes;
 		this.episodeBuilder = episodeBuilder;
 	}
@@ -373,6 +386,15 @@ class GroupInterfaceGenerator {
 			removeDummyImplementation(interfaceOutline);
 		}
 
+		if (this.declareCopyMethod) {
+			for (final DefinedInterfaceOutline interfaceOutline : modelGroupInterfaces.values()) {
+				generateCopyMethod(interfaceOutline);
+			}
+			for (final DefinedInterfaceOutline interfaceOutline : attGroupInterfaces.values()) {
+				generateCopyMethod(interfaceOutline);
+			}
+		}
+
 		if (this.declareBuilderInterface) {
 			final Map<String, BuilderOutline> builderOutlines = new HashMap<>();
 			for (final DefinedInterfaceOutline interfaceOutline : modelGroupInterfaces.values()) {
@@ -422,6 +444,68 @@ class GroupInterfaceGenerator {
 		}
 	}
 
+	/**
+	 * Generates a static method copying the properties declared by a group interface, and
+	 * those of its generated super interfaces, between any two implementations of the interface.
+	 * Child objects of generated classes are deep-copied if the copy or clone plugin is active,
+	 * all other values are assigned as they are.
+	 */
+	private void generateCopyMethod(final DefinedInterfaceOutline interfaceOutline) {
+		final JDefinedClass groupInterface = interfaceOutline.getImplClass();
+		final JMethod copyMethod = groupInterface.method(JMod.PUBLIC | JMod.STATIC, this.pluginContext.voidType, GroupInterfaceGenerator.COPY_METHOD_NAME);
+		final JVar sourceParam = copyMethod.param(JMod.FINAL, groupInterface, GroupInterfaceGenerator.COPY_SOURCE_PARAM_NAME);
+		final JVar targetParam = copyMethod.param(JMod.FINAL, groupInterface, GroupInterfaceGenerator.COPY_TARGET_PARAM_NAME);
+		if (this.throwsPropertyVetoException) {
+			copyMethod._throws(PropertyVetoException.class);
+		}
+		final JDocComment javadoc = copyMethod.javadoc();
+		javadoc.append(MessageFormat.format(GroupInterfaceGenerator.RESOURCE_BUNDLE.getString("comment.copy"), groupInterface.name()));
+		javadoc.addParam(sourceParam).append(GroupInterfaceGenerator.RESOURCE_BUNDLE.getString("comment.copy.param.source"));
+		javadoc.addParam(targetParam).append(GroupInterfaceGenerator.RESOURCE_BUNDLE.getString("comment.copy.param.target"));
+
+		final JBlock body = copyMethod.body();
+		body._if(sourceParam.eq(targetParam))._then()._return();
+		for (final TypeOutline superInterface : interfaceOutline.getSuperInterfaces()) {
+			if (superInterface instanceof DefinedInterfaceOutline) {
+				body.add(superInterface.getImplClass().staticInvoke(GroupInterfaceGenerator.COPY_METHOD_NAME).arg(sourceParam).arg(targetParam));
+			}
+		}
+		for (final DefinedPropertyOutline propertyOutline : interfaceOutline.getDeclaredFields()) {
+			final JMethod getter = PluginContext.findGetter(propertyOutline.getFieldOutline());
+			if (getter == null) {
+				continue;
+			}
+			if (propertyOutline.isCollection() && !propertyOutline.isArray()) {
+				final JType elementType = propertyOutline.getElementType();
+				final JVar targetList = body.decl(JMod.FINAL, getter.type(), propertyOutline.getFieldName(), targetParam.invoke(getter));
+				body.add(targetList.invoke("clear"));
+				final JForEach forEach = body.forEach(elementType, GroupInterfaceGenerator.COPY_ITEM_VAR_NAME, sourceParam.invoke(getter));
+				forEach.body().add(targetList.invoke("add").arg(copyValue(forEach.var(), elementType)));
+			} else {
+				final JMethod setter = PluginContext.findSetter(propertyOutline.getFieldOutline());
+				if (setter != null) {
+					if (isDeepCopied(getter.type())) {
+						final JVar value = body.decl(JMod.FINAL, getter.type(), propertyOutline.getFieldName(), sourceParam.invoke(getter));
+						body.add(targetParam.invoke(setter).arg(copyValue(value, getter.type())));
+					} else {
+						body.add(targetParam.invoke(setter).arg(sourceParam.invoke(getter)));
+					}
+				}
+			}
+		}
+	}
+
+	private boolean isDeepCopied(final JType type) {
+		return (this.needsCopyMethod || (this.needsCloneMethod && !this.cloneMethodThrows)) && this.pluginContext.getClassOutline(type) != null;
+	}
+
+	private JExpression copyValue(final JVar value, final JType type) {
+		if (!isDeepCopied(type)) {
+			return value;
+		}
+		return nullSafe(value, value.invoke(this.needsCopyMethod ? this.pluginContext.copyMethodName : this.pluginContext.cloneMethodName));
+	}
+
 	private void removeDummyImplementation(final DefinedInterfaceOutline interfaceOutline) {
 		final var allClasses = this.pluginContext.outline.getClasses(); // save class list here before we remove anything, which will cause an assertion failure
 		final ClassOutline classToRemove = interfaceOutline.getClassOutline();
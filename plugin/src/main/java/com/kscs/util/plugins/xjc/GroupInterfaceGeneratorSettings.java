@@ -31,9 +31,11 @@ import com.kscs.util.jaxb.bindings.Interface;
  */
 public class GroupInterfaceGeneratorSettings extends Interface {
 	private final BuilderGeneratorSettings builderGeneratorSettings;
+	private final boolean declareCopyMethod;
 
-	public GroupInterfaceGeneratorSettings(final boolean declareSetters, final boolean declareBuilderInterface, final String supportInterfaceNameSuffix, final BuilderGeneratorSettings builderGeneratorSettings) {
+	public GroupInterfaceGeneratorSettings(final boolean declareSetters, final boolean declareBuilderInterface, final boolean declareCopyMethod, final String supportInterfaceNameSuffix, final BuilderGeneratorSettings builderGeneratorSettings) {
 		this.builderGeneratorSettings = builderGeneratorSettings;
+		this.declareCopyMethod = declareCopyMethod;
 		setDeclareSetters(declareSetters);
 		setDeclareBuilderInterface(declareBuilderInterface);
 		setSupportInterfaceNameSuffix(supportInterfaceNameSuffix != null && supportInterfaceNameSuffix.isEmpty() ? null : supportInterfaceNameSuffix);
@@ -43,6 +45,10 @@ public class GroupInterfaceGeneratorSettings extends Interface {
 		return this.supportInterfaceNameSuffix != null;
 	}
 
+	public boolean isDeclareCopyMethod() {
+		return this.declareCopyMethod;
+	}
+
 	public BuilderGeneratorSettings getBuilderGeneratorSettings() {
 		return this.builderGeneratorSettings;
 	}
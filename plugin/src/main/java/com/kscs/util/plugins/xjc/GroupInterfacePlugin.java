@@ -31,6 +31,7 @@ import java.util.List;
 
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
 
 import com.kscs.util.plugins.xjc.base.AbstractPlugin;
 import com.kscs.util.plugins.xjc.base.Namespaces;
@@ -53,6 +54,8 @@ public class GroupInterfacePlugin extends AbstractPlugin {
 	@Opt
 	private boolean declareBuilderInterface = true;
 	@Opt
+	private boolean declareCopyMethod = false;
+	@Opt
 	private String supportInterfaceNameSuffix = "Lifecycle";
 	@Opt
 	private String upstreamEpisodeFile = "META-INF/jaxb-interfaces.episode";
@@ -93,7 +96,11 @@ public class GroupInterfacePlugin extends AbstractPlugin {
 	@Override
 	public boolean run(final Outline outline, final Options opt, final ErrorHandler errorHandler)
 			throws SAXException {
-		generate(PluginContext.get(outline, opt, errorHandler));
+		final PluginContext pluginContext = PluginContext.get(outline, opt, errorHandler);
+		if (this.declareCopyMethod && (!this.declareSetters || pluginContext.hasPlugin(ImmutablePlugin.class))) {
+			errorHandler.error(new SAXParseException(getMessage("error.copyMethodSetters"), outline.getModel().getLocator()));
+		}
+		generate(pluginContext);
 		return true;
 	}
 
@@ -120,9 +127,9 @@ public class GroupInterfacePlugin extends AbstractPlugin {
 		final FluentBuilderPlugin fluentBuilderPlugin = pluginContext.findPlugin(FluentBuilderPlugin.class);
 		if (fluentBuilderPlugin != null) {
 			final BuilderGeneratorSettings builderGeneratorSettings = fluentBuilderPlugin.getSettings();
-			return new GroupInterfaceGeneratorSettings(this.declareSetters, this.declareBuilderInterface, this.supportInterfaceNameSuffix, builderGeneratorSettings);
+			return new GroupInterfaceGeneratorSettings(this.declareSetters, this.declareBuilderInterface, this.declareCopyMethod, this.supportInterfaceNameSuffix, builderGeneratorSettings);
 		} else {
-			return new GroupInterfaceGeneratorSettings(this.declareSetters, this.declareBuilderInterface, pluginContext.hasPlugin(ModifierPlugin.class) ? this.supportInterfaceNameSuffix : null, null);
+			return new GroupInterfaceGeneratorSettings(this.declareSetters, this.declareBuilderInterface, this.declareCopyMethod, pluginContext.hasPlugin(ModifierPlugin.class) ? this.supportInterfaceNameSuffix : null, null);
 		}
 	}
 
@@ -63,6 +63,8 @@ public class ImmutablePlugin extends AbstractPlugin {
 	protected String overrideCollectionClass = null;
 	@Opt
 	private String constructorAccess = "public";
+	@Opt
+	private boolean reflectiveMutation = true;
 
 	@Override
 	public String getOptionName() {
@@ -133,6 +135,21 @@ public class ImmutablePlugin extends AbstractPlugin {
 		return true;
 	}
 
+	/**
+	 * @return true if generated copy code may share instances of immutable classes
+	 * between the original and the copy
+	 */
+	public boolean isSharingCopies() {
+		return !this.fake && !this.reflectiveMutation;
+	}
+
+	/**
+	 * @return true if classes are only declared immutable, but not actually made immutable
+	 */
+	public boolean isFake() {
+		return this.fake;
+	}
+
 	String getImmutableFieldName(final PropertyOutline fieldVar) {
 		return fieldVar.getFieldName() + "_RO";
 	}
@@ -24,7 +24,9 @@
 package com.kscs.util.plugins.xjc;
 
 import java.lang.reflect.Method;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import jakarta.xml.bind.JAXBElement;
 import javax.xml.namespace.QName;
@@ -269,6 +271,7 @@ public class MetaPlugin extends AbstractPlugin {
 	@Opt
 	private String visitMethodName = "visit";
 	private boolean fixedAttributeAsConstantProperty;
+	private final Map<ClassOutline, JDefinedClass> metaClasses = new HashMap<>();
 
 	@Override
 	public String getOptionName() {
@@ -309,7 +312,7 @@ public class MetaPlugin extends AbstractPlugin {
 
 	private void generateMetaClass(final PluginContext pluginContext, final ClassOutline classOutline, final ErrorHandler errorHandler) throws SAXException {
 		try {
-			final JDefinedClass metaClass = classOutline.implClass._class(JMod.PUBLIC | JMod.STATIC, this.metaClassName);
+			final JDefinedClass metaClass = getMetaClass(classOutline);
 			final JMethod visitMethod = generateVisitMethod(classOutline);
 			for (final FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
 				if (this.extended) {
@@ -324,6 +327,35 @@ public class MetaPlugin extends AbstractPlugin {
 		}
 	}
 
+	private JDefinedClass getMetaClass(final ClassOutline classOutline) throws JClassAlreadyExistsException {
+		JDefinedClass metaClass = this.metaClasses.get(classOutline);
+		if (metaClass == null) {
+			metaClass = classOutline.implClass._class(JMod.PUBLIC | JMod.STATIC, this.metaClassName);
+			this.metaClasses.put(classOutline, metaClass);
+		}
+		return metaClass;
+	}
+
+	/**
+	 * Returns a reference to the static {@link PropertyInfo} field generated for a property,
+	 * regardless of whether this plugin has already run.
+	 * @return The field reference, or <code>null</code> if no {@link PropertyInfo} is generated
+	 * for the property, or if its meta class cannot be generated.
+	 */
+	JExpression getPropertyInfoRef(final PluginContext pluginContext, final FieldOutline fieldOutline) {
+		if (!this.extended) {
+			return null;
+		}
+		try {
+			final String constantName = getConstantName(fieldOutline);
+			final String propertyName = constantName != null ? constantName : new DefinedPropertyOutline(fieldOutline).getFieldName();
+			final String metaFieldName = this.camelCase ? propertyName : pluginContext.outline.getModel().getNameConverter().toConstantName(propertyName);
+			return getMetaClass(fieldOutline.parent()).staticRef(metaFieldName);
+		} catch (final JClassAlreadyExistsException e) {
+			return null;
+		}
+	}
+
 	private void generateNameOnlyMetaField(final PluginContext pluginContext, final JDefinedClass metaClass, final FieldOutline fieldOutline) {
 		final PropertyOutline propertyOutline = new DefinedPropertyOutline(fieldOutline);
 		final String constantName = getConstantName(fieldOutline);
@@ -48,9 +48,11 @@ public class ModifierGenerator {
 	public static final String MODIFIER_CACHE_FIELD_NAME = "__cachedModifier__";
 	public static final String SETTER_PREFIX = "set";
 	public static final String GETTER_PREFIX = "get";
+	private final PluginContext pluginContext;
 	private final DefinedTypeOutline classOutline;
 	private final JDefinedClass modifierClass;
 	private final boolean implement;
+	private final boolean lazyCopy;
 
 	public static void generateClass(final PluginContext pluginContext, final DefinedTypeOutline classOutline, final String modifierClassName, final String modifierInterfaceName, final Collection<TypeOutline> suerInterfaces, final String modifierMethodName) throws JClassAlreadyExistsException {
 		new ModifierGenerator(pluginContext, classOutline, modifierClassName, modifierInterfaceName, suerInterfaces, modifierMethodName, true).generatePropertyAccessors();
@@ -65,9 +67,12 @@ public class ModifierGenerator {
 	}
 
 	private ModifierGenerator(final PluginContext pluginContext, final DefinedTypeOutline classOutline, final String modifierClassName, final String modifierInterfaceName, final Collection<TypeOutline> interfaces, final String modifierMethodName, final boolean implement) throws JClassAlreadyExistsException {
+		this.pluginContext = pluginContext;
 		this.classOutline = classOutline;
 		final JDefinedClass definedClass = classOutline.getImplClass();
 		this.implement = implement;
+		final DeepCopyPlugin deepCopyPlugin = pluginContext.findPlugin(DeepCopyPlugin.class);
+		this.lazyCopy = deepCopyPlugin != null && deepCopyPlugin.isLazy();
 		this.modifierClass = definedClass._class(JMod.PUBLIC, modifierClassName, classOutline.getImplClass().getClassType());
 		if(interfaces != null) {
 			for (final TypeOutline interfaceOutline : interfaces) {
@@ -127,6 +132,9 @@ public class ModifierGenerator {
 			final JMethod modifier = this.modifierClass.method(JMod.PUBLIC, fieldVar.type(), ModifierGenerator.GETTER_PREFIX + fieldOutline.getBaseName());
 			if(this.implement) {
 				final JFieldRef fieldRef = new NestedThisRef(this.classOutline.getImplClass()).ref(fieldVar);
+				if (this.lazyCopy && DeepCopyGenerator.isCopiedLazily(this.pluginContext, fieldVar)) {
+					modifier.body().add(new NestedThisRef(this.classOutline.getImplClass()).invoke(DeepCopyGenerator.MATERIALIZE_METHOD_PREFIX + fieldOutline.getBaseName()));
+				}
 				final JConditional ifNull = modifier.body()._if(fieldRef.eq(JExpr._null()));
 				ifNull._then().assign(fieldRef, JExpr._new(this.classOutline.getImplClass().owner().ref(ArrayList.class).narrow(fieldOutline.getElementType())));
 				modifier.body()._return(fieldRef);
@@ -24,6 +24,8 @@
 package com.kscs.util.plugins.xjc;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
 
 import com.kscs.util.jaxb.PropertyTree;
@@ -31,13 +33,15 @@ import com.kscs.util.jaxb.PropertyTreeUse;
 import com.kscs.util.plugins.xjc.base.PropertyDirectoryResourceBundle;
 import com.kscs.util.plugins.xjc.codemodel.JTypedInvocation;
 import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JDocComment;
 import com.sun.codemodel.JExpr;
 import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
-import com.sun.codemodel.JOp;
 import com.sun.codemodel.JVar;
 
 /**
@@ -47,18 +51,24 @@ class PartialCopyGenerator implements CopyGenerator {
 	public static final ResourceBundle RESOURCE_BUNDLE = PropertyDirectoryResourceBundle.getInstance(PartialCopyGenerator.class);
 	public static final String PROPERTY_TREE_PARAM_NAME = "_propertyTree";
 	public static final String PROPERTY_TREE_USE_PARAM_NAME = "_propertyTreeUse";
+	public static final String PROPERTY_LAYOUT_FIELD_NAME = "__propertyLayout";
+	public static final String COMPILED_PROPERTY_TREE_VAR_NAME = "_compiledPropertyTree";
 
 	private final PluginContext pluginContext;
+	private final PropertyLayout propertyLayout;
 	private final JVar propertyTreeUseParam;
 	private final JVar propertyTreeParam;
 	private final JMethod copyMethod;
+	private JBlock compiledTreeBlock = null;
+	private JVar compiledTreeVar = null;
 
-	public PartialCopyGenerator(final PluginContext pluginContext, final JMethod copyMethod) {
-		this(pluginContext, copyMethod, PartialCopyGenerator.PROPERTY_TREE_PARAM_NAME, PartialCopyGenerator.PROPERTY_TREE_USE_PARAM_NAME);
+	public PartialCopyGenerator(final PluginContext pluginContext, final JDefinedClass layoutClass, final JMethod copyMethod) {
+		this(pluginContext, layoutClass, copyMethod, PartialCopyGenerator.PROPERTY_TREE_PARAM_NAME, PartialCopyGenerator.PROPERTY_TREE_USE_PARAM_NAME);
 	}
 
-	public PartialCopyGenerator(final PluginContext pluginContext, final JMethod copyMethod, final String propertyTreeParamName, final String propertyTreeUseParamName) {
+	public PartialCopyGenerator(final PluginContext pluginContext, final JDefinedClass layoutClass, final JMethod copyMethod, final String propertyTreeParamName, final String propertyTreeUseParamName) {
 		this.pluginContext = pluginContext;
+		this.propertyLayout = pluginContext.getPropertyLayout(layoutClass);
 		this.copyMethod = copyMethod;
 		this.propertyTreeParam = copyMethod.param(JMod.FINAL, PropertyTree.class, propertyTreeParamName);
 		this.propertyTreeUseParam = copyMethod.param(JMod.FINAL, PropertyTreeUse.class, propertyTreeUseParamName);
@@ -95,14 +105,69 @@ class PartialCopyGenerator implements CopyGenerator {
 		return this.copyMethod;
 	}
 
+	/**
+	 * Declares the compiled form of the property tree parameter in the given block,
+	 * unless it has already been declared there.
+	 */
+	private JVar getCompiledTreeVar(final JBlock body) {
+		if (this.compiledTreeBlock != body) {
+			this.compiledTreeBlock = body;
+			this.compiledTreeVar = body.decl(JMod.FINAL,
+					this.pluginContext.codeModel.ref(PropertyTree.Compiled.class),
+					PartialCopyGenerator.COMPILED_PROPERTY_TREE_VAR_NAME,
+					this.pluginContext.cloneGraphClass.staticInvoke("compile").arg(this.propertyTreeParam).arg(this.propertyLayout.getFieldRef()));
+		}
+		return this.compiledTreeVar;
+	}
+
+	/**
+	 * Static {@link PropertyTree.Layout} field of a generated class, assigning ordinals
+	 * to the property names in the order in which copy code for them is generated.
+	 */
+	static class PropertyLayout {
+		private final JDefinedClass layoutClass;
+		private final JClass layoutType;
+		private final JInvocation initializer;
+		private final List<String> propertyNames = new ArrayList<>();
+		private JFieldVar field = null;
+
+		PropertyLayout(final PluginContext pluginContext, final JDefinedClass layoutClass) {
+			this.layoutClass = layoutClass;
+			this.layoutType = pluginContext.codeModel.ref(PropertyTree.Layout.class);
+			this.initializer = JExpr._new(this.layoutType);
+		}
+
+		JExpression getFieldRef() {
+			if (this.field == null) {
+				final int mods = this.layoutClass.isInterface() ? JMod.STATIC | JMod.FINAL : JMod.PRIVATE | JMod.STATIC | JMod.FINAL;
+				this.field = this.layoutClass.field(mods, this.layoutType, PartialCopyGenerator.PROPERTY_LAYOUT_FIELD_NAME, this.initializer);
+			}
+			return this.layoutClass.staticRef(this.field);
+		}
+
+		int ordinal(final String propertyName) {
+			final int ordinal = this.propertyNames.indexOf(propertyName);
+			if (ordinal >= 0) {
+				return ordinal;
+			}
+			this.propertyNames.add(propertyName);
+			this.initializer.arg(JExpr.lit(propertyName));
+			return this.propertyNames.size() - 1;
+		}
+	}
+
 	public class TreeVarGenerator implements PropertyTreeVarGenerator {
+		private final JVar compiledTreeVar;
+		private final int ordinal;
 		private final JVar fieldPathVar;
 
 		public TreeVarGenerator(final JBlock body, final String fieldName) {
+			this.compiledTreeVar = getCompiledTreeVar(body);
+			this.ordinal = PartialCopyGenerator.this.propertyLayout.ordinal(fieldName);
 			this.fieldPathVar = body.decl(JMod.FINAL,
 					PartialCopyGenerator.this.pluginContext.codeModel._ref(PropertyTree.class),
 					fieldName + "PropertyTree",
-					JOp.cond(PartialCopyGenerator.this.propertyTreeParam.eq(JExpr._null()), JExpr._null(),PartialCopyGenerator.this.propertyTreeParam.invoke("get").arg(JExpr.lit(fieldName)))
+					this.compiledTreeVar.invoke("get").arg(JExpr.lit(this.ordinal))
 			);
 		}
 
@@ -124,15 +189,11 @@ class PartialCopyGenerator implements CopyGenerator {
 
 		@Override
 		public JBlock generateEnclosingBlock(final JBlock body) {
-			return  body._if(getIncludeCondition(this.fieldPathVar))._then();
+			return  body._if(getIncludeCondition())._then();
 		}
 
-		private JExpression getIncludeCondition(final JVar fieldPathVar) {
-			return JOp.cond(
-					PartialCopyGenerator.this.propertyTreeUseParam.eq(PartialCopyGenerator.this.pluginContext.includeConst),
-					fieldPathVar.ne(JExpr._null()),
-					fieldPathVar.eq(JExpr._null()).cor(fieldPathVar.invoke("isLeaf").not())
-			);
+		private JExpression getIncludeCondition() {
+			return this.compiledTreeVar.invoke("isCopied").arg(JExpr.lit(this.ordinal)).arg(PartialCopyGenerator.this.propertyTreeUseParam);
 		}
 	}
 
@@ -46,6 +46,7 @@ import org.xml.sax.SAXException;
 
 import com.kscs.util.jaxb.Buildable;
 import com.kscs.util.jaxb.Copyable;
+import com.kscs.util.jaxb.ParallelCopy;
 import com.kscs.util.jaxb.PartialCopyable;
 import com.kscs.util.jaxb.PropertyTree;
 import com.kscs.util.jaxb.PropertyTreeUse;
@@ -58,6 +59,7 @@ import com.sun.codemodel.JCatchBlock;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JExpr;
 import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JFieldVar;
@@ -65,6 +67,7 @@ import com.sun.codemodel.JForEach;
 import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JJavaName;
 import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
 import com.sun.codemodel.JPackage;
 import com.sun.codemodel.JTryBlock;
 import com.sun.codemodel.JType;
@@ -148,6 +151,8 @@ public class PluginContext extends Plugin {
 	private final JClass collectionsClass;
 	private final JClass arraysClass;
 	private final Map<String, ClassOutline> classes;
+	private final Map<JDefinedClass, PartialCopyGenerator.PropertyLayout> propertyLayouts = new HashMap<>();
+	private final Map<ClassOutline, List<Projection>> projections = new HashMap<>();
 	private final Map<String, EnumOutline> enums;
 
 	private PluginContext(final Outline outline, final Options opt, final ErrorHandler errorHandler) {
@@ -365,6 +370,20 @@ public class PluginContext extends Plugin {
 		return getClassOutline(type) != null && !((JClass) type).isAbstract();
 	}
 
+	/**
+	 * @param type A property or element type
+	 * @return true if values of the type are instances of classes generated immutable,
+	 * and copies of an object may share them with the original instead of copying them.
+	 */
+	public boolean isShareable(final JType type) {
+		final ImmutablePlugin immutablePlugin = findPlugin(ImmutablePlugin.class);
+		if (immutablePlugin == null || !immutablePlugin.isSharingCopies() || hasPlugin(ModifierPlugin.class)) {
+			return false;
+		}
+		final MetaPlugin metaPlugin = findPlugin(MetaPlugin.class);
+		return (metaPlugin == null || !metaPlugin.isExtended()) && getClassOutline(type) != null;
+	}
+
 	public JExpression castOnDemand(final JType fieldType, final JExpression expression) {
 		return this.classes.containsKey(fieldType.fullName()) ? expression : JExpr.cast(fieldType, expression);
 	}
@@ -384,6 +403,34 @@ public class PluginContext extends Plugin {
 		return ifNull._else().forEach(sourceElementType, "_item", source);
 	}
 
+	/**
+	 * Generates code that fills the target collection with copies of the source elements
+	 * using {@link ParallelCopy}, which copies in parallel if the source has at least
+	 * <code>threshold</code> elements.
+	 * @return The copy method of the generated element copier. Its body must return
+	 * the copy of its only parameter.
+	 */
+	public JMethod parallelLoop(final JBlock block, final JExpression source, final JClass elementType, final JAssignmentTarget target, final FieldOutline fieldOutline, final int threshold, final JClass exceptionType) {
+		final JClass mutableListClass = extractMutableListClass(fieldOutline);
+		final JConditional ifNull = block._if(source.eq(JExpr._null()));
+		ifNull._then().assign(target, JExpr._null());
+		final JInvocation newList = JExpr._new(mutableListClass.narrow(elementType));
+		if (this.arrayListClass.equals(mutableListClass)) {
+			newList.arg(source.invoke("size"));
+		}
+		ifNull._else().assign(target, newList);
+		final JClass copierInterface = this.codeModel.ref(ParallelCopy.Copier.class).narrow(elementType, exceptionType);
+		final JDefinedClass copierClass = this.codeModel.anonymousClass(copierInterface);
+		final JMethod copyMethod = copierClass.method(JMod.PUBLIC, elementType, "copy");
+		copyMethod.annotate(Override.class);
+		copyMethod.param(JMod.FINAL, elementType, "_item");
+		if (!this.codeModel.ref(RuntimeException.class).equals(exceptionType)) {
+			copyMethod._throws(exceptionType);
+		}
+		ifNull._else().add(this.codeModel.ref(ParallelCopy.class).staticInvoke("copyInto").arg(source).arg(target).arg(JExpr.lit(threshold)).arg(JExpr._new(copierClass)));
+		return copyMethod;
+	}
+
 	public JInvocation newArrayList(final JClass mutableListClass, final JClass elementType) {
 		return JExpr._new(mutableListClass.narrow(elementType));
 	}
@@ -417,8 +464,32 @@ public class PluginContext extends Plugin {
 		return invoke("super");
 	}
 
-	public CopyGenerator createCopyGenerator(final JMethod method, final boolean partial) {
-		return partial ? new PartialCopyGenerator(this, method) : new FullCopyGenerator();
+	/**
+	 * @param layoutClass The class declaring the properties to be copied, which will
+	 *                    hold the property layout used to compile property trees
+	 * @param method The copy method
+	 * @param partial Whether to generate partial copy code
+	 * @return A copy generator for the method
+	 */
+	public CopyGenerator createCopyGenerator(final JDefinedClass layoutClass, final JMethod method, final boolean partial) {
+		return partial ? new PartialCopyGenerator(this, layoutClass, method) : new FullCopyGenerator();
+	}
+
+	PartialCopyGenerator.PropertyLayout getPropertyLayout(final JDefinedClass layoutClass) {
+		return this.propertyLayouts.computeIfAbsent(layoutClass, c -> new PartialCopyGenerator.PropertyLayout(this, c));
+	}
+
+	/**
+	 * Reads the projections declared on a class in the binding customizations.
+	 * Declarations are read and checked only once, even if several plugins use them.
+	 */
+	List<Projection> getDeclaredProjections(final ClassOutline classOutline) throws SAXException {
+		List<Projection> declaredProjections = this.projections.get(classOutline);
+		if (declaredProjections == null) {
+			declaredProjections = Projection.read(classOutline, this.errorHandler);
+			this.projections.put(classOutline, declaredProjections);
+		}
+		return declaredProjections;
 	}
 
 	public void writeSourceFile(final Class<?> classToBeWritten) {
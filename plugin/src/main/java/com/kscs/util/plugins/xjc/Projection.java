@@ -0,0 +1,337 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.plugins.xjc;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+import com.kscs.util.jaxb.PropertyTree;
+import com.kscs.util.plugins.xjc.base.Namespaces;
+import com.kscs.util.plugins.xjc.base.PluginUtil;
+import com.kscs.util.plugins.xjc.codemodel.JTypedInvocation;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JDocComment;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JInvocation;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.model.CPluginCustomization;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.FieldOutline;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * A named projection of a generated class, declared in the binding file by a
+ * <code>&lt;kscs:projection name="summary" include="name,address.city"/&gt;</code>
+ * customization on the complex type of the class. The <code>include</code>
+ * attribute lists the projected properties in the syntax of {@link PropertyTree#parse(String)}.
+ * Copy methods generated for a projection copy the selected fields one by one,
+ * so they don't have to evaluate a property tree at runtime.
+ */
+class Projection {
+	public static final String CUSTOMIZATION_NAME = "projection";
+	public static final String NAME_ATTRIBUTE = "name";
+	public static final String INCLUDE_ATTRIBUTE = "include";
+	public static final String COPY_AS_METHOD_PREFIX = "copyAs";
+	public static final String COPY_TO_METHOD_SUFFIX = "To";
+	public static final String COPY_OF_METHOD_SUFFIX = "Of";
+	private static final ResourceBundle RESOURCE_BUNDLE = ResourceBundle.getBundle(Projection.class.getName());
+	private final ClassOutline declaringClass;
+	private final String name;
+	private final String include;
+	private final PropertyTree propertyTree;
+	private final Set<String> propertyNames;
+
+	private Projection(final ClassOutline declaringClass, final String name, final String include, final PropertyTree propertyTree, final Set<String> propertyNames) {
+		this.declaringClass = declaringClass;
+		this.name = name;
+		this.include = include;
+		this.propertyTree = propertyTree;
+		this.propertyNames = propertyNames;
+	}
+
+	static boolean isCustomizationTagName(final String nsUri, final String localName) {
+		return Namespaces.KSCS_BINDINGS_NS.equals(nsUri) && Projection.CUSTOMIZATION_NAME.equals(localName);
+	}
+
+	/**
+	 * Reads the projections declared on the given class, reporting
+	 * malformed declarations and references to unknown properties.
+	 */
+	static List<Projection> read(final ClassOutline classOutline, final ErrorHandler errorHandler) throws SAXException {
+		final List<Projection> projections = new ArrayList<>();
+		for (final CPluginCustomization customization : classOutline.target.getCustomizations()) {
+			if (isCustomizationTagName(customization.element.getNamespaceURI(), customization.element.getLocalName())) {
+				customization.markAsAcknowledged();
+				final String name = customization.element.getAttribute(Projection.NAME_ATTRIBUTE).trim();
+				final String include = customization.element.getAttribute(Projection.INCLUDE_ATTRIBUTE).trim();
+				if (name.isEmpty() || !isIdentifier(name)) {
+					errorHandler.error(new SAXParseException(getMessage("error.name", name, classOutline.implClass.name()), customization.locator));
+					continue;
+				}
+				final PropertyTree propertyTree;
+				try {
+					propertyTree = PropertyTree.parse(include);
+				} catch (final IllegalArgumentException e) {
+					errorHandler.error(new SAXParseException(getMessage("error.include", include, name, e.getMessage()), customization.locator, e));
+					continue;
+				}
+				final Set<String> propertyNames = new LinkedHashSet<>();
+				for (final String path : include.split(",")) {
+					final String propertyName = path.split("\\.")[0].trim();
+					propertyNames.add(propertyName);
+					if (findField(classOutline, propertyName) == null) {
+						errorHandler.error(new SAXParseException(getMessage("error.unknownProperty", propertyName, name, classOutline.implClass.name()), customization.locator));
+					}
+				}
+				projections.add(new Projection(classOutline, name, include, propertyTree, propertyNames));
+			}
+		}
+		return projections;
+	}
+
+	/**
+	 * Finds the projections that apply to the given class, i.e. those declared on the
+	 * class itself or on one of its superclasses. A projection declared on a class
+	 * replaces the one with the same name declared on a superclass.
+	 */
+	static Map<String, Projection> getEffective(final PluginContext pluginContext, final ClassOutline classOutline) throws SAXException {
+		final Map<String, Projection> projections = new LinkedHashMap<>();
+		for (final ClassOutline current : hierarchy(classOutline)) {
+			for (final Projection projection : pluginContext.getDeclaredProjections(current)) {
+				projections.put(projection.name, projection);
+			}
+		}
+		return projections;
+	}
+
+	/**
+	 * @return The given class and its generated superclasses, starting with the topmost one.
+	 */
+	static List<ClassOutline> hierarchy(final ClassOutline classOutline) {
+		final Deque<ClassOutline> hierarchy = new ArrayDeque<>();
+		for (ClassOutline current = classOutline; current != null; current = current.getSuperClass()) {
+			hierarchy.push(current);
+		}
+		return new ArrayList<>(hierarchy);
+	}
+
+	private static FieldOutline findField(final ClassOutline classOutline, final String fieldName) {
+		for (ClassOutline current = classOutline; current != null; current = current.getSuperClass()) {
+			for (final FieldOutline fieldOutline : current.getDeclaredFields()) {
+				final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+				if (field != null && field.name().equals(fieldName)) {
+					return fieldOutline;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static boolean isIdentifier(final String name) {
+		if (!Character.isJavaIdentifierStart(name.charAt(0))) {
+			return false;
+		}
+		for (int i = 1; i < name.length(); i++) {
+			if (!Character.isJavaIdentifierPart(name.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	ClassOutline getDeclaringClass() {
+		return this.declaringClass;
+	}
+
+	String getName() {
+		return this.name;
+	}
+
+	String getInclude() {
+		return this.include;
+	}
+
+	/**
+	 * @return <code>prefix</code> and <code>suffix</code> joined by the capitalized projection name,
+	 * e.g. <code>copyAsSummaryTo</code>
+	 */
+	String getMethodName(final String prefix, final String suffix) {
+		return prefix + Character.toUpperCase(this.name.charAt(0)) + this.name.substring(1) + suffix;
+	}
+
+	/**
+	 * @return <code>true</code> if the projection selects only parts of the value of a property
+	 */
+	boolean isNested() {
+		for (final String propertyName : this.propertyNames) {
+			if (!this.propertyTree.get(propertyName).isLeaf()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The copyable fields declared by the given class that are selected by this projection
+	 */
+	List<FieldOutline> getSelectedFields(final ClassOutline classOutline) {
+		final List<FieldOutline> fields = new ArrayList<>();
+		for (final FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
+			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+			if (field != null && (field.mods().getValue() & (JMod.FINAL | JMod.STATIC)) == 0 && this.propertyNames.contains(field.name())) {
+				fields.add(fieldOutline);
+			}
+		}
+		return fields;
+	}
+
+	/**
+	 * @return The sub-trees this projection selects of the fields declared by the given class
+	 */
+	Map<String, PropertyTree> getSelection(final ClassOutline classOutline) {
+		final Map<String, PropertyTree> selection = new LinkedHashMap<>();
+		for (final FieldOutline fieldOutline : getSelectedFields(classOutline)) {
+			final String fieldName = PluginUtil.getDeclaredField(fieldOutline).name();
+			selection.put(fieldName, this.propertyTree.get(fieldName));
+		}
+		return Collections.unmodifiableMap(selection);
+	}
+
+	/**
+	 * Creates a copy generator that copies the values of selected leaf properties completely,
+	 * and passes a constant sub-tree with {@link com.kscs.util.jaxb.PropertyTreeUse#INCLUDE}
+	 * to the partial copy methods of nested properties.
+	 * @param constantClass The class in which to declare the sub-tree constants
+	 */
+	CopyGenerator createCopyGenerator(final PluginContext pluginContext, final JDefinedClass constantClass) {
+		return new ProjectionCopyGenerator(pluginContext, constantClass);
+	}
+
+	private JExpression getSubTreeConstant(final PluginContext pluginContext, final JDefinedClass constantClass, final String fieldName) {
+		if (this.propertyTree.get(fieldName).isLeaf()) {
+			return null;
+		}
+		final String constantName = "__" + this.name + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1) + "PropertyTree";
+		JFieldVar constant = constantClass.fields().get(constantName);
+		if (constant == null) {
+			constant = constantClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, PropertyTree.class, constantName,
+					pluginContext.cloneGraphClass.staticInvoke("parse").arg(JExpr.lit(this.include)).invoke("get").arg(JExpr.lit(fieldName)));
+		}
+		return constantClass.staticRef(constant);
+	}
+
+	static String getMessage(final String resourceKey, final Object... args) {
+		return MessageFormat.format(Projection.RESOURCE_BUNDLE.getString(resourceKey), args);
+	}
+
+	private class ProjectionCopyGenerator implements CopyGenerator {
+		private final PluginContext pluginContext;
+		private final JDefinedClass constantClass;
+
+		ProjectionCopyGenerator(final PluginContext pluginContext, final JDefinedClass constantClass) {
+			this.pluginContext = pluginContext;
+			this.constantClass = constantClass;
+		}
+
+		@Override
+		public void generatePartialArgs(final JDocComment javadoc) {
+		}
+
+		@Override
+		public PropertyTreeVarGenerator createPropertyTreeVarGenerator(final JBlock body, final String fieldName) {
+			final JExpression subTree = getSubTreeConstant(this.pluginContext, this.constantClass, fieldName);
+			final JVar subTreeVar = subTree == null ? null : body.decl(JMod.FINAL, this.pluginContext.codeModel.ref(PropertyTree.class), fieldName + "PropertyTree", subTree);
+			return new SubTreeGenerator(subTreeVar, this.pluginContext.includeConst);
+		}
+
+		@Override
+		public JVar getPropertyTreeUseParam() {
+			return null;
+		}
+
+		@Override
+		public JVar getPropertyTreeParam() {
+			return null;
+		}
+
+		@Override
+		public JTypedInvocation generatePartialArgs(final JTypedInvocation invocation) {
+			return invocation;
+		}
+	}
+
+	/**
+	 * Appends the sub-tree of a nested property to its copy invocations. A property
+	 * selected as a whole has no sub-tree, so immutable values are shared as a whole.
+	 * Otherwise, the sub-tree variable makes the copy code copy them partially, too.
+	 */
+	private static class SubTreeGenerator implements PropertyTreeVarGenerator {
+		private final JVar subTree;
+		private final JExpression propertyTreeUse;
+
+		SubTreeGenerator(final JVar subTree, final JExpression propertyTreeUse) {
+			this.subTree = subTree;
+			this.propertyTreeUse = propertyTreeUse;
+		}
+
+		@Override
+		public JVar getPropertyTreeVar() {
+			return this.subTree;
+		}
+
+		@Override
+		public JExpression generatePartialArgs(final JExpression expression) {
+			if (this.subTree == null) {
+				return expression;
+			} else if (expression instanceof JInvocation) {
+				return ((JInvocation)expression).arg(this.subTree).arg(this.propertyTreeUse);
+			} else if (expression instanceof JTypedInvocation) {
+				return ((JTypedInvocation)expression).arg(this.subTree).arg(this.propertyTreeUse);
+			} else {
+				return expression;
+			}
+		}
+
+		@Override
+		public JBlock generateEnclosingBlock(final JBlock body) {
+			return body;
+		}
+	}
+}
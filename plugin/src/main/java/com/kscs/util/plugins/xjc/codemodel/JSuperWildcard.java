@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.plugins.xjc.codemodel;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JFormatter;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JTypeVar;
+
+/**
+ * Lower-bounded wildcard type "? super T", which codemodel itself
+ * only supports with an upper bound.
+ */
+public class JSuperWildcard extends JClass {
+	private final JClass bound;
+
+	public JSuperWildcard(final JClass bound) {
+		super(bound.owner());
+		this.bound = bound;
+	}
+
+	@Override
+	public String fullName() {
+		return "? super " + this.bound.fullName();
+	}
+
+	@Override
+	public String name() {
+		return "? super " + this.bound.name();
+	}
+
+	@Override
+	public JPackage _package() {
+		return null;
+	}
+
+	@Override
+	public JClass _extends() {
+		return owner().ref(Object.class);
+	}
+
+	@Override
+	public Iterator<JClass> _implements() {
+		return Collections.<JClass>emptyList().iterator();
+	}
+
+	@Override
+	public boolean isInterface() {
+		return false;
+	}
+
+	@Override
+	public boolean isAbstract() {
+		return false;
+	}
+
+	@Override
+	protected JClass substituteParams(final JTypeVar[] variables, final List<JClass> bindings) {
+		return this;
+	}
+
+	@Override
+	public void generate(final JFormatter f) {
+		f.p("? super").g(this.bound);
+	}
+}
@@ -23,6 +23,7 @@
  */
 package com.kscs.util.test;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -33,12 +34,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.tools.ToolProvider;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.kscs.util.jaxb.BoundList;
 import com.kscs.util.plugins.xjc.GroupInterfaceDirectStrategy;
 import com.kscs.util.plugins.xjc.GroupInterfaceDummyStrategy;
 import com.kscs.util.plugins.xjc.GroupInterfaceModelProcessingStrategy;
@@ -117,10 +120,23 @@ public class PluginRunTest {
 	}
 
 	private void compileTestCode(final String sourceSubDirectory) throws IOException {
-		final var classpath = new ClassGraph().getClasspathFiles();
+		compileTestCode(sourceSubDirectory, new ClassGraph().getClasspathFiles());
+	}
+
+	/**
+	 * Compiles the generated code without the runtime library on the classpath,
+	 * so the tool classes written by the plugins must be complete by themselves.
+	 */
+	private void compileStandaloneTestCode(final String sourceSubDirectory) throws Exception {
+		final var runtimeLocation = new File(BoundList.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsoluteFile();
+		compileTestCode(sourceSubDirectory, new ClassGraph().getClasspathFiles().stream()
+				.filter(file -> !file.getAbsoluteFile().equals(runtimeLocation))
+				.collect(Collectors.toList()));
+	}
 
+	private void compileTestCode(final String sourceSubDirectory, final List<File> classpath) throws IOException {
 		final var args = new ArrayList<>(Arrays.asList(
-				"-classpath", classpath.stream().map(java.io.File::toString).reduce((s1, s2) -> s1 + ":" + s2).orElse(""),
+				"-classpath", classpath.stream().map(File::toString).reduce((s1, s2) -> s1 + ":" + s2).orElse(""),
 				"-d", this.compiledCodeDir.resolve(sourceSubDirectory).toString()
 		));
 		try(final var s = Files.walk(this.generatedSourcesDir.resolve(sourceSubDirectory))) {
@@ -136,6 +152,12 @@ public class PluginRunTest {
 		compileTestCode(subDir);
 	}
 
+	public void generateAndCompileStandalone(final String subDir, final String... pluginArgs) throws Exception {
+		clearOutputFor(subDir);
+		runPlugin(subDir, pluginArgs);
+		compileStandaloneTestCode(subDir);
+	}
+
 	@Test
 	public void testGenerateSiri() throws Exception {
 		generateAndCompile("siri",
@@ -249,6 +271,48 @@ public class PluginRunTest {
 				);
 	}
 	@Test
+	public void testGenerateProjections() throws Exception {
+		generateAndCompile("projections", "-b", inFile("binding-config.xjb"),
+				"-b", inFile("binding-config-projection.xjb"),
+				inFile("jaxb2-plugin-test.xsd"),
+				"-Xclone",
+				"-Xcopy",
+				"-Xfluent-builder",
+				"-fluent-builder.generateTools=n"
+				);
+	}
+	@Test
+	public void testGenerateConstrainedProperties() throws Exception {
+		generateAndCompileStandalone("constrained",
+				inFile("jaxb2-plugin-test.xsd"),
+				"-Xconstrained-properties"
+				);
+	}
+	@Test
+	public void testGenerateConstrainedPropertiesLazySupport() throws Exception {
+		generateAndCompileStandalone("constrainedLazy",
+				inFile("jaxb2-plugin-test.xsd"),
+				"-Xconstrained-properties",
+				"-constrained-properties.lazySupport=y"
+				);
+	}
+	@Test
+	public void testGenerateConstrainedPropertiesAsyncDispatch() throws Exception {
+		generateAndCompileStandalone("constrainedAsync",
+				inFile("jaxb2-plugin-test.xsd"),
+				"-Xconstrained-properties",
+				"-constrained-properties.asyncDispatch=y"
+				);
+	}
+	@Test
+	public void testGenerateConstrainedPropertiesConcurrentLists() throws Exception {
+		generateAndCompileStandalone("constrainedConcurrent",
+				inFile("jaxb2-plugin-test.xsd"),
+				"-Xconstrained-properties",
+				"-constrained-properties.concurrentLists=y"
+				);
+	}
+	@Test
 	public void testGroupInterfaceDummy() throws Exception {
 		System.setProperty(GroupInterfaceModelProcessingStrategy.class.getName(), GroupInterfaceDummyStrategy.class.getName());
 		generateAndCompile("gidummy",
@@ -288,6 +352,16 @@ public class PluginRunTest {
 				);
 	}
 	@Test
+	public void testGroupInterfaceCopy() throws Exception {
+		System.setProperty(GroupInterfaceModelProcessingStrategy.class.getName(), GroupInterfaceDirectStrategy.class.getName());
+		generateAndCompile("gicopy",
+				inFile("group-copy-test.xsd"),
+				"-Xgroup-contract",
+				"-group-contract.declareCopyMethod=y",
+				"-Xcopy"
+				);
+	}
+	@Test
 	public void testGroupInterfaceCustom() throws Exception {
 		System.setProperty(GroupInterfaceModelProcessingStrategy.class.getName(), GroupInterfaceDirectStrategy.class.getName());
 		generateAndCompile("gicustom",
@@ -0,0 +1,48 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+/**
+ * Ownership marker for objects created by a standalone builder.
+ * Such an object isn't attached to any parent yet, so a builder
+ * adopting it into a collection may take it over as it is instead
+ * of copying it. Every object can be adopted at most once, objects
+ * obtained in any other way are considered attached and must be copied.
+ * Generated setters and builders claim the objects they attach, code
+ * adding an object to a list returned by a getter must call
+ * {@link #adopt()} itself.
+ */
+public interface Adoptable {
+	/**
+	 * Transfers ownership of this object to the caller, if it isn't
+	 * attached to a parent yet. This is atomic, so only one caller
+	 * can ever own the object.
+	 *
+	 * @return <code>true</code> if the caller now owns this object and
+	 * may attach it without copying, <code>false</code> if it is already
+	 * owned by another parent.
+	 */
+	boolean adopt();
+}
@@ -0,0 +1,170 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Created by jaxb-rich-contract-plugin.
+ * {@link BoundListProxy} that notifies {@link CollectionChangeListener}s on an
+ * {@link OrderedExecutor} instead of the calling thread. Vetoable listeners are still
+ * called synchronously. If further changes are made before a pending event
+ * has been delivered, they are merged into a single {@link CollectionChangeEventType#BATCH} event.
+ * Modifications through this proxy are synchronized on the proxy instance.
+ * To deliver collection and property change events of an object in the order
+ * they occurred, pass the object's {@link AsyncPropertyChangeSupport} as executor.
+ * Changes are then only merged as long as no other event has been fired in between.
+ */
+public class AsyncBoundListProxy<E> extends BoundListProxy<E> {
+	private final Executor executor;
+	private PendingChange pendingChange = null;
+
+	public AsyncBoundListProxy(final List<E> list) {
+		this(list, null, null);
+	}
+
+	public AsyncBoundListProxy(final List<E> list, final ChangeBatchOwner changeBatchOwner, final String propertyName) {
+		this(list, changeBatchOwner, propertyName, new OrderedExecutor());
+	}
+
+	/**
+	 * @param executor Executor delivering the events. It must run tasks one after another
+	 *                 in submission order, like an {@link OrderedExecutor} or an
+	 *                 {@link AsyncPropertyChangeSupport}.
+	 */
+	public AsyncBoundListProxy(final List<E> list, final ChangeBatchOwner changeBatchOwner, final String propertyName, final Executor executor) {
+		super(list, changeBatchOwner, propertyName);
+		this.executor = executor;
+	}
+
+	@Override
+	public synchronized boolean add(final E e) {
+		return super.add(e);
+	}
+
+	@Override
+	public synchronized boolean remove(final Object o) {
+		return super.remove(o);
+	}
+
+	@Override
+	public synchronized boolean addAll(final Collection<? extends E> c) {
+		return super.addAll(c);
+	}
+
+	@Override
+	public synchronized boolean addAll(final int index, final Collection<? extends E> c) {
+		return super.addAll(index, c);
+	}
+
+	@Override
+	public synchronized boolean removeAll(final Collection<?> c) {
+		return super.removeAll(c);
+	}
+
+	@Override
+	public synchronized boolean retainAll(final Collection<?> c) {
+		return super.retainAll(c);
+	}
+
+	@Override
+	public synchronized void clear() {
+		super.clear();
+	}
+
+	@Override
+	public synchronized E set(final int index, final E element) {
+		return super.set(index, element);
+	}
+
+	@Override
+	public synchronized void add(final int index, final E element) {
+		super.add(index, element);
+	}
+
+	@Override
+	public synchronized E remove(final int index) {
+		return super.remove(index);
+	}
+
+	@Override
+	protected synchronized void fireCollectionChange(final CollectionChangeEvent<E> event) {
+		if (!hasCollectionChangeListeners()) {
+			return;
+		}
+		final PendingChange pendingChange = this.pendingChange;
+		if (pendingChange != null) {
+			if (isMergeable(pendingChange)) {
+				pendingChange.event = null;
+				return;
+			}
+			// other events have been fired since, so the pending change ends before this one
+			if (pendingChange.event == null) {
+				pendingChange.newItems = event.getOldItems();
+			}
+		}
+		this.pendingChange = new PendingChange(event);
+		this.executor.execute(this.pendingChange);
+	}
+
+	private boolean isMergeable(final PendingChange pendingChange) {
+		return !(this.executor instanceof AsyncPropertyChangeSupport) || ((AsyncPropertyChangeSupport)this.executor).isLastPendingTask(pendingChange);
+	}
+
+	private void dispatch(final PendingChange pendingChange) {
+		final CollectionChangeEvent<E> event;
+		synchronized (this) {
+			if (this.pendingChange == pendingChange) {
+				this.pendingChange = null;
+			}
+			if (pendingChange.event != null) {
+				event = new CollectionChangeEvent<>(this, pendingChange.event.getMethodName(), pendingChange.event.getEventType(), new ArrayList<>(pendingChange.oldItems), pendingChange.event.getNewItems(), pendingChange.event.getIndex());
+			} else {
+				event = new CollectionChangeEvent<>(this, "batch", CollectionChangeEventType.BATCH, new ArrayList<>(pendingChange.oldItems), new ArrayList<>(pendingChange.newItems != null ? pendingChange.newItems : this), -1);
+			}
+		}
+		super.fireCollectionChange(event);
+	}
+
+	private final class PendingChange implements Runnable {
+		// the item views stay valid through later changes, they are only copied on delivery
+		private final Collection<E> oldItems;
+		private Collection<E> newItems = null;
+		private CollectionChangeEvent<E> event;
+
+		private PendingChange(final CollectionChangeEvent<E> event) {
+			this.oldItems = event.getOldItems();
+			this.event = event;
+		}
+
+		@Override
+		public void run() {
+			dispatch(this);
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.beans.IndexedPropertyChangeEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeSupport;
+import java.util.concurrent.Executor;
+
+/**
+ * Created by jaxb-rich-contract-plugin.
+ * {@link PropertyChangeSupport} that notifies listeners on an {@link OrderedExecutor}
+ * instead of the calling thread. Events of one source are delivered in order. If a property
+ * changes again while the event of its previous change is still waiting to be delivered, and
+ * no other event has been fired in between, both changes are merged into one event.
+ * {@link IndexedPropertyChangeEvent}s are never merged, so their index is kept.
+ */
+public class AsyncPropertyChangeSupport extends PropertyChangeSupport implements Executor {
+	private static final long serialVersionUID = 1L;
+	private final transient Executor executor;
+	private final transient Object lock = new Object();
+	private transient Runnable lastTask = null;
+
+	public AsyncPropertyChangeSupport(final Object source) {
+		this(source, OrderedExecutor.getDefaultExecutor());
+	}
+
+	public AsyncPropertyChangeSupport(final Object source, final Executor executor) {
+		super(source);
+		this.executor = new OrderedExecutor(executor);
+	}
+
+	@Override
+	public void firePropertyChange(final PropertyChangeEvent event) {
+		final String propertyName = event.getPropertyName();
+		if (propertyName == null || event instanceof IndexedPropertyChangeEvent) {
+			execute(() -> dispatch(event));
+			return;
+		}
+		final PendingEvent pendingEvent;
+		synchronized (this.lock) {
+			if (this.lastTask instanceof PendingEvent) {
+				final PendingEvent lastEvent = (PendingEvent)this.lastTask;
+				if (propertyName.equals(lastEvent.event.getPropertyName())) {
+					lastEvent.event = new PropertyChangeEvent(event.getSource(), propertyName, lastEvent.event.getOldValue(), event.getNewValue());
+					return;
+				}
+			}
+			pendingEvent = new PendingEvent(event);
+			this.lastTask = pendingEvent;
+		}
+		this.executor.execute(pendingEvent);
+	}
+
+	/**
+	 * Runs a task after all events fired so far have been delivered.
+	 */
+	@Override
+	public void execute(final Runnable task) {
+		synchronized (this.lock) {
+			this.lastTask = task;
+		}
+		this.executor.execute(() -> {
+			started(task);
+			task.run();
+		});
+	}
+
+	/**
+	 * Returns whether the given task, passed to {@link #execute(Runnable)}, has not
+	 * been started yet and no event or task has been submitted after it. Changes
+	 * merged into the event delivered by such a task stay in order with all other events.
+	 */
+	public boolean isLastPendingTask(final Runnable task) {
+		synchronized (this.lock) {
+			return this.lastTask == task;
+		}
+	}
+
+	private void started(final Runnable task) {
+		synchronized (this.lock) {
+			if (this.lastTask == task) {
+				this.lastTask = null;
+			}
+		}
+	}
+
+	private void dispatch(final PropertyChangeEvent event) {
+		super.firePropertyChange(event);
+	}
+
+	private final class PendingEvent implements Runnable {
+		private PropertyChangeEvent event;
+
+		private PendingEvent(final PropertyChangeEvent event) {
+			this.event = event;
+		}
+
+		@Override
+		public void run() {
+			final PropertyChangeEvent mergedEvent;
+			synchronized (AsyncPropertyChangeSupport.this.lock) {
+				mergedEvent = this.event;
+				started(this);
+			}
+			dispatch(mergedEvent);
+		}
+	}
+}
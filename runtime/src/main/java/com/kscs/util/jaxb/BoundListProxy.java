@@ -26,18 +26,57 @@ package com.kscs.util.jaxb;
 
 import java.beans.PropertyVetoException;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
 
 /**
- * @author klemm0 2014-03-27
+ * As long as no listeners are registered, all modifications are
+ * passed straight through to the backing list, without creating any
+ * events or snapshots. Otherwise, {@link CollectionChangeEvent#getOldItems()}
+ * is a read-only view of the list contents before the change, which is computed
+ * on access by reverse-applying this and all later changes to the backing list.
  *
+ * @author klemm0 2014-03-27
  */
 public class BoundListProxy<E> implements BoundList<E> {
 	private final List<E> list;
-	private final List<VetoableCollectionChangeListener<E>> vetoableCollectionChangeListeners = new ArrayList<VetoableCollectionChangeListener<E>>();
-	private final List<CollectionChangeListener<E>> collectionChangeListeners = new ArrayList<CollectionChangeListener<E>>();
+	private final List<VetoableCollectionChangeListener<E>> vetoableCollectionChangeListeners = new CopyOnWriteArrayList<VetoableCollectionChangeListener<E>>();
+	private final List<CollectionChangeListener<E>> collectionChangeListeners = new CopyOnWriteArrayList<CollectionChangeListener<E>>();
+	private final ChangeBatchOwner changeBatchOwner;
+	private final String propertyName;
+	private final Lock revisionLock;
+	private Revision<E> latestRevision = null;
+	private List<E> batchOldItems = null;
 
 	public BoundListProxy(final List<E> list) {
+		this(list, null, null);
+	}
+
+	/**
+	 * @param list The backing list
+	 * @param changeBatchOwner Object owning the list. While a change batch is active on it,
+	 *                    changes are passed through to the backing list, and listeners are only
+	 *                    notified once when the batch is committed.
+	 * @param propertyName Name of the property the list belongs to.
+	 */
+	public BoundListProxy(final List<E> list, final ChangeBatchOwner changeBatchOwner, final String propertyName) {
+		this(list, changeBatchOwner, propertyName, null);
+	}
+
+	/**
+	 * @param revisionLock Lock that is held while the old items of an event are read from
+	 *                     the backing list, for subclasses that modify the list under the
+	 *                     corresponding write lock.
+	 */
+	protected BoundListProxy(final List<E> list, final ChangeBatchOwner changeBatchOwner, final String propertyName, final Lock revisionLock) {
 		this.list = list;
+		this.changeBatchOwner = changeBatchOwner;
+		this.propertyName = propertyName;
+		this.revisionLock = revisionLock;
+	}
+
+	public String getPropertyName() {
+		return this.propertyName;
 	}
 
 	@Override
@@ -57,7 +96,7 @@ public class BoundListProxy<E> implements BoundList<E> {
 
 	@Override
 	public Iterator<E> iterator() {
-		return this.list.iterator();
+		return listIterator();
 	}
 
 	@Override
@@ -71,16 +110,27 @@ public class BoundListProxy<E> implements BoundList<E> {
 	}
 
 	public boolean add(final E e) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("add", CollectionChangeEventType.ADD, new ArrayList<E>(this.list), Arrays.asList(e), this.list.size());
+		if (isBatched() || !hasListeners()) {
+			return this.list.add(e);
+		}
+		final Revision<E> revision = track(new Revision<E>(this.revisionLock, this.list, this.list.size(), Collections.<E>emptyList(), 1));
+		final CollectionChangeEvent<E> event = checkCollectionChange("add", CollectionChangeEventType.ADD, revision, Collections.singletonList(e), this.list.size());
 		final boolean retVal = this.list.add(e);
+		revision.applied = retVal;
 		fireCollectionChange(event);
 		return retVal;
 	}
 
 	@Override
 	public boolean remove(final Object o) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("remove", CollectionChangeEventType.REMOVE, new ArrayList<E>(this.list), Arrays.asList((E)o), -1);
+		if (isBatched() || !hasListeners()) {
+			return this.list.remove(o);
+		}
+		final int index = this.list.indexOf(o);
+		final Revision<E> revision = track(index < 0 ? new Revision<E>(this.revisionLock, this.list, 0, Collections.<E>emptyList(), 0) : new Revision<E>(this.revisionLock, this.list, index, Collections.singletonList(this.list.get(index)), 0));
+		final CollectionChangeEvent<E> event = checkCollectionChange("remove", CollectionChangeEventType.REMOVE, revision, Collections.singletonList((E)o), -1);
 		final boolean retVal = this.list.remove(o);
+		revision.applied = retVal;
 		fireCollectionChange(event);
 		return retVal;
 	}
@@ -91,22 +141,35 @@ public class BoundListProxy<E> implements BoundList<E> {
 	}
 
 	public boolean addAll(final Collection<? extends E> c) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("addAll", CollectionChangeEventType.ADD_ALL, new ArrayList<E>(this.list), c, this.list.size());
+		if (isBatched() || !hasListeners()) {
+			return this.list.addAll(c);
+		}
+		final Revision<E> revision = track(new Revision<E>(this.revisionLock, this.list, this.list.size(), Collections.<E>emptyList(), c.size()));
+		final CollectionChangeEvent<E> event = checkCollectionChange("addAll", CollectionChangeEventType.ADD_ALL, revision, c, this.list.size());
 		final boolean retVal = this.list.addAll(c);
+		revision.applied = retVal;
 		fireCollectionChange(event);
 		return retVal;
 	}
 
 	public boolean addAll(final int index, final Collection<? extends E> c) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("addAll", CollectionChangeEventType.ADD_ALL_AT, new ArrayList<E>(this.list), c, this.list.size());
+		if (isBatched() || !hasListeners()) {
+			return this.list.addAll(index, c);
+		}
+		final Revision<E> revision = track(new Revision<E>(this.revisionLock, this.list, index, Collections.<E>emptyList(), c.size()));
+		final CollectionChangeEvent<E> event = checkCollectionChange("addAll", CollectionChangeEventType.ADD_ALL_AT, revision, c, this.list.size());
 		final boolean retVal = this.list.addAll(index, c);
+		revision.applied = retVal;
 		fireCollectionChange(event);
 		return retVal;
 	}
 
 	@Override
 	public boolean removeAll(final Collection<?> c) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("removeAll", CollectionChangeEventType.REMOVE_ALL, new ArrayList<E>(this.list), (Collection<E>)c, -1);
+		if (isBatched() || !hasListeners()) {
+			return this.list.removeAll(c);
+		}
+		final CollectionChangeEvent<E> event = checkCollectionChange("removeAll", CollectionChangeEventType.REMOVE_ALL, snapshot(), (Collection<E>)c, -1);
 		final boolean retVal = this.list.removeAll(c);
 		fireCollectionChange(event);
 		return retVal;
@@ -114,7 +177,10 @@ public class BoundListProxy<E> implements BoundList<E> {
 
 	@Override
 	public boolean retainAll(final Collection<?> c) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("retainAll", CollectionChangeEventType.RETAIN_ALL, new ArrayList<E>(this.list), (Collection<E>)c, -1);
+		if (isBatched() || !hasListeners()) {
+			return this.list.retainAll(c);
+		}
+		final CollectionChangeEvent<E> event = checkCollectionChange("retainAll", CollectionChangeEventType.RETAIN_ALL, snapshot(), (Collection<E>)c, -1);
 		final boolean retVal = this.list.retainAll(c);
 		fireCollectionChange(event);
 		return retVal;
@@ -122,7 +188,11 @@ public class BoundListProxy<E> implements BoundList<E> {
 
 	@Override
 	public void clear() {
-		final CollectionChangeEvent<E> event = checkCollectionChange("clear", CollectionChangeEventType.RETAIN_ALL, new ArrayList<E>(this.list), Collections.<E>emptyList(), -1);
+		if (isBatched() || !hasListeners()) {
+			this.list.clear();
+			return;
+		}
+		final CollectionChangeEvent<E> event = checkCollectionChange("clear", CollectionChangeEventType.RETAIN_ALL, snapshot(), Collections.<E>emptyList(), -1);
 		this.list.clear();
 		fireCollectionChange(event);
 	}
@@ -143,22 +213,38 @@ public class BoundListProxy<E> implements BoundList<E> {
 	}
 
 	public E set(final int index, final E element) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("set", CollectionChangeEventType.SET_AT, new ArrayList<E>(this.list), Arrays.asList(element), index);
+		if (isBatched() || !hasListeners()) {
+			return this.list.set(index, element);
+		}
+		final Revision<E> revision = track(new Revision<E>(this.revisionLock, this.list, index, Collections.singletonList(this.list.get(index)), 1));
+		final CollectionChangeEvent<E> event = checkCollectionChange("set", CollectionChangeEventType.SET_AT, revision, Collections.singletonList(element), index);
 		final E retVal = this.list.set(index, element);
+		revision.applied = true;
 		fireCollectionChange(event);
 		return retVal;
 	}
 
 	public void add(final int index, final E element) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("add", CollectionChangeEventType.ADD_AT, new ArrayList<E>(this.list), Arrays.asList(element), index);
+		if (isBatched() || !hasListeners()) {
+			this.list.add(index, element);
+			return;
+		}
+		final Revision<E> revision = track(new Revision<E>(this.revisionLock, this.list, index, Collections.<E>emptyList(), 1));
+		final CollectionChangeEvent<E> event = checkCollectionChange("add", CollectionChangeEventType.ADD_AT, revision, Collections.singletonList(element), index);
 		this.list.add(index, element);
+		revision.applied = true;
 		fireCollectionChange(event);
 	}
 
 	@Override
 	public E remove(final int index) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("remove", CollectionChangeEventType.REMOVE_AT, new ArrayList<E>(this.list), Collections.<E>emptyList(), index);
+		if (isBatched() || !hasListeners()) {
+			return this.list.remove(index);
+		}
+		final Revision<E> revision = track(new Revision<E>(this.revisionLock, this.list, index, Collections.singletonList(this.list.get(index)), 0));
+		final CollectionChangeEvent<E> event = checkCollectionChange("remove", CollectionChangeEventType.REMOVE_AT, revision, Collections.<E>emptyList(), index);
 		final E retVal = this.list.remove(index);
+		revision.applied = true;
 		fireCollectionChange(event);
 		return retVal;
 	}
@@ -175,16 +261,17 @@ public class BoundListProxy<E> implements BoundList<E> {
 
 	@Override
 	public ListIterator<E> listIterator() {
-		return this.list.listIterator();
+		return listIterator(0);
 	}
 
 	@Override
 	public ListIterator<E> listIterator(final int index) {
-		return this.list.listIterator(index);
+		return new UntrackedListIterator(this.list.listIterator(index));
 	}
 
 	@Override
 	public List<E> subList(final int fromIndex, final int toIndex) {
+		freezeRevisions();
 		return this.list.subList(fromIndex, toIndex);
 	}
 
@@ -223,4 +310,203 @@ public class BoundListProxy<E> implements BoundList<E> {
 	public void addVetoableCollectionChangeListener(final VetoableCollectionChangeListener<E> vetoableCollectionChangeListener) {
 		this.vetoableCollectionChangeListeners.add(vetoableCollectionChangeListener);
 	}
+
+	private boolean hasListeners() {
+		return !this.collectionChangeListeners.isEmpty() || !this.vetoableCollectionChangeListeners.isEmpty();
+	}
+
+	protected boolean hasCollectionChangeListeners() {
+		return !this.collectionChangeListeners.isEmpty();
+	}
+
+	private boolean isBatched() {
+		final ChangeBatch changeBatch = this.changeBatchOwner == null ? null : this.changeBatchOwner.getActiveChangeBatch();
+		if (changeBatch == null) {
+			return false;
+		}
+		if (this.batchOldItems == null) {
+			freezeRevisions();
+			this.batchOldItems = new ArrayList<E>(this.list);
+			changeBatch.collectionChange(this);
+		}
+		return true;
+	}
+
+	CollectionChangeEvent<E> checkBatchChange() {
+		return checkCollectionChange("batch", CollectionChangeEventType.BATCH, this.batchOldItems, Collections.unmodifiableList(this.list), -1);
+	}
+
+	void commitBatchChange() {
+		this.batchOldItems = null;
+	}
+
+	void rollbackBatchChange() {
+		this.list.clear();
+		this.list.addAll(this.batchOldItems);
+		this.batchOldItems = null;
+	}
+
+	private Revision<E> track(final Revision<E> revision) {
+		if (this.latestRevision != null) {
+			this.latestRevision.newer = revision;
+		}
+		this.latestRevision = revision.frozen == null ? revision : null;
+		return revision;
+	}
+
+	private Revision<E> snapshot() {
+		return track(new Revision<E>(new ArrayList<E>(this.list)));
+	}
+
+	/**
+	 * Must be called before the backing list is modified other than
+	 * through one of the tracked methods, so that pending revision views
+	 * stay accurate.
+	 */
+	private void freezeRevisions() {
+		if (this.latestRevision != null) {
+			this.latestRevision.freeze();
+			this.latestRevision = null;
+		}
+	}
+
+	/**
+	 * Read-only view of the list contents before a single change.
+	 * Until the change has been applied, this is identical to the newer state.
+	 */
+	private static final class Revision<E> extends AbstractList<E> {
+		private List<E> newer;
+		private List<E> removed;
+		private final int index;
+		private final int insertedCount;
+		private final int size;
+		private List<E> frozen;
+		private final Lock lock;
+		boolean applied = false;
+
+		Revision(final Lock lock, final List<E> newer, final int index, final List<E> removed, final int insertedCount) {
+			this.lock = lock;
+			this.newer = newer;
+			this.index = index;
+			this.removed = removed;
+			this.insertedCount = insertedCount;
+			this.size = newer.size();
+			this.frozen = null;
+		}
+
+		Revision(final List<E> frozen) {
+			this.lock = null;
+			this.newer = null;
+			this.index = 0;
+			this.removed = null;
+			this.insertedCount = 0;
+			this.size = frozen.size();
+			this.frozen = frozen;
+		}
+
+		@Override
+		public E get(final int i) {
+			if (this.lock == null) {
+				return getUnlocked(i);
+			}
+			this.lock.lock();
+			try {
+				return getUnlocked(i);
+			} finally {
+				this.lock.unlock();
+			}
+		}
+
+		@Override
+		public int size() {
+			return this.size;
+		}
+
+		private E getUnlocked(final int i) {
+			List<E> current = this;
+			int currentIndex = i;
+			while (current instanceof Revision) {
+				final Revision<E> revision = (Revision<E>)current;
+				if (revision.frozen != null) {
+					return revision.frozen.get(currentIndex);
+				} else if (revision.applied && currentIndex >= revision.index) {
+					if (currentIndex - revision.index < revision.removed.size()) {
+						return revision.removed.get(currentIndex - revision.index);
+					}
+					currentIndex += revision.insertedCount - revision.removed.size();
+				}
+				current = revision.newer;
+			}
+			return current.get(currentIndex);
+		}
+
+		void freeze() {
+			if (this.frozen == null) {
+				final List<E> contents = new ArrayList<E>(this);
+				this.frozen = contents;
+				this.newer = null;
+				this.removed = null;
+			}
+		}
+	}
+
+	/**
+	 * Detaches pending revisions from the backing list before
+	 * it is modified through an iterator.
+	 */
+	private final class UntrackedListIterator implements ListIterator<E> {
+		private final ListIterator<E> delegate;
+
+		UntrackedListIterator(final ListIterator<E> delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.delegate.hasNext();
+		}
+
+		@Override
+		public E next() {
+			return this.delegate.next();
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			return this.delegate.hasPrevious();
+		}
+
+		@Override
+		public E previous() {
+			return this.delegate.previous();
+		}
+
+		@Override
+		public int nextIndex() {
+			return this.delegate.nextIndex();
+		}
+
+		@Override
+		public int previousIndex() {
+			return this.delegate.previousIndex();
+		}
+
+		@Override
+		public void remove() {
+			freezeRevisions();
+			this.delegate.remove();
+		}
+
+		@Override
+		public void set(final E e) {
+			freezeRevisions();
+			this.delegate.set(e);
+		}
+
+		@Override
+		public void add(final E e) {
+			freezeRevisions();
+			this.delegate.add(e);
+		}
+	}
 }
@@ -0,0 +1,202 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeListenerProxy;
+import java.beans.PropertyChangeSupport;
+import java.beans.PropertyVetoException;
+import java.beans.VetoableChangeSupport;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * Created by jaxb-rich-contract-plugin.
+ * Collects property and collection changes made to an object between
+ * {@link #begin()} and {@link #commit()}, and notifies listeners only
+ * once per changed property when the outermost batch is committed.
+ * Vetoable listeners see the state before the batch and the final state.
+ * If a change is vetoed, all changes made in the batch are reverted.
+ * When used in a try-with-resources statement, {@link #commit()} must be
+ * called as the last statement of the block. If the block is left without
+ * committing, e.g. because of an exception, {@link #close()} reverts all
+ * changes made in the batch.
+ */
+public abstract class ChangeBatch implements AutoCloseable {
+	private final Object source;
+	private final Map<String, PropertyChangeEvent> propertyChanges = new LinkedHashMap<>();
+	private final List<BoundListProxy<?>> collectionChanges = new ArrayList<>();
+	private int depth = 0; // levels begun and not yet committed
+	private int open = 0; // levels begun and not yet closed
+
+	protected ChangeBatch(final Object source) {
+		this.source = source;
+	}
+
+	protected abstract VetoableChangeSupport getVetoableChangeSupport();
+
+	protected abstract PropertyChangeSupport getPropertyChangeSupport();
+
+	protected abstract void restoreProperty(final String propertyName, final Object value);
+
+	public Object getSource() {
+		return this.source;
+	}
+
+	public boolean isActive() {
+		return this.depth > 0;
+	}
+
+	public ChangeBatch begin() {
+		this.depth++;
+		this.open++;
+		return this;
+	}
+
+	public void propertyChange(final String propertyName, final Object oldValue, final Object newValue) {
+		final PropertyChangeEvent previous = this.propertyChanges.get(propertyName);
+		this.propertyChanges.put(propertyName, new PropertyChangeEvent(this.source, propertyName, previous == null ? oldValue : previous.getOldValue(), newValue));
+	}
+
+	void collectionChange(final BoundListProxy<?> proxy) {
+		this.collectionChanges.add(proxy);
+	}
+
+	public void commit() throws PropertyVetoException {
+		if (this.depth == 0) {
+			throw new IllegalStateException("No change batch in progress");
+		}
+		if (--this.depth > 0) {
+			return;
+		}
+		this.open = 0;
+		final List<PropertyChangeEvent> changes = new ArrayList<>(this.propertyChanges.size() + this.collectionChanges.size());
+		for (final PropertyChangeEvent change : this.propertyChanges.values()) {
+			if (!Objects.equals(change.getOldValue(), change.getNewValue())) {
+				changes.add(change);
+			}
+		}
+		final List<CollectionChangeEvent<?>> collectionEvents = new ArrayList<>(this.collectionChanges.size());
+		try {
+			final VetoableChangeSupport vetoableChangeSupport = getVetoableChangeSupport();
+			if (vetoableChangeSupport != null) {
+				for (final PropertyChangeEvent change : changes) {
+					vetoableChangeSupport.fireVetoableChange(change);
+				}
+			}
+			for (final BoundListProxy<?> proxy : this.collectionChanges) {
+				collectionEvents.add(proxy.checkBatchChange());
+			}
+		} catch (final PropertyVetoException pvx) {
+			rollback();
+			throw pvx;
+		} catch (final RuntimeException rx) {
+			rollback();
+			if (rx.getCause() instanceof PropertyVetoException) {
+				throw (PropertyVetoException)rx.getCause();
+			}
+			throw rx;
+		}
+		final List<BoundListProxy<?>> proxies = new ArrayList<>(this.collectionChanges);
+		this.propertyChanges.clear();
+		this.collectionChanges.clear();
+		for (int i = 0; i < proxies.size(); i++) {
+			final CollectionChangeEvent<?> event = collectionEvents.get(i);
+			proxies.get(i).commitBatchChange();
+			fireBatchChange(proxies.get(i), event);
+			changes.add(new PropertyChangeEvent(this.source, proxies.get(i).getPropertyName(), event.getOldItems(), event.getNewItems()));
+		}
+		final PropertyChangeSupport propertyChangeSupport = getPropertyChangeSupport();
+		if (propertyChangeSupport != null && !changes.isEmpty()) {
+			final Runnable notification = () -> firePropertyChanges(propertyChangeSupport, changes);
+			if (propertyChangeSupport instanceof Executor) {
+				((Executor)propertyChangeSupport).execute(notification);
+			} else {
+				notification.run();
+			}
+		}
+	}
+
+	/**
+	 * Sends the compound event to all general listeners, and each single
+	 * change to the listeners registered for its property.
+	 */
+	private void firePropertyChanges(final PropertyChangeSupport propertyChangeSupport, final List<PropertyChangeEvent> changes) {
+		final CompoundPropertyChangeEvent compoundEvent = new CompoundPropertyChangeEvent(this.source, changes);
+		for (final PropertyChangeListener listener : propertyChangeSupport.getPropertyChangeListeners()) {
+			if (listener instanceof PropertyChangeListenerProxy) {
+				final String propertyName = ((PropertyChangeListenerProxy)listener).getPropertyName();
+				for (final PropertyChangeEvent change : changes) {
+					if (propertyName.equals(change.getPropertyName())) {
+						listener.propertyChange(change);
+					}
+				}
+			} else {
+				listener.propertyChange(compoundEvent);
+			}
+		}
+	}
+
+	/**
+	 * Ends the innermost batch level begun with {@link #begin()}.
+	 * If that level hasn't been committed, all changes made in the
+	 * batch are reverted without notifying any listeners, and the
+	 * batch is no longer active.
+	 */
+	@Override
+	public void close() {
+		if (this.open == 0) {
+			return;
+		}
+		if (this.depth >= this.open) {
+			this.depth = 0;
+			this.open = 0;
+			rollback();
+		} else {
+			this.open--;
+		}
+	}
+
+	private void rollback() {
+		for (final PropertyChangeEvent change : this.propertyChanges.values()) {
+			restoreProperty(change.getPropertyName(), change.getOldValue());
+		}
+		for (final BoundListProxy<?> proxy : this.collectionChanges) {
+			proxy.rollbackBatchChange();
+		}
+		this.propertyChanges.clear();
+		this.collectionChanges.clear();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E> void fireBatchChange(final BoundListProxy<E> proxy, final CollectionChangeEvent<?> event) {
+		proxy.fireCollectionChange((CollectionChangeEvent<E>)event);
+	}
+}
@@ -29,5 +29,5 @@ package com.kscs.util.jaxb;
  *
  */
 public enum CollectionChangeEventType {
-	REMOVE, ADD_ALL, ADD_ALL_AT, REMOVE_ALL, RETAIN_ALL, SET_AT, ADD_AT, REMOVE_AT, ADD
+	REMOVE, ADD_ALL, ADD_ALL_AT, REMOVE_ALL, RETAIN_ALL, SET_AT, ADD_AT, REMOVE_AT, ADD, BATCH
 }
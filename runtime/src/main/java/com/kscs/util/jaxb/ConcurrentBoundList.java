@@ -0,0 +1,538 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Created by jaxb-rich-contract-plugin.
+ * Thread-safe {@link BoundList}. Reads share a read lock, modifications and
+ * vetoable listeners run under the write lock. Change events are queued in the order
+ * of the modifications and delivered after the write lock has been released, by one thread
+ * at a time, so all listeners see the same order of events.
+ * Iterators run over a snapshot of the list, modifications through an iterator
+ * are applied to the list under the write lock. Sub lists are views of the list.
+ * Both throw a {@link ConcurrentModificationException} when they are used to modify
+ * the list after it has been modified otherwise.
+ */
+public class ConcurrentBoundList<E> extends BoundListProxy<E> {
+	private final List<E> list;
+	private final ReentrantReadWriteLock lock;
+	private final Queue<CollectionChangeEvent<E>> pendingEvents = new ConcurrentLinkedQueue<>();
+	private final ReentrantLock dispatchLock = new ReentrantLock();
+	private int version = 0;
+
+	public ConcurrentBoundList() {
+		this(new ArrayList<>());
+	}
+
+	public ConcurrentBoundList(final List<E> list) {
+		this(list, null, null);
+	}
+
+	public ConcurrentBoundList(final List<E> list, final ChangeBatchOwner changeBatchOwner, final String propertyName) {
+		this(list, changeBatchOwner, propertyName, new ReentrantReadWriteLock());
+	}
+
+	private ConcurrentBoundList(final List<E> list, final ChangeBatchOwner changeBatchOwner, final String propertyName, final ReentrantReadWriteLock lock) {
+		super(list, changeBatchOwner, propertyName, lock.readLock());
+		this.list = list;
+		this.lock = lock;
+	}
+
+	@Override
+	public int size() {
+		this.lock.readLock().lock();
+		try {
+			return super.size();
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		this.lock.readLock().lock();
+		try {
+			return super.isEmpty();
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean contains(final Object o) {
+		this.lock.readLock().lock();
+		try {
+			return super.contains(o);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean containsAll(final Collection<?> c) {
+		this.lock.readLock().lock();
+		try {
+			return super.containsAll(c);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Object[] toArray() {
+		this.lock.readLock().lock();
+		try {
+			return super.toArray();
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public <T> T[] toArray(final T[] a) {
+		this.lock.readLock().lock();
+		try {
+			return super.toArray(a);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public E get(final int index) {
+		this.lock.readLock().lock();
+		try {
+			return super.get(index);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public int indexOf(final Object o) {
+		this.lock.readLock().lock();
+		try {
+			return super.indexOf(o);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public int lastIndexOf(final Object o) {
+		this.lock.readLock().lock();
+		try {
+			return super.lastIndexOf(o);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		this.lock.readLock().lock();
+		try {
+			return super.equals(o);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		this.lock.readLock().lock();
+		try {
+			return super.hashCode();
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return listIterator(0);
+	}
+
+	@Override
+	public ListIterator<E> listIterator() {
+		return listIterator(0);
+	}
+
+	@Override
+	public ListIterator<E> listIterator(final int index) {
+		this.lock.readLock().lock();
+		try {
+			if (index < 0 || index > this.list.size()) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.list.size());
+			}
+			return new SnapshotIterator(new ArrayList<>(this.list), index, new Modifier(this.version));
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<E> subList(final int fromIndex, final int toIndex) {
+		this.lock.readLock().lock();
+		try {
+			if (fromIndex < 0 || toIndex > this.list.size() || fromIndex > toIndex) {
+				throw new IndexOutOfBoundsException("From index: " + fromIndex + ", To index: " + toIndex + ", Size: " + this.list.size());
+			}
+			return new SubList(fromIndex, toIndex - fromIndex, new Modifier(this.version));
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean add(final E e) {
+		this.lock.writeLock().lock();
+		try {
+			return super.add(e);
+		} finally {
+			endWrite();
+		}
+	}
+
+	@Override
+	public boolean remove(final Object o) {
+		this.lock.writeLock().lock();
+		try {
+			return super.remove(o);
+		} finally {
+			endWrite();
+		}
+	}
+
+	@Override
+	public boolean addAll(final Collection<? extends E> c) {
+		this.lock.writeLock().lock();
+		try {
+			return super.addAll(c);
+		} finally {
+			endWrite();
+		}
+	}
+
+	@Override
+	public boolean addAll(final int index, final Collection<? extends E> c) {
+		this.lock.writeLock().lock();
+		try {
+			return super.addAll(index, c);
+		} finally {
+			endWrite();
+		}
+	}
+
+	@Override
+	public boolean removeAll(final Collection<?> c) {
+		this.lock.writeLock().lock();
+		try {
+			return super.removeAll(c);
+		} finally {
+			endWrite();
+		}
+	}
+
+	@Override
+	public boolean retainAll(final Collection<?> c) {
+		this.lock.writeLock().lock();
+		try {
+			return super.retainAll(c);
+		} finally {
+			endWrite();
+		}
+	}
+
+	@Override
+	public void clear() {
+		this.lock.writeLock().lock();
+		try {
+			super.clear();
+		} finally {
+			endWrite();
+		}
+	}
+
+	@Override
+	public E set(final int index, final E element) {
+		this.lock.writeLock().lock();
+		try {
+			return super.set(index, element);
+		} finally {
+			endWrite();
+		}
+	}
+
+	@Override
+	public void add(final int index, final E element) {
+		this.lock.writeLock().lock();
+		try {
+			super.add(index, element);
+		} finally {
+			endWrite();
+		}
+	}
+
+	@Override
+	public E remove(final int index) {
+		this.lock.writeLock().lock();
+		try {
+			return super.remove(index);
+		} finally {
+			endWrite();
+		}
+	}
+
+	@Override
+	protected void fireCollectionChange(final CollectionChangeEvent<E> event) {
+		this.pendingEvents.add(event);
+		if (!this.lock.isWriteLockedByCurrentThread()) {
+			dispatchPendingEvents();
+		}
+	}
+
+	private void endWrite() {
+		this.version++;
+		this.lock.writeLock().unlock();
+		dispatchPendingEvents();
+	}
+
+	private void dispatchPendingEvents() {
+		if (this.lock.isWriteLockedByCurrentThread()) {
+			// nested modification, events are dispatched when the outermost one has finished
+			return;
+		}
+		while (!this.pendingEvents.isEmpty() && this.dispatchLock.tryLock()) {
+			try {
+				CollectionChangeEvent<E> event;
+				while ((event = this.pendingEvents.poll()) != null) {
+					super.fireCollectionChange(event);
+				}
+			} finally {
+				this.dispatchLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Applies modifications made through an iterator or a sub list, as long as the
+	 * list has not been modified otherwise since the iterator or sub list was created.
+	 */
+	private final class Modifier {
+		private int expectedVersion;
+
+		private Modifier(final int expectedVersion) {
+			this.expectedVersion = expectedVersion;
+		}
+
+		private void checkVersion() {
+			if (ConcurrentBoundList.this.version != this.expectedVersion) {
+				throw new ConcurrentModificationException();
+			}
+		}
+
+		private <T> T modify(final Supplier<T> modification) {
+			ConcurrentBoundList.this.lock.writeLock().lock();
+			try {
+				checkVersion();
+				try {
+					return modification.get();
+				} finally {
+					// the write lock is still held, so only this modification has changed the version
+					this.expectedVersion = ConcurrentBoundList.this.version;
+				}
+			} finally {
+				ConcurrentBoundList.this.lock.writeLock().unlock();
+				dispatchPendingEvents();
+			}
+		}
+	}
+
+	private final class SnapshotIterator implements ListIterator<E> {
+		private final List<E> snapshot;
+		private final Modifier modifier;
+		private int cursor;
+		private int lastReturned = -1;
+
+		private SnapshotIterator(final List<E> snapshot, final int cursor, final Modifier modifier) {
+			this.snapshot = snapshot;
+			this.cursor = cursor;
+			this.modifier = modifier;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.cursor < this.snapshot.size();
+		}
+
+		@Override
+		public E next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.lastReturned = this.cursor++;
+			return this.snapshot.get(this.lastReturned);
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			return this.cursor > 0;
+		}
+
+		@Override
+		public E previous() {
+			if (!hasPrevious()) {
+				throw new NoSuchElementException();
+			}
+			this.lastReturned = --this.cursor;
+			return this.snapshot.get(this.lastReturned);
+		}
+
+		@Override
+		public int nextIndex() {
+			return this.cursor;
+		}
+
+		@Override
+		public int previousIndex() {
+			return this.cursor - 1;
+		}
+
+		@Override
+		public void remove() {
+			final int index = checkLastReturned();
+			this.modifier.modify(() -> ConcurrentBoundList.this.remove(index));
+			this.snapshot.remove(index);
+			this.cursor = index;
+			this.lastReturned = -1;
+		}
+
+		@Override
+		public void set(final E e) {
+			final int index = checkLastReturned();
+			this.modifier.modify(() -> ConcurrentBoundList.this.set(index, e));
+			this.snapshot.set(index, e);
+		}
+
+		@Override
+		public void add(final E e) {
+			final int index = this.cursor;
+			this.modifier.modify(() -> {
+				ConcurrentBoundList.this.add(index, e);
+				return null;
+			});
+			this.snapshot.add(index, e);
+			this.cursor = index + 1;
+			this.lastReturned = -1;
+		}
+
+		private int checkLastReturned() {
+			if (this.lastReturned < 0) {
+				throw new IllegalStateException();
+			}
+			return this.lastReturned;
+		}
+	}
+
+	private final class SubList extends AbstractList<E> {
+		private final int offset;
+		private final Modifier modifier;
+		private int size;
+
+		private SubList(final int offset, final int size, final Modifier modifier) {
+			this.offset = offset;
+			this.size = size;
+			this.modifier = modifier;
+		}
+
+		@Override
+		public int size() {
+			ConcurrentBoundList.this.lock.readLock().lock();
+			try {
+				this.modifier.checkVersion();
+				return this.size;
+			} finally {
+				ConcurrentBoundList.this.lock.readLock().unlock();
+			}
+		}
+
+		@Override
+		public E get(final int index) {
+			ConcurrentBoundList.this.lock.readLock().lock();
+			try {
+				this.modifier.checkVersion();
+				return ConcurrentBoundList.this.list.get(this.offset + checkIndex(index, this.size));
+			} finally {
+				ConcurrentBoundList.this.lock.readLock().unlock();
+			}
+		}
+
+		@Override
+		public E set(final int index, final E element) {
+			checkIndex(index, this.size);
+			return this.modifier.modify(() -> ConcurrentBoundList.this.set(this.offset + index, element));
+		}
+
+		@Override
+		public void add(final int index, final E element) {
+			checkIndex(index, this.size + 1);
+			this.modifier.modify(() -> {
+				ConcurrentBoundList.this.add(this.offset + index, element);
+				return null;
+			});
+			this.size++;
+		}
+
+		@Override
+		public E remove(final int index) {
+			checkIndex(index, this.size);
+			final E removed = this.modifier.modify(() -> ConcurrentBoundList.this.remove(this.offset + index));
+			this.size--;
+			return removed;
+		}
+
+		private int checkIndex(final int index, final int length) {
+			if (index < 0 || index >= length) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+			}
+			return index;
+		}
+	}
+}
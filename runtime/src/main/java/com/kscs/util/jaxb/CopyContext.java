@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Created by jaxb-rich-contract-plugin.
+ * Remembers the copies made during one deep copy operation, so that an
+ * object referenced from several places in the source graph is copied
+ * only once, and the copy shares it in the same way. Cycles in the source
+ * graph are reproduced in the copy.
+ * The context used by the top-level <code>createCopy()</code> methods is
+ * kept per thread and reused, nested copy operations on the same thread
+ * join the active one. Builders use a separate context per thread, which maps
+ * source objects to the builders copying them, and builders to their products.
+ */
+public final class CopyContext {
+	private static final int MAX_RETAINED_SIZE = 4096;
+	private static final ThreadLocal<CopyContext> CURRENT = ThreadLocal.withInitial(CopyContext::new);
+	private static final ThreadLocal<CopyContext> CURRENT_BUILDER = ThreadLocal.withInitial(CopyContext::new);
+	private Map<Object, Object> copies = new IdentityHashMap<>();
+	private int depth = 0;
+
+	/**
+	 * Creates a context that is not bound to a thread, e.g. for a single
+	 * copy constructor invocation.
+	 */
+	public CopyContext() {
+	}
+
+	/**
+	 * Returns the copy context of the current thread, and marks it as in use
+	 * until the matching call to {@link #close()}.
+	 * @return The copy context of the current thread
+	 */
+	public static CopyContext open() {
+		final CopyContext copyContext = CopyContext.CURRENT.get();
+		copyContext.depth++;
+		return copyContext;
+	}
+
+	/**
+	 * Like {@link #open()}, but returns the context used by builders on the current
+	 * thread, which is kept apart from the one used by <code>createCopy()</code>.
+	 * @return The builder copy context of the current thread
+	 */
+	public static CopyContext openBuilderContext() {
+		final CopyContext copyContext = CopyContext.CURRENT_BUILDER.get();
+		copyContext.depth++;
+		return copyContext;
+	}
+
+	/**
+	 * Ends the use of a context obtained by {@link #open()}. When the outermost
+	 * copy operation ends, all recorded copies are forgotten.
+	 */
+	public void close() {
+		if (this.depth > 0 && --this.depth == 0) {
+			if (this.copies.size() > CopyContext.MAX_RETAINED_SIZE) {
+				this.copies = new IdentityHashMap<>();
+			} else {
+				this.copies.clear();
+			}
+		}
+	}
+
+	/**
+	 * @param source The object to be copied
+	 * @param <T> Type of the object
+	 * @return The copy already made of <code>source</code> in this context, or null if there is none yet.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(final T source) {
+		return (T)this.copies.get(source);
+	}
+
+	/**
+	 * @param source The object to look up
+	 * @param <T> Expected type of the registered object
+	 * @return The object registered for <code>source</code> in this context, e.g. a builder copying it,
+	 * or null if there is none yet.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T lookup(final Object source) {
+		return (T)this.copies.get(source);
+	}
+
+	/**
+	 * @param source The object to look up
+	 * @return true if anything has been registered for <code>source</code>, even null.
+	 */
+	public boolean contains(final Object source) {
+		return this.copies.containsKey(source);
+	}
+
+	/**
+	 * Records the copy of an object. Must be called as soon as the copy has
+	 * been instantiated, before any of its properties are copied.
+	 * @param source The object being copied
+	 * @param copy The copy of <code>source</code>
+	 * @param <T> Type of the copy
+	 * @return <code>copy</code>
+	 */
+	public <T> T register(final Object source, final T copy) {
+		this.copies.put(source, copy);
+		return copy;
+	}
+}
@@ -0,0 +1,230 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Created by jaxb-rich-contract-plugin.
+ * A list that, when constructed from another CopyOnWriteOnDemandList, shares
+ * that list's elements instead of copying them. The elements are copied only
+ * when one of the lists sharing them is modified, so copying a list
+ * is a constant-time operation until then. Creating it from any other collection
+ * copies the element references, and the elements themselves are always shared,
+ * so the generated copy methods only use it for lists whose elements aren't copied.
+ * Like {@link ArrayList}, instances must not be modified concurrently, but lists
+ * sharing the same elements can be used on different threads.
+ * @param <E> Element type
+ */
+public class CopyOnWriteOnDemandList<E> extends AbstractList<E> implements RandomAccess, Serializable {
+	private static final long serialVersionUID = 1L;
+	private Storage<E> storage;
+
+	private static final class Storage<E> implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private final ArrayList<E> elements;
+		private final AtomicInteger owners = new AtomicInteger(1);
+
+		private Storage(final ArrayList<E> elements) {
+			this.elements = elements;
+		}
+	}
+
+	public CopyOnWriteOnDemandList() {
+		this.storage = new Storage<>(new ArrayList<>());
+	}
+
+	public CopyOnWriteOnDemandList(final int initialCapacity) {
+		this.storage = new Storage<>(new ArrayList<>(initialCapacity));
+	}
+
+	/**
+	 * Creates a list containing the elements of <code>source</code>. If
+	 * <code>source</code> is a CopyOnWriteOnDemandList, its elements are shared
+	 * with the new list until either of them is modified.
+	 * @param source The collection to copy.
+	 */
+	@SuppressWarnings("unchecked")
+	public CopyOnWriteOnDemandList(final Collection<? extends E> source) {
+		if (source instanceof CopyOnWriteOnDemandList) {
+			final Storage<E> sharedStorage = ((CopyOnWriteOnDemandList<E>)source).storage;
+			sharedStorage.owners.incrementAndGet();
+			this.storage = sharedStorage;
+		} else {
+			this.storage = new Storage<>(new ArrayList<>(source));
+		}
+	}
+
+	/**
+	 * @return true if the elements of this list are still shared with another list.
+	 */
+	boolean isShared() {
+		return this.storage.owners.get() > 1;
+	}
+
+	private ArrayList<E> readable() {
+		return this.storage.elements;
+	}
+
+	private ArrayList<E> writable() {
+		final Storage<E> current = this.storage;
+		if (current.owners.get() > 1) {
+			this.storage = new Storage<>(new ArrayList<>(current.elements));
+			current.owners.decrementAndGet();
+		}
+		return this.storage.elements;
+	}
+
+	@Override
+	public E get(final int index) {
+		return readable().get(index);
+	}
+
+	@Override
+	public int size() {
+		return readable().size();
+	}
+
+	@Override
+	public int indexOf(final Object o) {
+		return readable().indexOf(o);
+	}
+
+	@Override
+	public int lastIndexOf(final Object o) {
+		return readable().lastIndexOf(o);
+	}
+
+	@Override
+	public boolean contains(final Object o) {
+		return readable().contains(o);
+	}
+
+	@Override
+	public Object[] toArray() {
+		return readable().toArray();
+	}
+
+	@Override
+	public <T> T[] toArray(final T[] a) {
+		return readable().toArray(a);
+	}
+
+	@Override
+	public void forEach(final Consumer<? super E> action) {
+		readable().forEach(action);
+	}
+
+	@Override
+	public E set(final int index, final E element) {
+		return writable().set(index, element);
+	}
+
+	@Override
+	public boolean add(final E e) {
+		this.modCount++;
+		return writable().add(e);
+	}
+
+	@Override
+	public void add(final int index, final E element) {
+		this.modCount++;
+		writable().add(index, element);
+	}
+
+	@Override
+	public E remove(final int index) {
+		this.modCount++;
+		return writable().remove(index);
+	}
+
+	@Override
+	public boolean addAll(final Collection<? extends E> c) {
+		this.modCount++;
+		return writable().addAll(c);
+	}
+
+	@Override
+	public boolean addAll(final int index, final Collection<? extends E> c) {
+		this.modCount++;
+		return writable().addAll(index, c);
+	}
+
+	@Override
+	public boolean removeAll(final Collection<?> c) {
+		this.modCount++;
+		return writable().removeAll(c);
+	}
+
+	@Override
+	public boolean retainAll(final Collection<?> c) {
+		this.modCount++;
+		return writable().retainAll(c);
+	}
+
+	@Override
+	public boolean removeIf(final Predicate<? super E> filter) {
+		this.modCount++;
+		return writable().removeIf(filter);
+	}
+
+	@Override
+	public void replaceAll(final UnaryOperator<E> operator) {
+		writable().replaceAll(operator);
+	}
+
+	@Override
+	public void sort(final Comparator<? super E> c) {
+		this.modCount++;
+		writable().sort(c);
+	}
+
+	@Override
+	public void clear() {
+		this.modCount++;
+		final Storage<E> current = this.storage;
+		if (current.owners.get() > 1) {
+			this.storage = new Storage<>(new ArrayList<>());
+			current.owners.decrementAndGet();
+		} else {
+			current.elements.clear();
+		}
+	}
+
+	@Override
+	protected void removeRange(final int fromIndex, final int toIndex) {
+		this.modCount++;
+		writable().subList(fromIndex, toIndex).clear();
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.ArrayDeque;
+
+/**
+ * Created by jaxb-rich-contract-plugin.
+ * Drives a deep copy with an explicit work stack instead of recursive
+ * method calls, so the depth of the object graph that can be copied is
+ * limited by the heap rather than the thread stack size.
+ */
+public final class CopyStack {
+	private final ArrayDeque<StackCopyable> sources = new ArrayDeque<>();
+	private final ArrayDeque<Object> targets = new ArrayDeque<>();
+
+	/**
+	 * Creates a deep copy of an object graph.
+	 * @param source The root of the graph
+	 * @param <T> Type of the root object
+	 * @return The copy of the root object
+	 */
+	public static <T extends StackCopyable> T copy(final T source) {
+		final CopyStack stack = new CopyStack();
+		final T target = stack.push(source);
+		stack.run();
+		return target;
+	}
+
+	/**
+	 * Creates the copy of an object, and schedules copying its properties.
+	 * @param source The object to copy
+	 * @param <T> Type of the object
+	 * @return The copy, whose properties are filled in later by {@link #run()}
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends StackCopyable> T push(final T source) {
+		final Object target = source.createCopyTarget();
+		this.sources.push(source);
+		this.targets.push(target);
+		return (T)target;
+	}
+
+	/**
+	 * Copies the properties of all scheduled objects, including
+	 * those scheduled during the run.
+	 */
+	public void run() {
+		while (!this.sources.isEmpty()) {
+			this.sources.pop().copyFieldsInto(this.targets.pop(), this);
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+/**
+ * Contract for objects that can copy their state into another,
+ * already existing instance of their class, reusing the target's
+ * child objects and collections instead of allocating new ones
+ * wherever possible.
+ */
+public interface InPlaceCopyable<T extends InPlaceCopyable<T>> {
+	/**
+	 * Overwrites the state of <code>target</code> with a deep copy
+	 * of the state of this object.
+	 *
+	 * @param target The object to copy to. Must be of the same class as this object.
+	 * @throws IllegalArgumentException if <code>target</code> is of a different class.
+	 */
+	void copyInto(final T target);
+
+	/**
+	 * Overwrites the state of <code>target</code> partially, the parts
+	 * will be defined by <code>propertyTree</code>. Properties not
+	 * selected by <code>propertyTree</code> are left unchanged in the target.
+	 *
+	 * @param target The object to copy to. Must be of the same class as this object.
+	 * @param propertyTree Defines which parts of the object tree will be copied or excluded
+	 * @param propertyTreeUse Defines how the clone graph will be used: To include or to exclude properties.
+	 * @throws IllegalArgumentException if <code>target</code> is of a different class.
+	 */
+	void copyInto(final T target, final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse);
+}
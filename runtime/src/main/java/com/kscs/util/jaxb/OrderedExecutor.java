@@ -0,0 +1,152 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Created by jaxb-rich-contract-plugin.
+ * Runs tasks one after another, in submission order, on an underlying executor.
+ * The default underlying executor starts a virtual thread per task if the JVM
+ * supports it, and uses a pool of daemon threads otherwise.
+ */
+public class OrderedExecutor implements Executor {
+	private static volatile Executor defaultExecutor = null;
+	private final Executor executor;
+	private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+	private boolean running = false;
+
+	public OrderedExecutor() {
+		this(getDefaultExecutor());
+	}
+
+	public OrderedExecutor(final Executor executor) {
+		this.executor = executor;
+	}
+
+	public static Executor getDefaultExecutor() {
+		Executor executor = OrderedExecutor.defaultExecutor;
+		if (executor == null) {
+			synchronized (OrderedExecutor.class) {
+				if (OrderedExecutor.defaultExecutor == null) {
+					OrderedExecutor.defaultExecutor = createDefaultExecutor();
+				}
+				executor = OrderedExecutor.defaultExecutor;
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * Replaces the executor used by all instances created afterwards
+	 * without an explicit executor.
+	 */
+	public static void setDefaultExecutor(final Executor executor) {
+		OrderedExecutor.defaultExecutor = executor;
+	}
+
+	private static Executor createDefaultExecutor() {
+		try {
+			return (Executor)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (final ReflectiveOperationException | UnsupportedOperationException x) {
+			return Executors.newCachedThreadPool(runnable -> {
+				final Thread thread = new Thread(runnable, "change-dispatch");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	@Override
+	public void execute(final Runnable task) {
+		synchronized (this.tasks) {
+			this.tasks.add(task);
+			if (this.running) {
+				return;
+			}
+			this.running = true;
+		}
+		try {
+			this.executor.execute(this::drain);
+		} catch (final RejectedExecutionException rx) {
+			synchronized (this.tasks) {
+				this.tasks.clear();
+				this.running = false;
+			}
+			throw rx;
+		}
+	}
+
+	private void drain() {
+		boolean drained = false;
+		try {
+			while (true) {
+				final Runnable task;
+				synchronized (this.tasks) {
+					task = this.tasks.poll();
+					if (task == null) {
+						this.running = false;
+						drained = true;
+						return;
+					}
+				}
+				try {
+					task.run();
+				} catch (final RuntimeException rx) {
+					final Thread thread = Thread.currentThread();
+					thread.getUncaughtExceptionHandler().uncaughtException(thread, rx);
+				}
+			}
+		} finally {
+			if (!drained) {
+				resume();
+			}
+		}
+	}
+
+	/**
+	 * Continues with the remaining tasks on a new run of the underlying
+	 * executor after a task has thrown an {@link Error}.
+	 */
+	private void resume() {
+		synchronized (this.tasks) {
+			if (this.tasks.isEmpty()) {
+				this.running = false;
+				return;
+			}
+		}
+		try {
+			this.executor.execute(this::drain);
+		} catch (final RejectedExecutionException rx) {
+			synchronized (this.tasks) {
+				this.tasks.clear();
+				this.running = false;
+			}
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Created by jaxb-rich-contract-plugin.
+ * Copies the elements of large collections in parallel on a {@link ForkJoinPool},
+ * keeping their order. Collections smaller than the threshold passed by the
+ * generated code are copied sequentially on the calling thread.
+ */
+public final class ParallelCopy {
+	private static final int TASKS_PER_THREAD = 4;
+	private static volatile ForkJoinPool pool = null;
+
+	/**
+	 * Copies a single collection element
+	 * @param <E> Element type
+	 * @param <X> Checked exception thrown by the copy operation, or RuntimeException
+	 */
+	public interface Copier<E, X extends Exception> {
+		E copy(E element) throws X;
+	}
+
+	private ParallelCopy() {
+	}
+
+	/**
+	 * @return The pool parallel copies are run on, the common pool unless
+	 * another one has been set.
+	 */
+	public static ForkJoinPool getPool() {
+		final ForkJoinPool currentPool = ParallelCopy.pool;
+		return currentPool == null ? ForkJoinPool.commonPool() : currentPool;
+	}
+
+	/**
+	 * @param pool The pool to run parallel copies on, or null to use the common pool.
+	 */
+	public static void setPool(final ForkJoinPool pool) {
+		ParallelCopy.pool = pool;
+	}
+
+	/**
+	 * Adds copies of all elements of <code>source</code> to <code>target</code>, in iteration order.
+	 * @param source The collection to copy
+	 * @param target The collection receiving the copies
+	 * @param threshold Minimum size of <code>source</code> for the copy to run in parallel
+	 * @param copier Copies a single element
+	 * @param <E> Element type
+	 * @param <X> Checked exception thrown by <code>copier</code>
+	 * @throws X if copying an element fails
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E, X extends Exception> void copyInto(final Collection<? extends E> source, final Collection<? super E> target, final int threshold, final Copier<E, X> copier) throws X {
+		if (source.size() < threshold) {
+			for (final E element : source) {
+				target.add(copier.copy(element));
+			}
+		} else {
+			final ForkJoinPool forkJoinPool = getPool();
+			final Object[] elements = source.toArray();
+			final Object[] copies = new Object[elements.length];
+			final int granularity = Math.max(1, elements.length / (forkJoinPool.getParallelism() * ParallelCopy.TASKS_PER_THREAD));
+			try {
+				forkJoinPool.invoke(new CopyTask<>(elements, copies, 0, elements.length, granularity, copier));
+			} catch (final CopyFailure failure) {
+				throw (X)failure.getCause();
+			}
+			for (final Object copy : copies) {
+				target.add((E)copy);
+			}
+		}
+	}
+
+	private static final class CopyFailure extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		CopyFailure(final Exception cause) {
+			super(cause);
+		}
+	}
+
+	private static final class CopyTask<E, X extends Exception> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Object[] elements;
+		private final Object[] copies;
+		private final int from;
+		private final int to;
+		private final int granularity;
+		private final Copier<E, X> copier;
+
+		CopyTask(final Object[] elements, final Object[] copies, final int from, final int to, final int granularity, final Copier<E, X> copier) {
+			this.elements = elements;
+			this.copies = copies;
+			this.from = from;
+			this.to = to;
+			this.granularity = granularity;
+			this.copier = copier;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected void compute() {
+			if (this.to - this.from <= this.granularity) {
+				try {
+					for (int i = this.from; i < this.to; i++) {
+						this.copies[i] = this.copier.copy((E)this.elements[i]);
+					}
+				} catch (final RuntimeException x) {
+					throw x;
+				} catch (final Exception x) {
+					throw new CopyFailure(x);
+				}
+			} else {
+				final int middle = (this.from + this.to) >>> 1;
+				invokeAll(new CopyTask<>(this.elements, this.copies, this.from, middle, this.granularity, this.copier),
+						new CopyTask<>(this.elements, this.copies, middle, this.to, this.granularity, this.copier));
+			}
+		}
+	}
+}
@@ -0,0 +1,315 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Created by jaxb-rich-contract-plugin.
+ * A partial copy operation specialised for one generated class and one
+ * {@link PropertyTree}. It is composed of method handles that copy exactly the
+ * properties selected by the tree, so it doesn't check the tree for every
+ * property of every copied object like the generated
+ * <code>createCopy(PropertyTree, PropertyTreeUse)</code> does.
+ * Its result is the same: A shallow copy of the source object, where the
+ * selected properties are replaced by copies. Child objects are copied by
+ * their own specialised copiers, which each property binds on first use.
+ * The read-only list views generated by the "immutable" plugin are reset in
+ * the copy, so that its getters create them anew for the copied lists.
+ * Copiers are cached, up to {@value #MAX_CACHED_PER_CLASS} per class.
+ * @param <T> The class whose instances are copied
+ */
+public final class PartialCopier<T> {
+	public static final int MAX_CACHED_PER_CLASS = 32;
+	private static final String PROPERTY_LAYOUT_FIELD_NAME = "__propertyLayout";
+	private static final String IMMUTABLE_FIELD_SUFFIX = "_RO";
+	private static final MethodHandle COPY_VALUE;
+	private static final ClassValue<Map<Key, PartialCopier<?>>> CACHE = new ClassValue<Map<Key, PartialCopier<?>>>() {
+		@Override
+		protected Map<Key, PartialCopier<?>> computeValue(final Class<?> type) {
+			return new LinkedHashMap<Key, PartialCopier<?>>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(final Map.Entry<Key, PartialCopier<?>> eldest) {
+					return size() > PartialCopier.MAX_CACHED_PER_CLASS;
+				}
+			};
+		}
+	};
+	private static final ClassValue<MethodHandle> CLONE = new ClassValue<MethodHandle>() {
+		@Override
+		protected MethodHandle computeValue(final Class<?> type) {
+			try {
+				return MethodHandles.publicLookup().findVirtual(type, "clone", MethodType.methodType(Object.class)).asType(MethodType.methodType(Object.class, Object.class));
+			} catch (final NoSuchMethodException | IllegalAccessException e) {
+				return null;
+			}
+		}
+	};
+
+	static {
+		try {
+			COPY_VALUE = MethodHandles.lookup().findVirtual(ValueCopier.class, "copy", MethodType.methodType(Object.class, Object.class));
+		} catch (final NoSuchMethodException | IllegalAccessException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final Class<T> type;
+	private final PropertyTree propertyTree;
+	private final PropertyTreeUse propertyTreeUse;
+	/** (Object)Object: Creates the shallow copy */
+	private final MethodHandle allocator;
+	/** (Object source, Object target)void: Replaces the selected properties of the shallow copy by copies */
+	private final MethodHandle propertyCopier;
+
+	private PartialCopier(final Class<T> type, final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse) throws ReflectiveOperationException {
+		this.type = type;
+		this.propertyTree = propertyTree;
+		this.propertyTreeUse = propertyTreeUse;
+		final boolean cloneable = Cloneable.class.isAssignableFrom(type);
+		final MethodHandles.Lookup typeLookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+		final MethodType stepType = MethodType.methodType(void.class, Object.class, Object.class);
+		MethodHandle steps = MethodHandles.empty(stepType);
+		for (Class<?> declaringClass = type; declaringClass != Object.class; declaringClass = declaringClass.getSuperclass()) {
+			final MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup());
+			final PropertyTree.Compiled compiledPropertyTree = PropertyTree.compile(propertyTree, findLayout(declaringClass));
+			for (final Field field : declaringClass.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+					continue;
+				}
+				if (isImmutableView(field)) {
+					final MethodHandle setter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+					final MethodHandle step = MethodHandles.dropArguments(MethodHandles.insertArguments(setter, 1, (Object)null), 0, Object.class);
+					steps = MethodHandles.foldArguments(steps, step);
+					continue;
+				}
+				final int ordinal = ordinal(compiledPropertyTree, field.getName());
+				final boolean copied = ordinal >= 0 && compiledPropertyTree.isCopied(ordinal, propertyTreeUse) && !field.getType().isPrimitive();
+				if (copied || !cloneable) {
+					final MethodHandle getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+					final MethodHandle setter = lookup.unreflectSetter(field).asType(stepType);
+					final MethodHandle value = copied ? MethodHandles.filterReturnValue(getter, PartialCopier.COPY_VALUE.bindTo(new ValueCopier(compiledPropertyTree.get(ordinal), propertyTreeUse))) : getter;
+					final MethodHandle step = MethodHandles.permuteArguments(MethodHandles.filterArguments(setter, 1, value), stepType, 1, 0);
+					steps = MethodHandles.foldArguments(steps, step);
+				}
+			}
+		}
+		if (cloneable) {
+			this.allocator = typeLookup.findSpecial(Object.class, "clone", MethodType.methodType(Object.class), type).asType(MethodType.methodType(Object.class, Object.class));
+		} else {
+			this.allocator = MethodHandles.dropArguments(typeLookup.findConstructor(type, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class)), 0, Object.class);
+		}
+		this.propertyCopier = steps;
+	}
+
+	/**
+	 * Gets the cached copier for the given class and property tree, or creates it.
+	 * @param type The exact class of the objects to copy
+	 * @param propertyTree Defines which parts of the object tree will be copied or excluded
+	 * @param propertyTreeUse Defines how the property tree will be used: To include or to exclude properties.
+	 * @param <T> The class whose instances are copied
+	 * @return The copier
+	 * @throws IllegalArgumentException if the fields of <code>type</code> cannot be accessed.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> PartialCopier<T> of(final Class<T> type, final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse) {
+		final Map<Key, PartialCopier<?>> copiers = PartialCopier.CACHE.get(type);
+		final Key key = new Key(propertyTree, propertyTreeUse);
+		synchronized (copiers) {
+			final PartialCopier<?> copier = copiers.get(key);
+			if (copier != null) {
+				return (PartialCopier<T>)copier;
+			}
+		}
+		final PartialCopier<T> newCopier;
+		try {
+			newCopier = new PartialCopier<>(type, propertyTree, propertyTreeUse);
+		} catch (final ReflectiveOperationException e) {
+			throw new IllegalArgumentException("Cannot create a copier for " + type.getName(), e);
+		}
+		synchronized (copiers) {
+			copiers.put(key, newCopier);
+		}
+		return newCopier;
+	}
+
+	/**
+	 * Partially copies an object with the cached copier for its class.
+	 * @param source The object to copy, may be null
+	 * @param propertyTree Defines which parts of the object tree will be copied or excluded
+	 * @param propertyTreeUse Defines how the property tree will be used: To include or to exclude properties.
+	 * @param <T> Type of the object to copy
+	 * @return The copy
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T copy(final T source, final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse) {
+		return source == null ? null : PartialCopier.of((Class<T>)source.getClass(), propertyTree, propertyTreeUse).copy(source);
+	}
+
+	/**
+	 * @param source The object to copy. If it isn't exactly of the class this
+	 *               copier has been created for, the copier for its class is used.
+	 * @return A partial copy of <code>source</code>
+	 */
+	@SuppressWarnings("unchecked")
+	public T copy(final T source) {
+		if (source.getClass() != this.type) {
+			return PartialCopier.of((Class<T>)source.getClass(), this.propertyTree, this.propertyTreeUse).copy(source);
+		}
+		try {
+			final Object target = this.allocator.invokeExact((Object)source);
+			this.propertyCopier.invokeExact((Object)source, target);
+			return (T)target;
+		} catch (final RuntimeException | Error e) {
+			throw e;
+		} catch (final Throwable t) {
+			throw new RuntimeException(t);
+		}
+	}
+
+	private static PropertyTree.Layout findLayout(final Class<?> declaringClass) throws IllegalAccessException {
+		try {
+			final Field layoutField = declaringClass.getDeclaredField(PartialCopier.PROPERTY_LAYOUT_FIELD_NAME);
+			return (PropertyTree.Layout)MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup()).unreflectGetter(layoutField).invoke();
+		} catch (final NoSuchFieldException e) {
+			return new PropertyTree.Layout();
+		} catch (final IllegalAccessException e) {
+			throw e;
+		} catch (final Throwable t) {
+			throw new IllegalStateException(t);
+		}
+	}
+
+	private static int ordinal(final PropertyTree.Compiled compiledPropertyTree, final String propertyName) {
+		final PropertyTree.Layout layout = compiledPropertyTree.layout();
+		for (int i = 0; i < layout.size(); i++) {
+			if (layout.propertyName(i).equals(propertyName)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * The "immutable" plugin caches a read-only view of each list property in a
+	 * transient field named after the list field.
+	 */
+	private static boolean isImmutableView(final Field field) {
+		final String name = field.getName();
+		if (!Modifier.isTransient(field.getModifiers()) || !name.endsWith(PartialCopier.IMMUTABLE_FIELD_SUFFIX)) {
+			return false;
+		}
+		try {
+			field.getDeclaringClass().getDeclaredField(name.substring(0, name.length() - PartialCopier.IMMUTABLE_FIELD_SUFFIX.length()));
+			return true;
+		} catch (final NoSuchFieldException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Copies the value of one property. Remembers the copier used for the last
+	 * child object, so that as long as the children are of the same class,
+	 * the copier cache isn't consulted for each of them.
+	 */
+	private static final class ValueCopier {
+		private final PropertyTree propertyTree;
+		private final PropertyTreeUse propertyTreeUse;
+		private volatile PartialCopier<?> childCopier = null;
+
+		private ValueCopier(final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse) {
+			this.propertyTree = propertyTree;
+			this.propertyTreeUse = propertyTreeUse;
+		}
+
+		Object copy(final Object value) throws Throwable {
+			if (value instanceof List) {
+				final List<?> sourceList = (List<?>)value;
+				final List<Object> copy = new ArrayList<>(sourceList.size());
+				for (final Object item : sourceList) {
+					copy.add(copyItem(item));
+				}
+				return copy;
+			}
+			return copyItem(value);
+		}
+
+		@SuppressWarnings("unchecked")
+		private Object copyItem(final Object item) throws Throwable {
+			if (item instanceof PartialCopyable) {
+				PartialCopier<Object> copier = (PartialCopier<Object>)this.childCopier;
+				if (copier == null || copier.type != item.getClass()) {
+					copier = PartialCopier.of((Class<Object>)item.getClass(), this.propertyTree, this.propertyTreeUse);
+					this.childCopier = copier;
+				}
+				return copier.copy(item);
+			} else if (item instanceof Copyable) {
+				return ((Copyable<?>)item).createCopy();
+			} else if (item instanceof Cloneable) {
+				final MethodHandle cloneMethod = PartialCopier.CLONE.get(item.getClass());
+				return cloneMethod == null ? item : cloneMethod.invokeExact(item);
+			}
+			return item;
+		}
+	}
+
+	private static final class Key {
+		private final PropertyTree propertyTree;
+		private final PropertyTreeUse propertyTreeUse;
+
+		private Key(final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse) {
+			this.propertyTree = propertyTree;
+			this.propertyTreeUse = propertyTreeUse;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key)o;
+			return Objects.equals(this.propertyTree, other.propertyTree) && this.propertyTreeUse == other.propertyTreeUse;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(this.propertyTree) * 31 + Objects.hashCode(this.propertyTreeUse);
+		}
+	}
+}
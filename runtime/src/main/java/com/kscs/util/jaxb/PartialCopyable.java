@@ -23,6 +23,10 @@
  */
 package com.kscs.util.jaxb;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Contract for objects that can be copied partially,
  * i.e. by explicitly excluding or including specified
@@ -58,4 +62,39 @@ public interface PartialCopyable<T extends PartialCopyable<T>> {
 	 * @return A copy of the original object.
 	 */
 	T copyOnly(final PropertyTree propertyTree);
+
+	/**
+	 * Partially copies all objects in <code>source</code>, in iteration order.
+	 * Since the property tree caches its resolution against the properties of
+	 * each class, the subtrees for the individual properties are looked up only
+	 * for the first object of each class, and reused for the rest of the batch.
+	 *
+	 * @param source The objects to copy, may contain null elements.
+	 * @param propertyTree Defines which parts of the object trees will be cloned or excluded
+	 * @param propertyTreeUse Defines how the clone graph will be used: To include or to exclude properties.
+	 * @param <T> Common type of the objects to copy.
+	 * @return A new list containing the copies.
+	 */
+	static <T extends PartialCopyable<?>> List<T> copyAll(final Collection<? extends T> source, final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse) {
+		return copyAll(source, propertyTree, propertyTreeUse, 0);
+	}
+
+	/**
+	 * Partially copies all objects in <code>source</code>, in iteration order,
+	 * on the pool returned by {@link ParallelCopy#getPool()} if there are at least
+	 * <code>parallelThreshold</code> of them.
+	 *
+	 * @param source The objects to copy, may contain null elements.
+	 * @param propertyTree Defines which parts of the object trees will be cloned or excluded
+	 * @param propertyTreeUse Defines how the clone graph will be used: To include or to exclude properties.
+	 * @param parallelThreshold Minimum number of objects to copy them in parallel, or 0 to always copy sequentially.
+	 * @param <T> Common type of the objects to copy.
+	 * @return A new list containing the copies.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T extends PartialCopyable<?>> List<T> copyAll(final Collection<? extends T> source, final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse, final int parallelThreshold) {
+		final List<T> copies = new ArrayList<>(source.size());
+		ParallelCopy.<T, RuntimeException>copyInto(source, copies, parallelThreshold <= 0 ? Integer.MAX_VALUE : parallelThreshold, item -> item == null ? null : (T)item.createCopy(propertyTree, propertyTreeUse));
+		return copies;
+	}
 }
@@ -0,0 +1,389 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.jaxb;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Created by jaxb-rich-contract-plugin.
+ * A bounded cache of partial copies, keyed by the source object and the property tree
+ * the copy has been made with. Source objects are held weakly and compared by identity,
+ * and all cached copies of a source are discarded when {@link #invalidate(Object)} is
+ * called for it, which the generated setters do.
+ * When the cache is full, a copy that hasn't been requested since it was last
+ * considered for eviction is evicted (CLOCK), but only if the new copy has been
+ * requested at least as often recently, which is estimated by a small frequency
+ * sketch (TinyLFU admission). So copies requested only once don't displace the
+ * ones requested over and over.
+ * The cached copies are shared between all callers, so they must not be modified.
+ * Only modifications of the source object itself invalidate its cached copies,
+ * not modifications of its child objects or of lists obtained from its getters.
+ * Instances are thread-safe and don't lock.
+ */
+public final class ProjectionCache {
+	private static final int MAX_FREQUENCY = 15;
+	private static final int MIN_SKETCH_SIZE = 64;
+	private static final int MAX_SKETCH_SIZE = 1 << 24;
+	private static final int[] SKETCH_SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+	/** Entries of a source that has been removed from the cache, no copies can be added to it any more */
+	private static final Entry[] REMOVED = new Entry[0];
+
+	private final int maximumSize;
+	private final ConcurrentHashMap<Object, Sources> sources = new ConcurrentHashMap<>();
+	private final ReferenceQueue<Object> collectedSources = new ReferenceQueue<>();
+	/** Entries in the order they are considered for eviction */
+	private final ConcurrentLinkedQueue<Entry> evictionQueue = new ConcurrentLinkedQueue<>();
+	/** 4-bit counters, 16 per element */
+	private final AtomicLongArray frequencies;
+	private final int frequencyMask;
+	private final int sampleSize;
+	private final AtomicInteger additions = new AtomicInteger();
+	private final AtomicInteger size = new AtomicInteger();
+	private final AtomicInteger copiesInProgress = new AtomicInteger();
+	private final AtomicLong invalidations = new AtomicLong();
+
+	/**
+	 * @param maximumSize Maximum number of copies held by this cache
+	 * @throws IllegalArgumentException if <code>maximumSize</code> isn't positive.
+	 */
+	public ProjectionCache(final int maximumSize) {
+		if (maximumSize <= 0) {
+			throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+		}
+		this.maximumSize = maximumSize;
+		// Small caches get a larger sketch, so that rarely requested copies don't saturate it
+		final int sketchSize = Math.min(Math.max(maximumSize, ProjectionCache.MIN_SKETCH_SIZE), ProjectionCache.MAX_SKETCH_SIZE);
+		final int counters = Integer.highestOneBit(sketchSize * 4 - 1) << 1;
+		this.frequencies = new AtomicLongArray(counters / 16);
+		this.frequencyMask = counters - 1;
+		this.sampleSize = sketchSize * 10;
+	}
+
+	/**
+	 * Returns the cached partial copy of <code>source</code>, or creates and caches it.
+	 * @param source The object to copy
+	 * @param propertyTree Defines which parts of the object tree will be cloned or excluded
+	 * @param propertyTreeUse Defines how the clone graph will be used: To include or to exclude properties.
+	 * @param <T> Type of the object to copy
+	 * @return The copy, which may be shared with other callers and must not be modified.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends PartialCopyable<?>> T get(final T source, final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse) {
+		final int hash = (System.identityHashCode(source) * 31 + (propertyTree == null ? 0 : propertyTree.hashCode())) * 31 + propertyTreeUse.ordinal();
+		expungeCollectedSources();
+		recordAccess(hash);
+		final Entry entry = find(this.sources.get(new Lookup(source)), propertyTree, propertyTreeUse);
+		if (entry != null) {
+			if (!entry.used) {
+				entry.used = true;
+			}
+			return (T)entry.copy;
+		}
+		this.copiesInProgress.incrementAndGet();
+		try {
+			final long invalidationStamp = this.invalidations.get();
+			final T copy = (T)source.createCopy(propertyTree, propertyTreeUse);
+			final Entry newEntry = put(source, propertyTree, propertyTreeUse, hash, copy);
+			// The source may have been modified while it was copied
+			if (newEntry != null && invalidationStamp != this.invalidations.get()) {
+				remove(newEntry);
+			}
+			return copy;
+		} finally {
+			this.copiesInProgress.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Discards all cached copies of <code>source</code>.
+	 * @param source The object that has been modified
+	 */
+	public void invalidate(final Object source) {
+		if (this.size.get() == 0 && this.copiesInProgress.get() == 0) {
+			return;
+		}
+		this.invalidations.incrementAndGet();
+		removeAll(this.sources.remove(new Lookup(source)));
+	}
+
+	/**
+	 * Discards all cached copies.
+	 */
+	public void invalidateAll() {
+		this.invalidations.incrementAndGet();
+		for (final Object reference : this.sources.keySet()) {
+			removeAll(this.sources.remove(reference));
+		}
+		this.evictionQueue.clear();
+	}
+
+	/**
+	 * @return The number of copies currently cached
+	 */
+	public int size() {
+		expungeCollectedSources();
+		return this.size.get();
+	}
+
+	private Entry put(final Object source, final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse, final int hash, final Object copy) {
+		if (this.size.get() >= this.maximumSize && !evict(hash, true)) {
+			return null;
+		}
+		for (;;) {
+			Sources sourceEntries = this.sources.get(new Lookup(source));
+			if (sourceEntries == null) {
+				final Sources newSourceEntries = new Sources(new SourceReference(source, this.collectedSources));
+				sourceEntries = this.sources.putIfAbsent(newSourceEntries.reference, newSourceEntries);
+				if (sourceEntries == null) {
+					sourceEntries = newSourceEntries;
+				}
+			}
+			final Entry[] entries = sourceEntries.entries;
+			if (entries == ProjectionCache.REMOVED) {
+				this.sources.remove(sourceEntries.reference, sourceEntries);
+				continue;
+			}
+			if (find(sourceEntries, propertyTree, propertyTreeUse) != null) {
+				return null;
+			}
+			final Entry entry = new Entry(sourceEntries, propertyTree, propertyTreeUse, hash, copy);
+			final Entry[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+			newEntries[entries.length] = entry;
+			if (Sources.ENTRIES.compareAndSet(sourceEntries, entries, newEntries)) {
+				this.evictionQueue.offer(entry);
+				// Concurrent additions may have filled the cache in the meantime
+				if (this.size.incrementAndGet() > this.maximumSize) {
+					evict(hash, false);
+				}
+				return entry;
+			}
+		}
+	}
+
+	/**
+	 * Evicts an entry to make room for a new one.
+	 * @param hash Hash of the new entry
+	 * @param admit Whether to keep the entry to be evicted if it is requested more frequently than the new one
+	 * @return false if the entry to be evicted has been kept
+	 */
+	private boolean evict(final int hash, final boolean admit) {
+		for (int scanned = 0; ; scanned++) {
+			final Entry victim = this.evictionQueue.poll();
+			if (victim == null) {
+				return true;
+			}
+			if (victim.removed) {
+				continue;
+			}
+			// Give recently used entries a second chance, but not endlessly under concurrent use
+			if (victim.used && scanned <= this.maximumSize) {
+				victim.used = false;
+				this.evictionQueue.offer(victim);
+			} else if (admit && frequency(hash) < frequency(victim.hash)) {
+				this.evictionQueue.offer(victim);
+				return false;
+			} else {
+				remove(victim);
+				return true;
+			}
+		}
+	}
+
+	private void remove(final Entry entry) {
+		final Sources sourceEntries = entry.sources;
+		for (;;) {
+			final Entry[] entries = sourceEntries.entries;
+			final int index = Arrays.asList(entries).indexOf(entry);
+			if (index < 0) {
+				return;
+			}
+			final Entry[] newEntries;
+			if (entries.length == 1) {
+				newEntries = ProjectionCache.REMOVED;
+			} else {
+				newEntries = new Entry[entries.length - 1];
+				System.arraycopy(entries, 0, newEntries, 0, index);
+				System.arraycopy(entries, index + 1, newEntries, index, newEntries.length - index);
+			}
+			if (Sources.ENTRIES.compareAndSet(sourceEntries, entries, newEntries)) {
+				entry.removed = true;
+				this.size.decrementAndGet();
+				if (newEntries == ProjectionCache.REMOVED) {
+					this.sources.remove(sourceEntries.reference, sourceEntries);
+				}
+				return;
+			}
+		}
+	}
+
+	private void removeAll(final Sources sourceEntries) {
+		if (sourceEntries != null) {
+			final Entry[] entries = Sources.ENTRIES.getAndSet(sourceEntries, ProjectionCache.REMOVED);
+			for (final Entry entry : entries) {
+				entry.removed = true;
+			}
+			this.size.addAndGet(-entries.length);
+		}
+	}
+
+	private void expungeCollectedSources() {
+		for (Reference<?> reference = this.collectedSources.poll(); reference != null; reference = this.collectedSources.poll()) {
+			removeAll(this.sources.remove(reference));
+		}
+	}
+
+	private static Entry find(final Sources sourceEntries, final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse) {
+		if (sourceEntries != null) {
+			for (final Entry entry : sourceEntries.entries) {
+				if (entry.propertyTreeUse == propertyTreeUse && (entry.propertyTree == propertyTree || (propertyTree != null && propertyTree.equals(entry.propertyTree)))) {
+					return entry;
+				}
+			}
+		}
+		return null;
+	}
+
+	private void recordAccess(final int hash) {
+		for (final int seed : ProjectionCache.SKETCH_SEEDS) {
+			final int index = sketchIndex(hash, seed);
+			final int shift = (index & 15) << 2;
+			long counters;
+			do {
+				counters = this.frequencies.get(index >>> 4);
+			} while (((counters >>> shift) & 15) < ProjectionCache.MAX_FREQUENCY && !this.frequencies.compareAndSet(index >>> 4, counters, counters + (1L << shift)));
+		}
+		if (this.additions.incrementAndGet() == this.sampleSize) {
+			// Age all counts, so that formerly popular copies can be evicted eventually
+			for (int i = 0; i < this.frequencies.length(); i++) {
+				this.frequencies.getAndUpdate(i, counters -> (counters >>> 1) & 0x7777777777777777L);
+			}
+			this.additions.addAndGet(-this.sampleSize / 2);
+		}
+	}
+
+	private int frequency(final int hash) {
+		int frequency = ProjectionCache.MAX_FREQUENCY;
+		for (final int seed : ProjectionCache.SKETCH_SEEDS) {
+			final int index = sketchIndex(hash, seed);
+			frequency = Math.min(frequency, (int)((this.frequencies.get(index >>> 4) >>> ((index & 15) << 2)) & 15));
+		}
+		return frequency;
+	}
+
+	private int sketchIndex(final int hash, final int seed) {
+		final int h = hash * seed;
+		return (h ^ (h >>> 16)) & this.frequencyMask;
+	}
+
+	private static final class Entry {
+		private final Sources sources;
+		private final PropertyTree propertyTree;
+		private final PropertyTreeUse propertyTreeUse;
+		private final int hash;
+		private final Object copy;
+		/** Requested since it has last been considered for eviction */
+		private volatile boolean used = false;
+		private volatile boolean removed = false;
+
+		private Entry(final Sources sources, final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse, final int hash, final Object copy) {
+			this.sources = sources;
+			this.propertyTree = propertyTree;
+			this.propertyTreeUse = propertyTreeUse;
+			this.hash = hash;
+			this.copy = copy;
+		}
+	}
+
+	/**
+	 * All cached copies of one source object. The array of entries is
+	 * replaced on every change.
+	 */
+	private static final class Sources {
+		private static final AtomicReferenceFieldUpdater<Sources, Entry[]> ENTRIES = AtomicReferenceFieldUpdater.newUpdater(Sources.class, Entry[].class, "entries");
+		private final SourceReference reference;
+		private volatile Entry[] entries = new Entry[0];
+
+		private Sources(final SourceReference reference) {
+			this.reference = reference;
+		}
+	}
+
+	/**
+	 * Key of the source map, equal to a {@link Lookup} of its referent, and to
+	 * another reference to the same referent.
+	 */
+	private static final class SourceReference extends WeakReference<Object> {
+		private final int hashCode;
+
+		private SourceReference(final Object source, final ReferenceQueue<Object> queue) {
+			super(source, queue);
+			this.hashCode = System.identityHashCode(source);
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (this == o) {
+				return true;
+			}
+			final Object referent = get();
+			return referent != null && o instanceof SourceReference && ((SourceReference)o).get() == referent;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+	/**
+	 * Looks up the {@link SourceReference} of an object, relying on the map calling
+	 * <code>equals</code> on the key passed in.
+	 */
+	private static final class Lookup {
+		private final Object source;
+
+		private Lookup(final Object source) {
+			this.source = source;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			return o instanceof SourceReference && ((SourceReference)o).get() == this.source;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this.source);
+		}
+	}
+}
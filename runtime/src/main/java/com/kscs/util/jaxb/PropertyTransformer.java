@@ -28,4 +28,18 @@ package com.kscs.util.jaxb;
  */
 public interface PropertyTransformer<TInstance,TProperty> {
 	TProperty transform(final PropertyInfo<TInstance,TProperty> propertyInfo, final TInstance sourceInstance, final TProperty sourcePropertyValue);
+
+	/**
+	 * Invokes a transformer that is meant to handle properties of several types, as
+	 * the transforming copy methods generated by the copy plugin do for each property.
+	 * @param transformer The transformer to invoke
+	 * @param propertyInfo The property whose value is transformed
+	 * @param sourceInstance The object declaring the property
+	 * @param sourcePropertyValue The value of the property, or of a single item of a collection property
+	 * @return The transformed value
+	 */
+	@SuppressWarnings("unchecked")
+	static <I, P> P apply(final PropertyTransformer<?, ?> transformer, final PropertyInfo<I, P> propertyInfo, final I sourceInstance, final P sourcePropertyValue) {
+		return ((PropertyTransformer<I, P>)transformer).transform(propertyInfo, sourceInstance, sourcePropertyValue);
+	}
 }
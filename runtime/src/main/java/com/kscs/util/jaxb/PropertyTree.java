@@ -24,16 +24,108 @@
 
 package com.kscs.util.jaxb;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a property path for use in the clone() method
  */
 public class PropertyTree {
+	private static final int MAX_COMPILED_FORMS = 8;
+	private static final Compiled[] NO_COMPILED_FORMS = new Compiled[0];
+	private static final int MAX_PARSED_TREES = 256;
+	private static final Map<String, PropertyTree> PARSED_TREES = new ConcurrentHashMap<>();
+
 	private final Map<String, PropertyTree> children;
 	private final String propertyName;
+	private final int hashCode;
+	private volatile Compiled[] compiledForms = PropertyTree.NO_COMPILED_FORMS;
+
+	/**
+	 * Assigns ordinals to the properties declared by one generated class.
+	 * Generated code keeps one instance per class in a static field and
+	 * uses it to compile the property trees passed to its copy methods.
+	 */
+	public static final class Layout {
+		private final String[] propertyNames;
+		private final Compiled empty;
+
+		public Layout(final String... propertyNames) {
+			this.propertyNames = propertyNames.clone();
+			this.empty = new Compiled(this, null);
+		}
+
+		public int size() {
+			return this.propertyNames.length;
+		}
+
+		public String propertyName(final int ordinal) {
+			return this.propertyNames[ordinal];
+		}
+	}
+
+	/**
+	 * A property tree node resolved against a {@link Layout}: the children are
+	 * held in an array indexed by property ordinal, and bit masks answer the
+	 * include/exclude test without any map lookup.
+	 */
+	public static final class Compiled {
+		private final Layout layout;
+		private final PropertyTree[] children;
+		private final long[] present;
+		private final long[] leaves;
+
+		private Compiled(final Layout layout, final PropertyTree tree) {
+			final int words = (layout.size() + 63) >>> 6;
+			this.layout = layout;
+			this.children = new PropertyTree[layout.size()];
+			this.present = new long[words];
+			this.leaves = new long[words];
+			if (tree != null) {
+				for (int ordinal = 0; ordinal < this.children.length; ordinal++) {
+					final PropertyTree child = tree.get(layout.propertyName(ordinal));
+					if (child != null) {
+						this.children[ordinal] = child;
+						this.present[ordinal >>> 6] |= 1L << ordinal;
+						if (child.isLeaf()) {
+							this.leaves[ordinal >>> 6] |= 1L << ordinal;
+						}
+					}
+				}
+			}
+		}
+
+		public Layout layout() {
+			return this.layout;
+		}
+
+		/**
+		 * @param ordinal Ordinal of the property in the layout
+		 * @return The sub tree for the property, or null if the tree doesn't mention it.
+		 */
+		public PropertyTree get(final int ordinal) {
+			return this.children[ordinal];
+		}
+
+		/**
+		 * Equivalent to testing <code>get(propertyName)</code> of the original tree:
+		 * with {@link PropertyTreeUse#INCLUDE}, the property is copied if it is present in the tree,
+		 * with {@link PropertyTreeUse#EXCLUDE}, it is copied unless it is a leaf of the tree.
+		 * @param ordinal Ordinal of the property in the layout
+		 * @param propertyTreeUse How to interpret the tree
+		 * @return true if the property is to be copied
+		 */
+		public boolean isCopied(final int ordinal, final PropertyTreeUse propertyTreeUse) {
+			if (propertyTreeUse == PropertyTreeUse.INCLUDE) {
+				return (this.present[ordinal >>> 6] & (1L << ordinal)) != 0;
+			} else {
+				return (this.leaves[ordinal >>> 6] & (1L << ordinal)) == 0;
+			}
+		}
+	}
 
 	public static final class Builder {
 		private final Map<String, Builder> children = new LinkedHashMap<String, Builder>();
@@ -97,6 +189,41 @@ public class PropertyTree {
 	public PropertyTree(final String propertyName, final Map<String, PropertyTree> children) {
 		this.propertyName = propertyName;
 		this.children = Collections.unmodifiableMap(children);
+		this.hashCode = 31 * (propertyName == null ? 0 : propertyName.hashCode()) + children.hashCode();
+	}
+
+	/**
+	 * Parses a property tree from a comma-separated list of dot-separated property
+	 * paths, e.g. <code>"foo.bar,baz"</code>. Results are cached, so
+	 * repeatedly parsing the same projection returns the same tree instance
+	 * and reuses its compiled forms.
+	 * @param paths The property paths
+	 * @return The tree containing all given paths
+	 * @throws IllegalArgumentException if a path contains an empty property name
+	 */
+	public static PropertyTree parse(final String paths) {
+		final PropertyTree cachedTree = PropertyTree.PARSED_TREES.get(paths);
+		if (cachedTree != null) {
+			return cachedTree;
+		}
+		final Builder builder = new Builder();
+		for (final String path : paths.split(",", -1)) {
+			Builder current = builder;
+			for (final String segment : path.split("\\.", -1)) {
+				final String propertyName = segment.trim();
+				if (propertyName.isEmpty()) {
+					throw new IllegalArgumentException("Empty property name in property path \"" + path + "\"");
+				}
+				current = current.with(propertyName);
+			}
+		}
+		// only a few distinct projections are expected, so the cache is simply flushed when it overflows
+		if (PropertyTree.PARSED_TREES.size() >= PropertyTree.MAX_PARSED_TREES) {
+			PropertyTree.PARSED_TREES.clear();
+		}
+		final PropertyTree tree = builder.build();
+		final PropertyTree existingTree = PropertyTree.PARSED_TREES.putIfAbsent(paths, tree);
+		return existingTree == null ? tree : existingTree;
 	}
 
 	public PropertyTree get(final String propertyName) {
@@ -111,4 +238,60 @@ public class PropertyTree {
 		return this.propertyName;
 	}
 
+	@Override
+	public boolean equals(final Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof PropertyTree)) {
+			return false;
+		}
+		final PropertyTree other = (PropertyTree)o;
+		return this.hashCode == other.hashCode
+				&& (this.propertyName == null ? other.propertyName == null : this.propertyName.equals(other.propertyName))
+				&& this.children.equals(other.children);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hashCode;
+	}
+
+	/**
+	 * Resolves the direct children of this tree against the given layout.
+	 * The result is cached on this tree, so repeated copies with the same
+	 * tree only pay for the resolution once per layout.
+	 * @param layout The property layout of the class being copied
+	 * @return The compiled form of this tree
+	 */
+	public Compiled compile(final Layout layout) {
+		if (isLeaf()) {
+			return layout.empty;
+		}
+		final Compiled[] forms = this.compiledForms;
+		for (final Compiled form : forms) {
+			if (form.layout == layout) {
+				return form;
+			}
+		}
+		final Compiled form = new Compiled(layout, this);
+		if (forms.length < PropertyTree.MAX_COMPILED_FORMS) {
+			final Compiled[] newForms = Arrays.copyOf(forms, forms.length + 1);
+			newForms[forms.length] = form;
+			this.compiledForms = newForms;
+		}
+		return form;
+	}
+
+	/**
+	 * Null-safe variant of {@link #compile(Layout)}. A null tree compiles
+	 * to a form without any children, just like a leaf.
+	 * @param propertyTree The tree to compile, may be null
+	 * @param layout The property layout of the class being copied
+	 * @return The compiled form of the tree
+	 */
+	public static Compiled compile(final PropertyTree propertyTree, final Layout layout) {
+		return propertyTree == null ? layout.empty : propertyTree.compile(layout);
+	}
+
 }
@@ -36,6 +36,7 @@ public class Selector<TRoot extends Selector<TRoot, ?>, TParent> {
 	public final TParent _parent;
 	protected final String _propertyName;
 	protected final boolean _include;
+	private volatile PropertyTree propertyTree = null;
 
 	@SuppressWarnings("unchecked")
 	public Selector(final TRoot root, final TParent parent, final String propertyName, final boolean include) {
@@ -43,6 +44,7 @@ public class Selector<TRoot extends Selector<TRoot, ?>, TParent> {
 			this._parent = parent;
 			this._propertyName = propertyName;
 			this._include = include;
+			Selector.invalidate(parent);
 	}
 
 	public Selector(final TRoot root, final TParent parent, final String propertyName) {
@@ -66,10 +68,23 @@ public class Selector<TRoot extends Selector<TRoot, ?>, TParent> {
 	}
 
 	/**
-	 * This is only used by builders and other implementational details
-	 * @return A property tree specified by this selector
+	 * This is only used by builders and other implementational details.
+	 * The tree is cached until a new child selector is added below this one,
+	 * so a selector kept e.g. in a static final field builds its tree only once.
+	 * @return The property tree specified by this selector
 	 */
 	public PropertyTree init() {
-		return new PropertyTree(this._propertyName, buildChildren());
+		PropertyTree tree = this.propertyTree;
+		if (tree == null) {
+			tree = new PropertyTree(this._propertyName, buildChildren());
+			this.propertyTree = tree;
+		}
+		return tree;
+	}
+
+	private static void invalidate(final Object parent) {
+		for (Object selector = parent; selector instanceof Selector; selector = ((Selector<?, ?>)selector)._parent) {
+			((Selector<?, ?>)selector).propertyTree = null;
+		}
 	}
 }
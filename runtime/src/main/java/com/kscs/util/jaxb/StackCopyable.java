@@ -0,0 +1,47 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+/**
+ * Created by jaxb-rich-contract-plugin.
+ * Contract for objects that can be deep-copied by a {@link CopyStack},
+ * without recursing into child objects on the Java call stack.
+ */
+public interface StackCopyable {
+	/**
+	 * @return A new object of the same class as this one, with all properties
+	 * still referring to the values of this object.
+	 */
+	Object createCopyTarget();
+
+	/**
+	 * Replaces the property values of <code>target</code> with copies of the
+	 * values of this object. Child objects that are themselves
+	 * StackCopyable are not copied here, but pushed on the stack.
+	 * @param target The object returned by {@link #createCopyTarget()}
+	 * @param stack The stack to push child objects on
+	 */
+	void copyFieldsInto(Object target, CopyStack stack);
+}
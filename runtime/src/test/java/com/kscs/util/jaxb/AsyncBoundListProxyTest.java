@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncBoundListProxyTest {
+	private final Queue<Runnable> scheduled = new ArrayDeque<>();
+	private final AsyncBoundListProxy<String> proxy = new AsyncBoundListProxy<>(new ArrayList<>(Arrays.asList("a")), null, "items", new OrderedExecutor(this.scheduled::add));
+
+	private void runScheduled() {
+		while (!this.scheduled.isEmpty()) {
+			this.scheduled.poll().run();
+		}
+	}
+
+	@Test
+	public void testSingleChangeIsDeliveredAsIs() {
+		final List<CollectionChangeEvent<String>> events = new ArrayList<>();
+		this.proxy.addCollectionChangeListener(events::add);
+		this.proxy.add("b");
+		Assert.assertTrue(events.isEmpty());
+		runScheduled();
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals(CollectionChangeEventType.ADD, events.get(0).getEventType());
+		Assert.assertEquals(Collections.singletonList("a"), new ArrayList<>(events.get(0).getOldItems()));
+		Assert.assertEquals(Collections.singletonList("b"), new ArrayList<>(events.get(0).getNewItems()));
+	}
+
+	@Test
+	public void testPendingChangesAreMergedWithOriginalOldItems() {
+		final List<CollectionChangeEvent<String>> events = new ArrayList<>();
+		this.proxy.addCollectionChangeListener(events::add);
+		this.proxy.add("b");
+		this.proxy.remove("a");
+		this.proxy.add(0, "c");
+		this.proxy.set(1, "d");
+		runScheduled();
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals(CollectionChangeEventType.BATCH, events.get(0).getEventType());
+		Assert.assertEquals(Collections.singletonList("a"), new ArrayList<>(events.get(0).getOldItems()));
+		Assert.assertEquals(Arrays.asList("c", "d"), new ArrayList<>(events.get(0).getNewItems()));
+	}
+
+	@Test
+	public void testDeliveredEventIsNotAffectedByLaterChanges() {
+		final List<CollectionChangeEvent<String>> events = new ArrayList<>();
+		this.proxy.addCollectionChangeListener(events::add);
+		this.proxy.add("b");
+		runScheduled();
+		this.proxy.clear();
+		Assert.assertEquals(Collections.singletonList("a"), new ArrayList<>(events.get(0).getOldItems()));
+		runScheduled();
+		Assert.assertEquals(2, events.size());
+		Assert.assertEquals(Arrays.asList("a", "b"), new ArrayList<>(events.get(1).getOldItems()));
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.beans.IndexedPropertyChangeEvent;
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncPropertyChangeSupportTest {
+	private final Queue<Runnable> scheduled = new ArrayDeque<>();
+	private final Object source = new Object();
+	private final AsyncPropertyChangeSupport support = new AsyncPropertyChangeSupport(this.source, this.scheduled::add);
+
+	private void runScheduled() {
+		while (!this.scheduled.isEmpty()) {
+			this.scheduled.poll().run();
+		}
+	}
+
+	@Test
+	public void testEventsAreDeliveredAsynchronously() {
+		final List<PropertyChangeEvent> events = new ArrayList<>();
+		this.support.addPropertyChangeListener(events::add);
+		this.support.firePropertyChange("name", "a", "b");
+		Assert.assertTrue(events.isEmpty());
+		runScheduled();
+		Assert.assertEquals(1, events.size());
+		Assert.assertSame(this.source, events.get(0).getSource());
+		Assert.assertEquals("a", events.get(0).getOldValue());
+		Assert.assertEquals("b", events.get(0).getNewValue());
+	}
+
+	@Test
+	public void testPendingChangesAreMerged() {
+		final List<PropertyChangeEvent> events = new ArrayList<>();
+		this.support.addPropertyChangeListener(events::add);
+		this.support.firePropertyChange("name", "a", "b");
+		this.support.firePropertyChange("name", "b", "c");
+		this.support.firePropertyChange("other", 1, 2);
+		runScheduled();
+		Assert.assertEquals(2, events.size());
+		Assert.assertEquals("name", events.get(0).getPropertyName());
+		Assert.assertEquals("a", events.get(0).getOldValue());
+		Assert.assertEquals("c", events.get(0).getNewValue());
+		Assert.assertEquals("other", events.get(1).getPropertyName());
+	}
+
+	@Test
+	public void testChangesAreNotMergedAcrossOtherEvents() {
+		final List<PropertyChangeEvent> events = new ArrayList<>();
+		this.support.addPropertyChangeListener(events::add);
+		this.support.firePropertyChange("name", "a", "b");
+		this.support.firePropertyChange("other", 1, 2);
+		this.support.firePropertyChange("name", "b", "c");
+		runScheduled();
+		Assert.assertEquals(3, events.size());
+		Assert.assertEquals("b", events.get(0).getNewValue());
+		Assert.assertEquals("other", events.get(1).getPropertyName());
+		Assert.assertEquals("b", events.get(2).getOldValue());
+		Assert.assertEquals("c", events.get(2).getNewValue());
+	}
+
+	@Test
+	public void testIndexedChangesAreNotMerged() {
+		final List<PropertyChangeEvent> events = new ArrayList<>();
+		this.support.addPropertyChangeListener(events::add);
+		this.support.fireIndexedPropertyChange("values", 0, "a", "b");
+		this.support.fireIndexedPropertyChange("values", 1, "c", "d");
+		this.support.firePropertyChange("values", null, "e");
+		runScheduled();
+		Assert.assertEquals(3, events.size());
+		Assert.assertEquals(0, ((IndexedPropertyChangeEvent)events.get(0)).getIndex());
+		Assert.assertEquals(1, ((IndexedPropertyChangeEvent)events.get(1)).getIndex());
+		Assert.assertEquals("e", events.get(2).getNewValue());
+	}
+
+	@Test
+	public void testListEventsAreOrderedWithPropertyEvents() {
+		final List<String> delivered = new ArrayList<>();
+		this.support.addPropertyChangeListener(event -> delivered.add(event.getPropertyName()));
+		final AsyncBoundListProxy<String> list = new AsyncBoundListProxy<>(new ArrayList<>(), null, "items", this.support);
+		list.addCollectionChangeListener(event -> delivered.add("items"));
+
+		this.support.firePropertyChange("first", 1, 2);
+		list.add("a");
+		this.support.firePropertyChange("second", 1, 2);
+		runScheduled();
+
+		Assert.assertEquals(List.of("first", "items", "second"), delivered);
+	}
+
+	@Test
+	public void testListChangesAreNotMergedAcrossPropertyEvents() {
+		final List<String> delivered = new ArrayList<>();
+		this.support.addPropertyChangeListener(event -> delivered.add(event.getPropertyName()));
+		final AsyncBoundListProxy<String> list = new AsyncBoundListProxy<>(new ArrayList<>(), null, "items", this.support);
+		final List<CollectionChangeEvent<String>> listEvents = new ArrayList<>();
+		list.addCollectionChangeListener(event -> {
+			delivered.add("items");
+			listEvents.add(event);
+		});
+
+		list.add("a");
+		list.add("b");
+		this.support.firePropertyChange("name", 1, 2);
+		list.add("c");
+		runScheduled();
+
+		Assert.assertEquals(List.of("items", "name", "items"), delivered);
+		Assert.assertEquals(CollectionChangeEventType.BATCH, listEvents.get(0).getEventType());
+		Assert.assertEquals(List.of(), listEvents.get(0).getOldItems());
+		Assert.assertEquals(List.of("a", "b"), listEvents.get(0).getNewItems());
+		Assert.assertEquals(CollectionChangeEventType.ADD, listEvents.get(1).getEventType());
+		Assert.assertEquals(List.of("a", "b"), listEvents.get(1).getOldItems());
+		Assert.assertEquals(List.of("c"), listEvents.get(1).getNewItems());
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.beans.PropertyVetoException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BoundListProxyTest {
+	@Test
+	public void testOldItemsReflectStateBeforeEachChange() {
+		final BoundListProxy<String> proxy = new BoundListProxy<>(new ArrayList<>());
+		final List<CollectionChangeEvent<String>> events = new ArrayList<>();
+		proxy.addCollectionChangeListener(events::add);
+		final List<List<String>> expected = new ArrayList<>();
+
+		expected.add(new ArrayList<>(proxy));
+		proxy.add("a");
+		expected.add(new ArrayList<>(proxy));
+		proxy.addAll(Arrays.asList("b", "c", "d"));
+		expected.add(new ArrayList<>(proxy));
+		proxy.add(1, "x");
+		expected.add(new ArrayList<>(proxy));
+		proxy.set(2, "y");
+		expected.add(new ArrayList<>(proxy));
+		proxy.remove(0);
+		expected.add(new ArrayList<>(proxy));
+		proxy.remove("c");
+		expected.add(new ArrayList<>(proxy));
+		proxy.remove("nothing");
+		expected.add(new ArrayList<>(proxy));
+		proxy.addAll(1, Arrays.asList("p", "q"));
+		expected.add(new ArrayList<>(proxy));
+		proxy.removeAll(Arrays.asList("p", "d"));
+		expected.add(new ArrayList<>(proxy));
+		proxy.add("z");
+		final Iterator<String> it = proxy.iterator();
+		it.next();
+		it.remove();
+		expected.add(new ArrayList<>(proxy));
+		proxy.add("w");
+		proxy.clear();
+
+		Assert.assertEquals(expected.size() + 1, events.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertEquals("event " + i, expected.get(i), new ArrayList<>(events.get(i).getOldItems()));
+		}
+		Assert.assertEquals(Arrays.asList("q", "y", "z", "w"), new ArrayList<>(events.get(expected.size()).getOldItems()));
+	}
+
+	@Test
+	public void testVetoedChangeLeavesOldItemsIntact() {
+		final BoundListProxy<String> proxy = new BoundListProxy<>(new ArrayList<>(Arrays.asList("a", "b")));
+		final List<CollectionChangeEvent<String>> events = new ArrayList<>();
+		proxy.addVetoableCollectionChangeListener(event -> {
+			events.add(event);
+			if (event.getNewItems().contains("veto")) {
+				throw new PropertyVetoException("veto", null);
+			}
+		});
+		try {
+			proxy.add("veto");
+			Assert.fail();
+		} catch (final RuntimeException x) {
+			Assert.assertTrue(x.getCause() instanceof PropertyVetoException);
+		}
+		proxy.add(0, "c");
+		Assert.assertEquals(Arrays.asList("c", "a", "b"), proxy);
+		final Collection<String> vetoedOldItems = events.get(0).getOldItems();
+		Assert.assertEquals(Arrays.asList("a", "b"), new ArrayList<>(vetoedOldItems));
+		Assert.assertEquals(Arrays.asList("a", "b"), new ArrayList<>(events.get(1).getOldItems()));
+	}
+}
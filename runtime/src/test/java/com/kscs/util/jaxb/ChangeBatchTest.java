@@ -0,0 +1,216 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeSupport;
+import java.beans.PropertyVetoException;
+import java.beans.VetoableChangeSupport;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ChangeBatchTest {
+	/**
+	 * Mimics the code generated with "-constrained-properties.changeBatch=y".
+	 */
+	private static final class Bean implements ChangeBatchOwner {
+		private final VetoableChangeSupport vetoableChangeSupport = new VetoableChangeSupport(this);
+		private final PropertyChangeSupport propertyChangeSupport = new PropertyChangeSupport(this);
+		private final BoundListProxy<String> items = new BoundListProxy<>(new ArrayList<>(), this, "items");
+		private ChangeBatch changeBatch;
+		private String name = "initial";
+
+		@Override
+		public ChangeBatch getActiveChangeBatch() {
+			return this.changeBatch != null && this.changeBatch.isActive() ? this.changeBatch : null;
+		}
+
+		ChangeBatch beginChanges() {
+			if (this.changeBatch == null) {
+				this.changeBatch = new ChangeBatch(this) {
+					@Override
+					protected VetoableChangeSupport getVetoableChangeSupport() {
+						return Bean.this.vetoableChangeSupport;
+					}
+
+					@Override
+					protected PropertyChangeSupport getPropertyChangeSupport() {
+						return Bean.this.propertyChangeSupport;
+					}
+
+					@Override
+					protected void restoreProperty(final String propertyName, final Object value) {
+						Bean.this.name = (String)value;
+					}
+				};
+			}
+			return this.changeBatch.begin();
+		}
+
+		void setName(final String value) throws PropertyVetoException {
+			final String oldValue = this.name;
+			if (this.changeBatch != null && this.changeBatch.isActive()) {
+				this.changeBatch.propertyChange("name", oldValue, value);
+				this.name = value;
+				return;
+			}
+			this.vetoableChangeSupport.fireVetoableChange("name", oldValue, value);
+			this.name = value;
+			this.propertyChangeSupport.firePropertyChange("name", oldValue, value);
+		}
+	}
+
+	@Test
+	public void testBatchIsCreatedOnDemand() {
+		final Bean bean = new Bean();
+		Assert.assertNull(bean.changeBatch);
+		Assert.assertNull(bean.getActiveChangeBatch());
+		bean.items.add("a");
+		Assert.assertNull(bean.changeBatch);
+		Assert.assertSame(bean.beginChanges(), bean.getActiveChangeBatch());
+	}
+
+	@Test
+	public void testCommitNotifiesOnceWithFinalState() throws PropertyVetoException {
+		final Bean bean = new Bean();
+		final List<PropertyChangeEvent> events = new ArrayList<>();
+		final List<CollectionChangeEvent<String>> collectionEvents = new ArrayList<>();
+		bean.propertyChangeSupport.addPropertyChangeListener(events::add);
+		bean.items.addCollectionChangeListener(collectionEvents::add);
+
+		try (final ChangeBatch batch = bean.beginChanges()) {
+			bean.setName("first");
+			bean.setName("second");
+			bean.items.add("a");
+			bean.items.add("b");
+			Assert.assertTrue(events.isEmpty());
+			Assert.assertTrue(collectionEvents.isEmpty());
+			batch.commit();
+		}
+
+		Assert.assertEquals(1, events.size());
+		final CompoundPropertyChangeEvent compoundEvent = (CompoundPropertyChangeEvent)events.get(0);
+		Assert.assertEquals(2, compoundEvent.getChanges().size());
+		Assert.assertEquals("initial", compoundEvent.getChanges().get(0).getOldValue());
+		Assert.assertEquals("second", compoundEvent.getChanges().get(0).getNewValue());
+		Assert.assertEquals(1, collectionEvents.size());
+		Assert.assertEquals(Collections.emptyList(), new ArrayList<>(collectionEvents.get(0).getOldItems()));
+		Assert.assertEquals(Arrays.asList("a", "b"), new ArrayList<>(collectionEvents.get(0).getNewItems()));
+		Assert.assertNull(bean.getActiveChangeBatch());
+	}
+
+	@Test
+	public void testVetoRevertsAllChanges() throws PropertyVetoException {
+		final Bean bean = new Bean();
+		bean.items.add("a");
+		final List<PropertyChangeEvent> events = new ArrayList<>();
+		bean.propertyChangeSupport.addPropertyChangeListener(events::add);
+		bean.vetoableChangeSupport.addVetoableChangeListener(event -> {
+			if ("vetoed".equals(event.getNewValue())) {
+				throw new PropertyVetoException("vetoed", event);
+			}
+		});
+
+		try (final ChangeBatch batch = bean.beginChanges()) {
+			bean.setName("vetoed");
+			bean.items.add("b");
+			batch.commit();
+			Assert.fail("Change should have been vetoed");
+		} catch (final PropertyVetoException pvx) {
+			Assert.assertEquals("vetoed", pvx.getMessage());
+		}
+
+		Assert.assertEquals("initial", bean.name);
+		Assert.assertEquals(Collections.singletonList("a"), bean.items);
+		Assert.assertTrue(events.isEmpty());
+		Assert.assertNull(bean.getActiveChangeBatch());
+	}
+
+	@Test
+	public void testCloseWithoutCommitRollsBack() throws PropertyVetoException {
+		final Bean bean = new Bean();
+		bean.items.add("a");
+		final List<PropertyChangeEvent> events = new ArrayList<>();
+		bean.propertyChangeSupport.addPropertyChangeListener(events::add);
+
+		try (final ChangeBatch batch = bean.beginChanges()) {
+			Assert.assertSame(batch, bean.getActiveChangeBatch());
+			bean.setName("changed");
+			bean.items.clear();
+			throw new IllegalArgumentException("failure");
+		} catch (final IllegalArgumentException iax) {
+			Assert.assertEquals("failure", iax.getMessage());
+		}
+
+		Assert.assertEquals("initial", bean.name);
+		Assert.assertEquals(Collections.singletonList("a"), bean.items);
+		Assert.assertTrue(events.isEmpty());
+		Assert.assertNull(bean.getActiveChangeBatch());
+
+		// the batch can be used again after a rollback
+		try (final ChangeBatch batch = bean.beginChanges()) {
+			bean.setName("again");
+			batch.commit();
+		}
+		Assert.assertEquals("again", bean.name);
+		Assert.assertEquals(1, events.size());
+	}
+
+	@Test
+	public void testNestedBatches() throws PropertyVetoException {
+		final Bean bean = new Bean();
+		final List<PropertyChangeEvent> events = new ArrayList<>();
+		bean.propertyChangeSupport.addPropertyChangeListener(events::add);
+
+		try (final ChangeBatch outer = bean.beginChanges()) {
+			try (final ChangeBatch inner = bean.beginChanges()) {
+				bean.setName("inner");
+				inner.commit();
+			}
+			Assert.assertTrue(events.isEmpty());
+			Assert.assertSame(outer, bean.getActiveChangeBatch());
+			outer.commit();
+		}
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals("inner", bean.name);
+
+		try (final ChangeBatch outer = bean.beginChanges()) {
+			try (final ChangeBatch inner = bean.beginChanges()) {
+				bean.setName("committed inner");
+				inner.commit();
+			}
+			Assert.assertSame(outer, bean.getActiveChangeBatch());
+			bean.items.add("uncommitted");
+		}
+		Assert.assertEquals("inner", bean.name);
+		Assert.assertTrue(bean.items.isEmpty());
+		Assert.assertEquals(1, events.size());
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.beans.PropertyVetoException;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentBoundListTest {
+	private static final int THREADS = 8;
+	private static final int ITEMS_PER_THREAD = 5000;
+
+	@Test
+	public void testConcurrentAddsAreDeliveredInOrder() throws Exception {
+		final ConcurrentBoundList<Integer> list = new ConcurrentBoundList<>();
+		final List<CollectionChangeEvent<Integer>> events = new ArrayList<>();
+		final List<Integer> oldSizes = new ArrayList<>();
+		list.addCollectionChangeListener(event -> {
+			events.add(event);
+			oldSizes.add(event.getOldItems().size());
+		});
+		runConcurrently(thread -> {
+			for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+				list.add(thread * ITEMS_PER_THREAD + i);
+			}
+		});
+
+		final int total = THREADS * ITEMS_PER_THREAD;
+		Assert.assertEquals(total, list.size());
+		Assert.assertEquals(total, events.size());
+		final Set<Integer> distinct = new HashSet<>(list);
+		Assert.assertEquals(total, distinct.size());
+		for (int i = 0; i < total; i++) {
+			Assert.assertEquals(i, events.get(i).getIndex());
+			Assert.assertEquals(Integer.valueOf(i), oldSizes.get(i));
+			Assert.assertEquals(list.get(i), events.get(i).getNewItems().iterator().next());
+		}
+	}
+
+	@Test
+	public void testConcurrentAddAndRemove() throws Exception {
+		final ConcurrentBoundList<Integer> list = new ConcurrentBoundList<>();
+		final int[] balance = new int[1];
+		list.addCollectionChangeListener(event -> {
+			if (event.getEventType() == CollectionChangeEventType.ADD) {
+				balance[0]++;
+			} else if (event.getEventType() == CollectionChangeEventType.REMOVE_AT) {
+				balance[0]--;
+			}
+		});
+		runConcurrently(thread -> {
+			for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+				list.add(i);
+				if (i % 2 == 1) {
+					list.remove(0);
+				}
+				if (i % 500 == 0) {
+					for (final Integer item : list) {
+						Assert.assertNotNull(item);
+					}
+				}
+			}
+		});
+		Assert.assertEquals(THREADS * ITEMS_PER_THREAD / 2, list.size());
+		Assert.assertEquals(list.size(), balance[0]);
+	}
+
+	@Test
+	public void testModifyThroughIterator() {
+		final ConcurrentBoundList<String> list = new ConcurrentBoundList<>(new ArrayList<>(List.of("a", "b", "c")));
+		final List<CollectionChangeEventType> events = new ArrayList<>();
+		list.addCollectionChangeListener(event -> events.add(event.getEventType()));
+
+		final ListIterator<String> iterator = list.listIterator();
+		Assert.assertEquals("a", iterator.next());
+		iterator.remove();
+		Assert.assertEquals("b", iterator.next());
+		iterator.set("B");
+		iterator.add("x");
+		Assert.assertEquals("c", iterator.next());
+		Assert.assertFalse(iterator.hasNext());
+
+		Assert.assertEquals(List.of("B", "x", "c"), list);
+		Assert.assertEquals(List.of(CollectionChangeEventType.REMOVE_AT, CollectionChangeEventType.SET_AT, CollectionChangeEventType.ADD_AT), events);
+	}
+
+	@Test
+	public void testModifyThroughSubList() {
+		final ConcurrentBoundList<String> list = new ConcurrentBoundList<>(new ArrayList<>(List.of("a", "b", "c", "d")));
+		final List<String> subList = list.subList(1, 3);
+		Assert.assertEquals(List.of("b", "c"), subList);
+
+		subList.add("x");
+		Assert.assertEquals(List.of("a", "b", "c", "x", "d"), list);
+		subList.clear();
+		Assert.assertTrue(subList.isEmpty());
+		Assert.assertEquals(List.of("a", "d"), list);
+	}
+
+	@Test
+	public void testIteratorReadsSnapshotButRejectsStaleModification() {
+		final ConcurrentBoundList<String> list = new ConcurrentBoundList<>(new ArrayList<>(List.of("a", "b")));
+		final Iterator<String> iterator = list.iterator();
+		Assert.assertEquals("a", iterator.next());
+		list.add("c");
+		Assert.assertEquals("b", iterator.next());
+		Assert.assertFalse(iterator.hasNext());
+		try {
+			iterator.remove();
+			Assert.fail();
+		} catch (final ConcurrentModificationException cmx) {
+			Assert.assertEquals(List.of("a", "b", "c"), list);
+		}
+
+		final List<String> subList = list.subList(0, 2);
+		list.remove("c");
+		try {
+			subList.get(0);
+			Assert.fail();
+		} catch (final ConcurrentModificationException cmx) {
+			Assert.assertEquals(List.of("a", "b"), list);
+		}
+	}
+
+	@Test
+	public void testVetoedIteratorModificationKeepsIteratorUsable() {
+		final ConcurrentBoundList<String> list = new ConcurrentBoundList<>(new ArrayList<>(List.of("a", "b")));
+		list.addVetoableCollectionChangeListener(event -> {
+			if (event.getEventType() == CollectionChangeEventType.REMOVE_AT) {
+				throw new PropertyVetoException("no removal", null);
+			}
+		});
+		final ListIterator<String> iterator = list.listIterator();
+		iterator.next();
+		try {
+			iterator.remove();
+			Assert.fail();
+		} catch (final RuntimeException rx) {
+			Assert.assertEquals(List.of("a", "b"), list);
+		}
+		iterator.set("A");
+		Assert.assertEquals(List.of("A", "b"), list);
+	}
+
+	private void runConcurrently(final ThreadBody body) throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			futures.add(executor.submit(() -> {
+				start.await();
+				body.run(thread);
+				return null;
+			}));
+		}
+		start.countDown();
+		for (final Future<?> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+	}
+
+	private interface ThreadBody {
+		void run(final int thread);
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CopyContextTest {
+	@Test
+	public void testNestedOpenJoinsAndOutermostCloseForgets() {
+		final Object source = new Object();
+		final Object copy = new Object();
+		final CopyContext outer = CopyContext.open();
+		try {
+			final CopyContext inner = CopyContext.open();
+			try {
+				Assert.assertSame(outer, inner);
+				inner.register(source, copy);
+			} finally {
+				inner.close();
+			}
+			Assert.assertSame(copy, outer.get(source));
+		} finally {
+			outer.close();
+		}
+		final CopyContext next = CopyContext.open();
+		try {
+			Assert.assertNull(next.get(source));
+			Assert.assertFalse(next.contains(source));
+		} finally {
+			next.close();
+		}
+	}
+
+	@Test
+	public void testBuilderContextIsSeparate() {
+		final Object source = new Object();
+		final CopyContext copyContext = CopyContext.open();
+		try {
+			copyContext.register(source, "copy");
+			final CopyContext builderContext = CopyContext.openBuilderContext();
+			try {
+				Assert.assertNotSame(copyContext, builderContext);
+				Assert.assertFalse(builderContext.contains(source));
+				builderContext.register(source, "builder");
+				Assert.assertEquals("copy", copyContext.get(source));
+			} finally {
+				builderContext.close();
+			}
+		} finally {
+			copyContext.close();
+		}
+	}
+
+	@Test
+	public void testContainsDistinguishesNullRegistration() {
+		final Object source = new Object();
+		final CopyContext copyContext = CopyContext.openBuilderContext();
+		try {
+			Assert.assertFalse(copyContext.contains(source));
+			copyContext.register(source, null);
+			Assert.assertTrue(copyContext.contains(source));
+			Assert.assertNull(copyContext.lookup(source));
+			copyContext.register(source, "product");
+			final String product = copyContext.lookup(source);
+			Assert.assertEquals("product", product);
+		} finally {
+			copyContext.close();
+		}
+	}
+
+	@Test
+	public void testUnboundContextIgnoresUnbalancedClose() {
+		final CopyContext copyContext = new CopyContext();
+		final Object source = new Object();
+		copyContext.register(source, "copy");
+		copyContext.close();
+		Assert.assertEquals("copy", copyContext.get(source));
+	}
+}
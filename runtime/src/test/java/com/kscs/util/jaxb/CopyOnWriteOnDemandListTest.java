@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CopyOnWriteOnDemandListTest {
+	@Test
+	public void testCopySharesUntilWrite() {
+		final CopyOnWriteOnDemandList<String> source = new CopyOnWriteOnDemandList<>(Arrays.asList("a", "b", "c"));
+		final CopyOnWriteOnDemandList<String> copy = new CopyOnWriteOnDemandList<>(source);
+		Assert.assertTrue(source.isShared());
+		Assert.assertTrue(copy.isShared());
+		Assert.assertEquals(source, copy);
+
+		copy.add("d");
+		Assert.assertFalse(copy.isShared());
+		Assert.assertFalse(source.isShared());
+		Assert.assertEquals(Arrays.asList("a", "b", "c"), source);
+		Assert.assertEquals(Arrays.asList("a", "b", "c", "d"), copy);
+	}
+
+	@Test
+	public void testWriteToSourceLeavesCopyUnchanged() {
+		final CopyOnWriteOnDemandList<String> source = new CopyOnWriteOnDemandList<>(Arrays.asList("a", "b", "c"));
+		final List<String> copy = new CopyOnWriteOnDemandList<>(source);
+		source.subList(0, 2).clear();
+		source.set(0, "x");
+		Assert.assertEquals(Arrays.asList("x"), source);
+		Assert.assertEquals(Arrays.asList("a", "b", "c"), copy);
+		copy.clear();
+		Assert.assertTrue(copy.isEmpty());
+		Assert.assertEquals(Arrays.asList("x"), source);
+	}
+}
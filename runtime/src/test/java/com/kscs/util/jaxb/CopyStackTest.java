@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CopyStackTest {
+	private static class Node implements StackCopyable, Cloneable {
+		private int value;
+		private Node next;
+
+		@Override
+		public Object createCopyTarget() {
+			try {
+				return super.clone();
+			} catch (final CloneNotSupportedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		@Override
+		public void copyFieldsInto(final Object target, final CopyStack stack) {
+			final Node node = (Node)target;
+			node.next = this.next == null ? null : stack.push(this.next);
+		}
+	}
+
+	@Test
+	public void testCopiesChainsDeeperThanTheThreadStack() {
+		final int depth = 1_000_000;
+		final Node head = new Node();
+		Node node = head;
+		for (int i = 1; i < depth; i++) {
+			node.next = new Node();
+			node.next.value = i;
+			node = node.next;
+		}
+		final Node copy = CopyStack.copy(head);
+		Node original = head;
+		node = copy;
+		for (int i = 0; i < depth; i++) {
+			Assert.assertNotSame(original, node);
+			Assert.assertEquals(i, node.value);
+			original = original.next;
+			node = node.next;
+		}
+		Assert.assertNull(node);
+	}
+}
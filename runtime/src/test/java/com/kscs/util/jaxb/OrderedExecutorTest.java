@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OrderedExecutorTest {
+	private final Queue<Runnable> scheduled = new ArrayDeque<>();
+	private final OrderedExecutor executor = new OrderedExecutor(this.scheduled::add);
+
+	@Test
+	public void testTasksRunInSubmissionOrder() {
+		final List<Integer> results = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			final int n = i;
+			this.executor.execute(() -> results.add(n));
+		}
+		Assert.assertEquals(1, this.scheduled.size());
+		this.scheduled.poll().run();
+		Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), results);
+		Assert.assertTrue(this.scheduled.isEmpty());
+	}
+
+	@Test
+	public void testRuntimeExceptionDoesNotStopQueue() {
+		final List<String> results = new ArrayList<>();
+		final List<Throwable> reported = new ArrayList<>();
+		final Thread thread = Thread.currentThread();
+		final Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+		thread.setUncaughtExceptionHandler((t, e) -> reported.add(e));
+		try {
+			this.executor.execute(() -> {
+				throw new IllegalStateException("failure");
+			});
+			this.executor.execute(() -> results.add("after"));
+			this.scheduled.poll().run();
+		} finally {
+			thread.setUncaughtExceptionHandler(handler);
+		}
+		Assert.assertEquals(1, reported.size());
+		Assert.assertEquals("failure", reported.get(0).getMessage());
+		Assert.assertEquals(Arrays.asList("after"), results);
+	}
+
+	@Test
+	public void testErrorDoesNotStallQueue() {
+		final List<String> results = new ArrayList<>();
+		this.executor.execute(() -> {
+			throw new Error("fatal");
+		});
+		this.executor.execute(() -> results.add("pending"));
+		try {
+			this.scheduled.poll().run();
+			Assert.fail("Error should have been propagated");
+		} catch (final Error e) {
+			Assert.assertEquals("fatal", e.getMessage());
+		}
+		// the remaining task is run on a new drain
+		Assert.assertEquals(1, this.scheduled.size());
+		this.scheduled.poll().run();
+		Assert.assertEquals(Arrays.asList("pending"), results);
+
+		// and tasks submitted afterwards are scheduled again
+		this.executor.execute(() -> results.add("later"));
+		Assert.assertEquals(1, this.scheduled.size());
+		this.scheduled.poll().run();
+		Assert.assertEquals(Arrays.asList("pending", "later"), results);
+	}
+
+	@Test
+	public void testErrorInLastTaskResetsState() {
+		this.executor.execute(() -> {
+			throw new Error("fatal");
+		});
+		try {
+			this.scheduled.poll().run();
+			Assert.fail("Error should have been propagated");
+		} catch (final Error e) {
+			Assert.assertTrue(this.scheduled.isEmpty());
+		}
+		final List<String> results = new ArrayList<>();
+		this.executor.execute(() -> results.add("next"));
+		Assert.assertEquals(1, this.scheduled.size());
+		this.scheduled.poll().run();
+		Assert.assertEquals(Arrays.asList("next"), results);
+	}
+}
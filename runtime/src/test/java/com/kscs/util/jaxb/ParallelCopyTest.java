@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelCopyTest {
+	@Test
+	public void testParallelCopyKeepsOrder() {
+		final List<Integer> source = new ArrayList<>();
+		for (int i = 0; i < 100_000; i++) {
+			source.add(i);
+		}
+		final List<Integer> copy = new ArrayList<>();
+		ParallelCopy.copyInto(source, copy, 1000, new ParallelCopy.Copier<Integer, RuntimeException>() {
+			@Override
+			public Integer copy(final Integer element) {
+				return element + 1;
+			}
+		});
+		Assert.assertEquals(source.size(), copy.size());
+		for (int i = 0; i < source.size(); i++) {
+			Assert.assertEquals(i + 1, copy.get(i).intValue());
+		}
+	}
+
+	@Test(expected = CloneNotSupportedException.class)
+	public void testCheckedExceptionIsRethrown() throws CloneNotSupportedException {
+		final List<Integer> source = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			source.add(i);
+		}
+		ParallelCopy.copyInto(source, new ArrayList<>(), 1, new ParallelCopy.Copier<Integer, CloneNotSupportedException>() {
+			@Override
+			public Integer copy(final Integer element) throws CloneNotSupportedException {
+				if (element == 5_000) {
+					throw new CloneNotSupportedException();
+				}
+				return element;
+			}
+		});
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PartialCopierTest {
+	public static class Node implements PartialCopyable<Node>, Cloneable {
+		private static final PropertyTree.Layout __propertyLayout = new PropertyTree.Layout("name", "child", "children");
+		protected String name;
+		protected Node child;
+		protected List<Node> children;
+
+		@Override
+		public Node createCopy(final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse) {
+			return PartialCopier.copy(this, propertyTree, propertyTreeUse);
+		}
+
+		@Override
+		public Node copyExcept(final PropertyTree propertyTree) {
+			return createCopy(propertyTree, PropertyTreeUse.EXCLUDE);
+		}
+
+		@Override
+		public Node copyOnly(final PropertyTree propertyTree) {
+			return createCopy(propertyTree, PropertyTreeUse.INCLUDE);
+		}
+	}
+
+	public static class NamedNode extends Node {
+		private static final PropertyTree.Layout __propertyLayout = new PropertyTree.Layout("alias");
+		protected Node alias;
+	}
+
+	/**
+	 * Mimics a list property of a class generated with the "immutable" plugin
+	 */
+	public static class ImmutableNode extends Node {
+		private static final PropertyTree.Layout __propertyLayout = new PropertyTree.Layout("items");
+		protected List<Node> items;
+		protected transient List<Node> items_RO = null;
+
+		public List<Node> getItems() {
+			if (this.items == null) {
+				this.items = new ArrayList<>();
+			}
+			if (this.items_RO == null) {
+				this.items_RO = Collections.unmodifiableList(this.items);
+			}
+			return this.items_RO;
+		}
+	}
+
+	private static Node node(final String name) {
+		final Node node = new Node();
+		node.name = name;
+		return node;
+	}
+
+	@Test
+	public void testCopiesOnlySelectedProperties() {
+		final NamedNode source = new NamedNode();
+		source.name = "root";
+		source.child = node("child");
+		source.child.child = node("grandchild");
+		source.alias = node("alias");
+		source.children = new ArrayList<>();
+		source.children.add(node("first"));
+		source.children.add(null);
+
+		final NamedNode copy = PartialCopier.copy(source, PropertyTree.parse("child.child,children"), PropertyTreeUse.INCLUDE);
+		Assert.assertNotSame(source, copy);
+		Assert.assertEquals("root", copy.name);
+		Assert.assertNotSame(source.child, copy.child);
+		Assert.assertNotSame(source.child.child, copy.child.child);
+		Assert.assertEquals("grandchild", copy.child.child.name);
+		Assert.assertNotSame(source.children, copy.children);
+		Assert.assertNotSame(source.children.get(0), copy.children.get(0));
+		Assert.assertNull(copy.children.get(1));
+		// Properties that aren't selected are shared, like in a shallow copy
+		Assert.assertSame(source.alias, copy.alias);
+
+		final NamedNode exceptCopy = PartialCopier.copy(source, PropertyTree.parse("child"), PropertyTreeUse.EXCLUDE);
+		Assert.assertSame(source.child, exceptCopy.child);
+		Assert.assertNotSame(source.alias, exceptCopy.alias);
+	}
+
+	@Test
+	public void testCopiersAreCached() {
+		final PropertyTree tree = PropertyTree.parse("child");
+		Assert.assertSame(PartialCopier.of(Node.class, tree, PropertyTreeUse.INCLUDE), PartialCopier.of(Node.class, PropertyTree.parse("child"), PropertyTreeUse.INCLUDE));
+		Assert.assertNotSame(PartialCopier.of(Node.class, tree, PropertyTreeUse.INCLUDE), PartialCopier.of(Node.class, tree, PropertyTreeUse.EXCLUDE));
+	}
+
+	@Test
+	public void testReadOnlyViewsShowCopiedLists() {
+		final ImmutableNode source = new ImmutableNode();
+		source.items = new ArrayList<>();
+		source.items.add(node("item"));
+		Assert.assertEquals(1, source.getItems().size());
+
+		final ImmutableNode copy = PartialCopier.copy(source, PropertyTree.parse("items"), PropertyTreeUse.INCLUDE);
+		Assert.assertNotSame(source.items, copy.items);
+		copy.items.add(node("added"));
+		Assert.assertEquals(2, copy.getItems().size());
+		Assert.assertEquals(1, source.getItems().size());
+		Assert.assertNotSame(source.getItems().get(0), copy.getItems().get(0));
+	}
+
+	@Test
+	public void testCopiesChildrenOfMixedClasses() {
+		final Node source = node("root");
+		source.children = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			final Node child = i % 2 == 0 ? node("plain") : new NamedNode();
+			child.child = node("grandchild");
+			source.children.add(child);
+		}
+
+		final Node copy = PartialCopier.copy(source, PropertyTree.parse("children.child"), PropertyTreeUse.INCLUDE);
+		for (int i = 0; i < 4; i++) {
+			Assert.assertSame(source.children.get(i).getClass(), copy.children.get(i).getClass());
+			Assert.assertNotSame(source.children.get(i), copy.children.get(i));
+			Assert.assertNotSame(source.children.get(i).child, copy.children.get(i).child);
+			Assert.assertEquals("grandchild", copy.children.get(i).child.name);
+		}
+	}
+}
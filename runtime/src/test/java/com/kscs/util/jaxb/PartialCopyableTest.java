@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PartialCopyableTest {
+	private static class Item implements PartialCopyable<Item> {
+		private final int value;
+		private final PropertyTree copiedWith;
+
+		private Item(final int value, final PropertyTree copiedWith) {
+			this.value = value;
+			this.copiedWith = copiedWith;
+		}
+
+		@Override
+		public Item createCopy(final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse) {
+			return new Item(this.value, propertyTree);
+		}
+
+		@Override
+		public Item copyExcept(final PropertyTree propertyTree) {
+			return createCopy(propertyTree, PropertyTreeUse.EXCLUDE);
+		}
+
+		@Override
+		public Item copyOnly(final PropertyTree propertyTree) {
+			return createCopy(propertyTree, PropertyTreeUse.INCLUDE);
+		}
+	}
+
+	@Test
+	public void testCopyAllKeepsOrderAndNulls() {
+		final PropertyTree tree = PropertyTree.parse("a.b");
+		final List<Item> source = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			source.add(i % 100 == 0 ? null : new Item(i, null));
+		}
+		for (final int threshold : new int[]{0, 1000}) {
+			final List<Item> copies = PartialCopyable.copyAll(source, tree, PropertyTreeUse.INCLUDE, threshold);
+			Assert.assertEquals(source.size(), copies.size());
+			for (int i = 0; i < source.size(); i++) {
+				if (source.get(i) == null) {
+					Assert.assertNull(copies.get(i));
+				} else {
+					Assert.assertNotSame(source.get(i), copies.get(i));
+					Assert.assertEquals(i, copies.get(i).value);
+					Assert.assertSame(tree, copies.get(i).copiedWith);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testParallelCopyAllRunsOnConfiguredPool() {
+		final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		final List<PartialCopyable<?>> source = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			source.add(new Item(i, null) {
+				@Override
+				public Item createCopy(final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse) {
+					threads.add(Thread.currentThread());
+					return super.createCopy(propertyTree, propertyTreeUse);
+				}
+			});
+		}
+		final Set<Thread> poolThreads = ConcurrentHashMap.newKeySet();
+		final ForkJoinPool pool = new ForkJoinPool(2, p -> {
+			final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+			poolThreads.add(thread);
+			return thread;
+		}, null, false);
+		ParallelCopy.setPool(pool);
+		try {
+			final List<PartialCopyable<?>> copies = PartialCopyable.copyAll(source, null, PropertyTreeUse.EXCLUDE, 10);
+			Assert.assertEquals(source.size(), copies.size());
+			Assert.assertFalse(threads.isEmpty());
+			Assert.assertTrue(poolThreads.containsAll(threads));
+		} finally {
+			ParallelCopy.setPool(null);
+			pool.shutdown();
+		}
+	}
+}
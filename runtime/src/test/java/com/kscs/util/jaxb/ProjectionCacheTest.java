@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.jaxb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProjectionCacheTest {
+	private static final class Item implements PartialCopyable<Item> {
+		@Override
+		public Item createCopy(final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse) {
+			return new Item();
+		}
+
+		@Override
+		public Item copyExcept(final PropertyTree propertyTree) {
+			return createCopy(propertyTree, PropertyTreeUse.EXCLUDE);
+		}
+
+		@Override
+		public Item copyOnly(final PropertyTree propertyTree) {
+			return createCopy(propertyTree, PropertyTreeUse.INCLUDE);
+		}
+	}
+
+	@Test
+	public void testCopiesAreCachedPerSourceAndTree() {
+		final ProjectionCache cache = new ProjectionCache(16);
+		final Item source = new Item();
+		final Item copy = cache.get(source, PropertyTree.parse("a.b"), PropertyTreeUse.INCLUDE);
+		Assert.assertSame(copy, cache.get(source, PropertyTree.builder().with("a").with("b").build(), PropertyTreeUse.INCLUDE));
+		Assert.assertNotSame(copy, cache.get(source, PropertyTree.parse("a.b"), PropertyTreeUse.EXCLUDE));
+		Assert.assertNotSame(copy, cache.get(new Item(), PropertyTree.parse("a.b"), PropertyTreeUse.INCLUDE));
+		Assert.assertEquals(3, cache.size());
+	}
+
+	@Test
+	public void testInvalidate() {
+		final ProjectionCache cache = new ProjectionCache(16);
+		final Item source = new Item();
+		final Item other = new Item();
+		final Item copy = cache.get(source, PropertyTree.parse("a"), PropertyTreeUse.INCLUDE);
+		cache.get(source, PropertyTree.parse("b"), PropertyTreeUse.INCLUDE);
+		final Item otherCopy = cache.get(other, PropertyTree.parse("a"), PropertyTreeUse.INCLUDE);
+		cache.invalidate(source);
+		Assert.assertEquals(1, cache.size());
+		Assert.assertNotSame(copy, cache.get(source, PropertyTree.parse("a"), PropertyTreeUse.INCLUDE));
+		Assert.assertSame(otherCopy, cache.get(other, PropertyTree.parse("a"), PropertyTreeUse.INCLUDE));
+		cache.invalidateAll();
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testFrequentCopiesAreNotEvictedByRareOnes() {
+		final ProjectionCache cache = new ProjectionCache(2);
+		final PropertyTree tree = PropertyTree.parse("a");
+		final Item first = new Item();
+		final Item second = new Item();
+		for (int i = 0; i < 5; i++) {
+			cache.get(first, tree, PropertyTreeUse.INCLUDE);
+			cache.get(second, tree, PropertyTreeUse.INCLUDE);
+		}
+		final Item firstCopy = cache.get(first, tree, PropertyTreeUse.INCLUDE);
+		for (int i = 0; i < 50; i++) {
+			cache.get(new Item(), tree, PropertyTreeUse.INCLUDE);
+		}
+		Assert.assertEquals(2, cache.size());
+		Assert.assertSame(firstCopy, cache.get(first, tree, PropertyTreeUse.INCLUDE));
+	}
+
+	@Test
+	public void testConcurrentUseStaysBounded() throws Exception {
+		final int threads = 8;
+		final ProjectionCache cache = new ProjectionCache(32);
+		final Item[] sources = new Item[64];
+		for (int i = 0; i < sources.length; i++) {
+			sources[i] = new Item();
+		}
+		final PropertyTree[] trees = {PropertyTree.parse("a"), PropertyTree.parse("b")};
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<?>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				final int seed = t;
+				results.add(executor.submit(() -> {
+					for (int i = 0; i < 20_000; i++) {
+						final Item source = sources[(i * 7 + seed) % (i % 3 == 0 ? sources.length : 8)];
+						if (i % 100 == seed) {
+							cache.invalidate(source);
+						} else {
+							Assert.assertNotNull(cache.get(source, trees[i & 1], PropertyTreeUse.INCLUDE));
+						}
+					}
+				}));
+			}
+			for (final Future<?> result : results) {
+				result.get();
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+		Assert.assertTrue(cache.size() <= 32);
+		cache.invalidateAll();
+		Assert.assertEquals(0, cache.size());
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PropertyTreeTest {
+	@Test
+	public void testCompiledFormMatchesNameLookup() {
+		final String[] names = new String[70];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = "p" + i;
+		}
+		final PropertyTree.Layout layout = new PropertyTree.Layout(names);
+		final PropertyTree.Builder builder = PropertyTree.builder();
+		builder.with("p1");
+		builder.with("p2").with("x");
+		builder.with("p64");
+		builder.with("p69").with("y").with("z");
+		builder.with("unknown");
+		final PropertyTree tree = builder.build();
+
+		final PropertyTree.Compiled compiled = tree.compile(layout);
+		Assert.assertSame(compiled, tree.compile(layout));
+		for (int ordinal = 0; ordinal < names.length; ordinal++) {
+			final PropertyTree child = tree.get(names[ordinal]);
+			Assert.assertSame(child, compiled.get(ordinal));
+			Assert.assertEquals(child != null, compiled.isCopied(ordinal, PropertyTreeUse.INCLUDE));
+			Assert.assertEquals(child == null || !child.isLeaf(), compiled.isCopied(ordinal, PropertyTreeUse.EXCLUDE));
+		}
+	}
+
+	@Test
+	public void testNullAndLeafTreesCompileToEmptyForm() {
+		final PropertyTree.Layout layout = new PropertyTree.Layout("a", "b");
+		final PropertyTree.Compiled empty = PropertyTree.compile(null, layout);
+		Assert.assertSame(empty, PropertyTree.builder().build().compile(layout));
+		for (int ordinal = 0; ordinal < layout.size(); ordinal++) {
+			Assert.assertNull(empty.get(ordinal));
+			Assert.assertFalse(empty.isCopied(ordinal, PropertyTreeUse.INCLUDE));
+			Assert.assertTrue(empty.isCopied(ordinal, PropertyTreeUse.EXCLUDE));
+		}
+	}
+
+	@Test
+	public void testParsedTreesAreCached() {
+		final PropertyTree parsed = PropertyTree.parse("foo.bar, baz,foo.qux");
+		final PropertyTree.Builder builder = PropertyTree.builder();
+		builder.with("baz");
+		builder.with("foo").with("qux");
+		builder.with("foo").with("bar");
+		final PropertyTree built = builder.build();
+		Assert.assertEquals(parsed, built);
+		Assert.assertSame(parsed, PropertyTree.parse("foo.bar, baz,foo.qux"));
+		Assert.assertEquals(parsed.get("foo"), PropertyTree.parse("foo.bar,foo.qux").get("foo"));
+		Assert.assertTrue(parsed.get("baz").isLeaf());
+	}
+
+	private static final class TestSelector extends Selector<TestSelector, Object> {
+		private Selector<TestSelector, TestSelector> foo = null;
+		private TestSelector bar = null;
+
+		TestSelector(final TestSelector root, final Object parent, final String propertyName) {
+			super(root, parent, propertyName);
+		}
+
+		@Override
+		public Map<String, PropertyTree> buildChildren() {
+			final Map<String, PropertyTree> products = new HashMap<>();
+			if (this.foo != null) {
+				products.put("foo", this.foo.init());
+			}
+			if (this.bar != null) {
+				products.put("bar", this.bar.init());
+			}
+			return products;
+		}
+
+		Selector<TestSelector, TestSelector> foo() {
+			return this.foo == null ? this.foo = new Selector<>(this._root, this, "foo") : this.foo;
+		}
+
+		TestSelector bar() {
+			return this.bar == null ? this.bar = new TestSelector(this._root, this, "bar") : this.bar;
+		}
+	}
+
+	@Test
+	public void testSelectorCachesTreeUntilExtended() {
+		final TestSelector root = new TestSelector(null, null, null);
+		root.foo();
+		final PropertyTree tree = root.build();
+		Assert.assertSame(tree, root.build());
+		Assert.assertEquals(PropertyTree.parse("foo"), tree);
+
+		root.bar().foo();
+		final PropertyTree extendedTree = root.bar().build();
+		Assert.assertNotSame(tree, extendedTree);
+		Assert.assertEquals(PropertyTree.parse("foo,bar.foo"), extendedTree);
+		Assert.assertSame(extendedTree, root.build());
+		Assert.assertSame(extendedTree.get("foo"), tree.get("foo"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseRejectsEmptyPropertyName() {
+		PropertyTree.parse("foo..bar");
+	}
+}
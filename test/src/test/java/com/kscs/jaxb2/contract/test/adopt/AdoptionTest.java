@@ -0,0 +1,162 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.jaxb2.contract.test.adopt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the "-fluent-builder.adoptCollections" option in "copyAlways" mode.
+ */
+public class AdoptionTest {
+	private static FruitType fruit(final String label) {
+		return FruitType.builder().withLabel(label).build();
+	}
+
+	private static List<FruitType> fruits(final FruitType... fruits) {
+		return new ArrayList<>(Arrays.asList(fruits));
+	}
+
+	@Test
+	public void testAdoptsListWithoutCopying() {
+		final FruitType apple = fruit("apple");
+		final List<FruitType> fruits = fruits(apple);
+		final BasketType basket = BasketType.builder().adoptFruits(fruits).build();
+
+		Assert.assertSame(fruits, basket.getFruits());
+		Assert.assertSame(apple, basket.getFruits().get(0));
+	}
+
+	@Test
+	public void testAppendsAddedValues() {
+		final List<String> labels = new ArrayList<>(Arrays.asList("a"));
+		final BasketType basket = BasketType.builder().adoptLabels(labels).addLabels("b").build();
+
+		Assert.assertSame(labels, basket.getLabels());
+		Assert.assertEquals(Arrays.asList("a", "b"), labels);
+	}
+
+	@Test
+	public void testCopiesOwnedItems() {
+		final BasketType.Builder<Void> builder = BasketType.builder();
+		builder.addFruits().withLabel("apple");
+		final FruitType owned = builder.build().getFruits().get(0);
+		final BasketType basket = BasketType.builder().adoptFruits(fruits(owned)).build();
+
+		Assert.assertNotSame(owned, basket.getFruits().get(0));
+		Assert.assertEquals("apple", basket.getFruits().get(0).getLabel());
+	}
+
+	@Test
+	public void testAdoptsItemsOnlyOnce() {
+		final FruitType apple = fruit("apple");
+		final BasketType first = BasketType.builder().adoptFruits(fruits(apple)).build();
+		final BasketType second = BasketType.builder().adoptFruits(fruits(apple)).build();
+
+		Assert.assertSame(apple, first.getFruits().get(0));
+		Assert.assertNotSame(apple, second.getFruits().get(0));
+	}
+
+	@Test
+	public void testHandsListOverOnce() {
+		final List<FruitType> fruits = fruits(fruit("apple"));
+		final BasketType.Builder<Void> builder = BasketType.builder().adoptFruits(fruits).addFruits(fruit("pear"));
+		final BasketType first = builder.build();
+		final BasketType second = builder.build();
+
+		Assert.assertSame(fruits, first.getFruits());
+		Assert.assertEquals(2, first.getFruits().size());
+		Assert.assertNotSame(fruits, second.getFruits());
+		Assert.assertEquals(1, second.getFruits().size());
+		Assert.assertEquals("pear", second.getFruits().get(0).getLabel());
+		Assert.assertEquals(2, fruits.size());
+	}
+
+	@Test
+	public void testSetterClaimsValue() {
+		final FruitType apple = fruit("apple");
+		final BasketType other = BasketType.builder().build();
+		other.setFavorite(apple);
+		final BasketType basket = BasketType.builder().adoptFruits(fruits(apple)).build();
+
+		Assert.assertSame(apple, other.getFavorite());
+		Assert.assertNotSame(apple, basket.getFruits().get(0));
+	}
+
+	@Test
+	public void testClaimsValueAddedToGetterList() {
+		final FruitType apple = fruit("apple");
+		final BasketType other = BasketType.builder().build();
+		other.getFruits().add(apple);
+		Assert.assertTrue(apple.adopt());
+		final BasketType basket = BasketType.builder().adoptFruits(fruits(apple)).build();
+
+		Assert.assertNotSame(apple, basket.getFruits().get(0));
+	}
+
+	@Test
+	public void testCopiesValuesOfWithMethods() {
+		final FruitType apple = fruit("apple");
+		final BasketType basket = BasketType.builder().withFavorite(apple).withFruits(apple).build();
+
+		Assert.assertNotSame(apple, basket.getFavorite());
+		Assert.assertNotSame(apple, basket.getFruits().get(0));
+		Assert.assertTrue(apple.adopt());
+	}
+
+	@Test
+	public void testAdoptIsAtomic() throws Exception {
+		for (int run = 0; run < 100; run++) {
+			final FruitType apple = fruit("apple");
+			final AtomicInteger owners = new AtomicInteger();
+			final CountDownLatch start = new CountDownLatch(1);
+			final Thread[] threads = new Thread[4];
+			for (int i = 0; i < threads.length; i++) {
+				threads[i] = new Thread(() -> {
+					try {
+						start.await();
+					} catch (final InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					if (apple.adopt()) {
+						owners.incrementAndGet();
+					}
+				});
+				threads[i].start();
+			}
+			start.countDown();
+			for (final Thread thread : threads) {
+				thread.join();
+			}
+			Assert.assertEquals(1, owners.get());
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.jaxb2.contract.test.constructor;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests building immutable products through their all-fields constructors.
+ */
+public class ConstructorBuildTest {
+	private static PointType point(final int x, final int y) {
+		return PointType.builder().withX(x).withY(y).build();
+	}
+
+	@Test
+	public void testBuildsInheritedProperties() {
+		final PointType center = point(1, 2);
+		final PointType first = point(3, 4);
+		final CircleType.Builder<Void> builder = CircleType.builder()
+				.withName("circle")
+				.withRadius(5)
+				.withCenter(center)
+				.addTags("a", "b")
+				.addPoints(first);
+		builder.addPoints().withX(6).withY(7);
+		final CircleType circle = builder.build();
+
+		Assert.assertEquals("circle", circle.getName());
+		Assert.assertEquals(5, circle.getRadius());
+		Assert.assertSame(center, circle.getCenter());
+		Assert.assertEquals(Arrays.asList("a", "b"), circle.getTags());
+		Assert.assertEquals(2, circle.getPoints().size());
+		Assert.assertSame(first, circle.getPoints().get(0));
+		Assert.assertEquals(6, circle.getPoints().get(1).getX());
+		Assert.assertEquals(7, circle.getPoints().get(1).getY());
+	}
+
+	@Test
+	public void testBuildsSuperclass() {
+		final ShapeType shape = ShapeType.builder().withName("shape").addTags("a").build();
+
+		Assert.assertEquals(ShapeType.class, shape.getClass());
+		Assert.assertEquals("shape", shape.getName());
+		Assert.assertEquals(Arrays.asList("a"), shape.getTags());
+		Assert.assertNull(shape.points);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testInheritedListsAreImmutable() {
+		final CircleType circle = CircleType.builder().withName("circle").addTags("a").build();
+
+		circle.getTags().add("b");
+	}
+
+	@Test
+	public void testCopiesThroughConstructor() {
+		final CircleType source = CircleType.builder()
+				.withName("circle")
+				.withRadius(5)
+				.withCenter(point(1, 2))
+				.addPoints(point(3, 4))
+				.build();
+		final CircleType copy = CircleType.copyOf(source).withRadius(6).build();
+
+		Assert.assertEquals("circle", copy.getName());
+		Assert.assertEquals(6, copy.getRadius());
+		Assert.assertEquals(1, copy.getCenter().getX());
+		Assert.assertNotSame(source.getCenter(), copy.getCenter());
+		Assert.assertEquals(1, copy.getPoints().size());
+		Assert.assertEquals(3, copy.getPoints().get(0).getX());
+		Assert.assertEquals(5, source.getRadius());
+	}
+}
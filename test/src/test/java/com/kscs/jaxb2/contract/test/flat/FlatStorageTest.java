@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.jaxb2.contract.test.flat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the "-fluent-builder.flatStorage" option.
+ */
+public class FlatStorageTest {
+	private static EntryType entry(final String label) {
+		return EntryType.builder().withLabel(label).build();
+	}
+
+	@Test
+	public void testBuildsValueList() {
+		final EntryType a = entry("a");
+		final EntryType b = entry("b");
+		final List<String> labels = new ArrayList<>(Arrays.asList("x", "y"));
+		final CatalogType catalog = CatalogType.builder()
+				.withEntries(a, b)
+				.addLabels(labels)
+				.addLabels("z")
+				.build();
+		labels.add("changed");
+
+		Assert.assertEquals(2, catalog.getEntries().size());
+		Assert.assertSame(a, catalog.getEntries().get(0));
+		Assert.assertSame(b, catalog.getEntries().get(1));
+		Assert.assertEquals(Arrays.asList("x", "y", "z"), catalog.getLabels());
+	}
+
+	@Test
+	public void testBuildsMixedList() {
+		final EntryType a = entry("a");
+		final EntryType c = entry("c");
+		final CatalogType.Builder<Void> builder = CatalogType.builder().addEntries(a);
+		builder.addEntries().withLabel("b");
+		final CatalogType catalog = builder.addEntries(c).build();
+
+		Assert.assertEquals(3, catalog.getEntries().size());
+		Assert.assertSame(a, catalog.getEntries().get(0));
+		Assert.assertEquals("b", catalog.getEntries().get(1).getLabel());
+		Assert.assertSame(c, catalog.getEntries().get(2));
+	}
+
+	@Test
+	public void testWithReplacesChildBuilders() {
+		final EntryType a = entry("a");
+		final CatalogType.Builder<Void> builder = CatalogType.builder();
+		builder.addEntries().withLabel("b");
+		final CatalogType catalog = builder.withEntries(a).build();
+
+		Assert.assertEquals(Arrays.asList(a), catalog.getEntries());
+	}
+
+	@Test
+	public void testProductsDoNotShareLists() {
+		final CatalogType.Builder<Void> builder = CatalogType.builder().addLabels("x");
+		builder.addEntries().withLabel("b");
+		final CatalogType first = builder.build();
+		final CatalogType second = builder.addLabels("y").build();
+
+		Assert.assertNotSame(first.getLabels(), second.getLabels());
+		Assert.assertNotSame(first.getEntries(), second.getEntries());
+		Assert.assertNotSame(first.getEntries().get(0), second.getEntries().get(0));
+		Assert.assertEquals(Arrays.asList("x"), first.getLabels());
+		Assert.assertEquals(Arrays.asList("x", "y"), second.getLabels());
+	}
+
+	@Test
+	public void testCopiesToBuilder() {
+		final CatalogType source = CatalogType.builder()
+				.withName("catalog")
+				.addEntries(entry("a"))
+				.addLabels("x")
+				.build();
+		final CatalogType copy = CatalogType.copyOf(source).addLabels("y").build();
+
+		Assert.assertEquals("catalog", copy.getName());
+		Assert.assertEquals(1, copy.getEntries().size());
+		Assert.assertNotSame(source.getEntries().get(0), copy.getEntries().get(0));
+		Assert.assertEquals("a", copy.getEntries().get(0).getLabel());
+		Assert.assertEquals(Arrays.asList("x", "y"), copy.getLabels());
+		Assert.assertEquals(Arrays.asList("x"), source.getLabels());
+	}
+
+	@Test
+	public void testLeavesUnsetListsUnset() {
+		final CatalogType catalog = CatalogType.builder().withName("catalog").build();
+
+		Assert.assertNull(catalog.entries);
+		Assert.assertNull(catalog.labels);
+	}
+}
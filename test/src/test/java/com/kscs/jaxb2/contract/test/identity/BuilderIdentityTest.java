@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.jaxb2.contract.test.identity;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that builder copies preserve shared references and cycles
+ * when "-copy.preserveIdentity" is active.
+ */
+public class BuilderIdentityTest {
+	private static GraphType createSharedGraph() {
+		final NodeType a = NodeType.builder().withLabel("a").build();
+		final NodeType b = NodeType.builder().withLabel("b").withNext(a).build();
+		return GraphType.builder().withNodes(a, b).withEntry(a).build();
+	}
+
+	@Test
+	public void testCopyOfKeepsSharedReferences() {
+		final GraphType source = createSharedGraph();
+		final GraphType copy = GraphType.copyOf(source).build();
+
+		Assert.assertNotSame(source.getEntry(), copy.getEntry());
+		Assert.assertEquals("a", copy.getEntry().getLabel());
+		Assert.assertSame(copy.getEntry(), copy.getNodes().get(0));
+		Assert.assertSame(copy.getEntry(), copy.getNodes().get(1).getNext());
+	}
+
+	@Test
+	public void testNewCopyBuilderKeepsSharedReferences() {
+		final GraphType source = createSharedGraph();
+		final GraphType copy = source.newCopyBuilder().build();
+
+		Assert.assertNotSame(source.getNodes().get(0), copy.getNodes().get(0));
+		Assert.assertSame(copy.getEntry(), copy.getNodes().get(0));
+		Assert.assertSame(copy.getEntry(), copy.getNodes().get(1).getNext());
+	}
+
+	@Test
+	public void testSeparateCopiesShareNothing() {
+		final GraphType source = createSharedGraph();
+		final GraphType copy1 = GraphType.copyOf(source).build();
+		final GraphType copy2 = GraphType.copyOf(source).build();
+
+		Assert.assertNotSame(copy1.getEntry(), copy2.getEntry());
+	}
+
+	@Test
+	public void testCopyOfReproducesCycleInBuilders() {
+		final NodeType a = NodeType.builder().withLabel("a").build();
+		a.next = a;
+		final NodeType.Builder<Void> builder = NodeType.copyOf(a);
+
+		Assert.assertSame(builder, builder.next);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testBuildOfCyclicImmutableGraphFails() {
+		final NodeType a = NodeType.builder().withLabel("a").build();
+		a.next = a;
+		NodeType.copyOf(a).build();
+	}
+
+	@Test
+	public void testBuildAfterFailedCycleStartsClean() {
+		final NodeType a = NodeType.builder().withLabel("a").build();
+		a.next = a;
+		try {
+			NodeType.copyOf(a).build();
+			Assert.fail("cyclic build must fail");
+		} catch (final IllegalStateException e) {
+			// expected
+		}
+		final GraphType copy = GraphType.copyOf(createSharedGraph()).build();
+		Assert.assertSame(copy.getEntry(), copy.getNodes().get(1).getNext());
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.jaxb2.contract.test.lazy;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the "-copy.lazy" mode.
+ */
+public class LazyCopyTest {
+	private static ItemType item(final String label) {
+		final ItemType item = new ItemType();
+		item.setLabel(label);
+		return item;
+	}
+
+	private static FolderType createFolder() {
+		final FolderType folder = new FolderType();
+		folder.setName("folder");
+		folder.setOwner(item("owner"));
+		folder.getItems().add(item("a"));
+		folder.getItems().add(item("b"));
+		folder.getTags().add("tag");
+		return folder;
+	}
+
+	@Test
+	public void testCopyDoesNotModifySource() {
+		final FolderType source = createFolder();
+		final List<ItemType> items = source.getItems();
+		final ItemType owner = source.getOwner();
+		source.createCopy();
+
+		Assert.assertSame(items, source.getItems());
+		Assert.assertSame(owner, source.getOwner());
+	}
+
+	@Test
+	public void testEditAfterCopyIsNotVisibleInCopy() {
+		final FolderType source = createFolder();
+		final List<ItemType> heldItems = source.getItems();
+		final FolderType copy = source.createCopy();
+
+		source.setName("changed");
+		source.setOwner(item("other owner"));
+		source.getItems().add(item("c"));
+		heldItems.remove(0);
+		source.getTags().clear();
+
+		Assert.assertEquals("folder", copy.getName());
+		Assert.assertEquals("owner", copy.getOwner().getLabel());
+		Assert.assertEquals(2, copy.getItems().size());
+		Assert.assertEquals("a", copy.getItems().get(0).getLabel());
+		Assert.assertEquals("b", copy.getItems().get(1).getLabel());
+		Assert.assertEquals(1, copy.getTags().size());
+	}
+
+	@Test
+	public void testCopyMaterializesDeepCopiesOnAccess() {
+		final FolderType source = createFolder();
+		final FolderType copy = new FolderType(source);
+
+		Assert.assertNotSame(source.getItems(), copy.getItems());
+		Assert.assertNotSame(source.getItems().get(0), copy.getItems().get(0));
+		Assert.assertNotSame(source.getOwner(), copy.getOwner());
+
+		copy.getItems().get(0).setLabel("changed");
+		copy.getOwner().setLabel("changed");
+		Assert.assertEquals("a", source.getItems().get(0).getLabel());
+		Assert.assertEquals("owner", source.getOwner().getLabel());
+	}
+
+	@Test
+	public void testSetterReplacesSharedChildWithoutCopy() {
+		final FolderType source = createFolder();
+		final FolderType copy = source.createCopy();
+		final ItemType owner = item("new owner");
+		copy.setOwner(owner);
+
+		Assert.assertSame(owner, copy.getOwner());
+		Assert.assertEquals("owner", source.getOwner().getLabel());
+	}
+
+	@Test
+	public void testCopyOfUnaccessedCopy() {
+		final FolderType source = createFolder();
+		final FolderType copy = source.createCopy().createCopy();
+		source.getItems().clear();
+
+		Assert.assertEquals(2, copy.getItems().size());
+		Assert.assertNotSame(source.getOwner(), copy.getOwner());
+	}
+}
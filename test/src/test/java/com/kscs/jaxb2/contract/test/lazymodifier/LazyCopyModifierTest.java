@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.jaxb2.contract.test.lazymodifier;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the "-copy.lazy" mode together with "-Xmodifier".
+ */
+public class LazyCopyModifierTest {
+	private static BookType book(final String id, final String title) {
+		final BookType book = new BookType();
+		book.setId(id);
+		book.setTitle(title);
+		return book;
+	}
+
+	private static ShelfType createShelf() {
+		final ShelfType shelf = new ShelfType();
+		shelf.setName("shelf");
+		final BookType book = book("b1", "first");
+		shelf.getBooks().add(book);
+		shelf.getTags().add("tag");
+		shelf.getFeatured().add(book);
+		final NoteType note = new NoteType();
+		note.getContent().add("text");
+		shelf.setNote(note);
+		return shelf;
+	}
+
+	@Test
+	public void testModifierListOfLazyCopyIsMaterialized() {
+		final ShelfType source = createShelf();
+		final ShelfType copy = source.createCopy();
+
+		copy.modifier().getBooks().get(0).setTitle("changed");
+		copy.modifier().getBooks().add(book("b2", "second"));
+
+		Assert.assertEquals(2, copy.getBooks().size());
+		Assert.assertEquals("changed", copy.getBooks().get(0).getTitle());
+		Assert.assertEquals(1, source.getBooks().size());
+		Assert.assertEquals("first", source.getBooks().get(0).getTitle());
+	}
+
+	@Test
+	public void testModifierListsOfEagerlyCopiedProperties() {
+		final ShelfType source = createShelf();
+		final ShelfType copy = source.createCopy();
+
+		copy.modifier().getTags().add("other");
+		copy.modifier().getFeatured().clear();
+		copy.getNote().modifier().getContent().add("more");
+
+		Assert.assertEquals(2, copy.getTags().size());
+		Assert.assertTrue(copy.getFeatured().isEmpty());
+		Assert.assertEquals(2, copy.getNote().getContent().size());
+		Assert.assertEquals(1, source.getTags().size());
+		Assert.assertEquals(1, source.getFeatured().size());
+		Assert.assertEquals(1, source.getNote().getContent().size());
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.jaxb2.contract.test.pool;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the "-fluent-builder.resettable" and "-fluent-builder.builderPool" options.
+ */
+public class BuilderPoolTest {
+	private static <B extends OrderType.Builder<?>> B fill(final B builder) {
+		builder.withName("order")
+				.withPriority(1)
+				.addTags("a", "b")
+				.withCustomer().withLabel("customer").end()
+				.addLines().withLabel("line").end();
+		return builder;
+	}
+
+	private static void assertEmpty(final OrderType order) {
+		Assert.assertNull(order.name);
+		Assert.assertNull(order.customer);
+		Assert.assertNull(order.lines);
+		Assert.assertNull(order.tags);
+		Assert.assertEquals(Integer.valueOf(5), order.priority);
+	}
+
+	@Test
+	public void testResetBuildsSameAsNewBuilder() {
+		final OrderType fresh = OrderType.builder().build();
+		assertEmpty(fresh);
+
+		assertEmpty(fill(OrderType.builder()).reset().build());
+	}
+
+	@Test
+	public void testResetKeepsBuiltProduct() {
+		final OrderType.Builder<Void> builder = fill(OrderType.builder());
+		final OrderType first = builder.build();
+		final OrderType second = builder.reset().withName("second").addTags("c").build();
+
+		Assert.assertEquals("order", first.getName());
+		Assert.assertEquals("customer", first.getCustomer().getLabel());
+		Assert.assertEquals(Arrays.asList("a", "b"), first.getTags());
+		Assert.assertEquals(1, first.getLines().size());
+		Assert.assertEquals("second", second.getName());
+		Assert.assertEquals(Arrays.asList("c"), second.getTags());
+		Assert.assertNull(second.lines);
+		Assert.assertNull(second.customer);
+	}
+
+	@Test
+	public void testResetKeepsChildBuilder() {
+		final OrderType.Builder<Void> builder = OrderType.builder();
+		final ItemType.Builder<? extends OrderType.Builder<Void>> customerBuilder = builder.withCustomer().withLabel("customer");
+		builder.reset();
+
+		Assert.assertSame(customerBuilder, builder.withCustomer());
+		Assert.assertNull(builder.build().getCustomer().getLabel());
+	}
+
+	@Test
+	public void testPooledBuilderIsKeptPerThread() throws Exception {
+		final OrderType.Builder<Void> builder = OrderType.pooledBuilder();
+		Assert.assertSame(builder, OrderType.pooledBuilder());
+
+		final AtomicReference<OrderType.Builder<Void>> otherBuilder = new AtomicReference<>();
+		final Thread thread = new Thread(() -> otherBuilder.set(OrderType.pooledBuilder()));
+		thread.start();
+		thread.join();
+		Assert.assertNotNull(otherBuilder.get());
+		Assert.assertNotSame(builder, otherBuilder.get());
+	}
+
+	@Test
+	public void testPooledBuilderReleasesStateOnBuild() {
+		final OrderType.Builder<Void> builder = fill(OrderType.pooledBuilder());
+		final OrderType order = builder.build();
+
+		Assert.assertEquals("order", order.getName());
+		Assert.assertEquals(Arrays.asList("a", "b"), order.getTags());
+		assertEmpty(builder.build());
+		Assert.assertEquals(Arrays.asList("a", "b"), order.getTags());
+	}
+
+	@Test
+	public void testPooledBuilderIsResetOnGet() {
+		fill(OrderType.pooledBuilder());
+
+		assertEmpty(OrderType.pooledBuilder().build());
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.jaxb2.contract.test.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the "-fluent-builder.streamCollections" option.
+ */
+public class StreamingBuilderTest {
+	private static List<String> labels(final List<EntryType> entries) {
+		final List<String> labels = new ArrayList<>(entries.size());
+		for (final EntryType entry : entries) {
+			labels.add(entry.getLabel());
+		}
+		return labels;
+	}
+
+	@Test
+	public void testStreamsValuesWhenAdded() {
+		final List<String> ids = new ArrayList<>();
+		final FeedType.Builder<Void> builder = FeedType.builder().streamIds(ids::add).addIds("a", "b");
+
+		Assert.assertEquals(Arrays.asList("a", "b"), ids);
+		final FeedType feed = builder.addIds("c").build();
+		Assert.assertEquals(Arrays.asList("a", "b", "c"), ids);
+		Assert.assertTrue(feed.getIds().isEmpty());
+	}
+
+	@Test
+	public void testStreamsChildBuildersWhenComplete() {
+		final List<EntryType> entries = new ArrayList<>();
+		final FeedType.Builder<Void> builder = FeedType.builder().streamEntries(entries::add);
+		builder.addEntries().withLabel("a");
+		Assert.assertTrue(entries.isEmpty());
+
+		builder.addEntries().withLabel("b");
+		Assert.assertEquals(Arrays.asList("a"), labels(entries));
+
+		builder.build();
+		Assert.assertEquals(Arrays.asList("a", "b"), labels(entries));
+	}
+
+	@Test
+	public void testFlushesCollectedValuesToNewSink() {
+		final FeedType.Builder<Void> builder = FeedType.builder().addIds("a");
+		builder.addEntries().withLabel("b");
+		final List<String> ids = new ArrayList<>();
+		final List<EntryType> entries = new ArrayList<>();
+		builder.streamIds(ids::add).streamEntries(entries::add);
+
+		Assert.assertEquals(Arrays.asList("a"), ids);
+		Assert.assertEquals(Arrays.asList("b"), labels(entries));
+	}
+
+	@Test
+	public void testAcceptsSinkOfSupertype() {
+		final List<Object> values = new ArrayList<>();
+		final Consumer<Object> sink = values::add;
+		FeedType.builder().streamIds(sink).streamEntries(sink).addIds("a").build();
+
+		Assert.assertEquals(Arrays.asList("a"), values);
+	}
+
+	@Test
+	public void testDoesNotRedeliverAfterSinkFailure() {
+		final FeedType.Builder<Void> builder = FeedType.builder().addIds("a", "b", "c");
+		final List<String> ids = new ArrayList<>();
+		try {
+			builder.streamIds(id -> {
+				if (id.equals("b")) {
+					throw new IllegalStateException(id);
+				}
+				ids.add(id);
+			});
+			Assert.fail();
+		} catch (final IllegalStateException e) {
+			Assert.assertEquals("b", e.getMessage());
+		}
+		builder.streamIds(ids::add);
+
+		Assert.assertEquals(Arrays.asList("a", "c"), ids);
+	}
+
+	@Test
+	public void testDoesNotRedeliverBuiltValuesAfterSinkFailure() {
+		final FeedType.Builder<Void> builder = FeedType.builder();
+		builder.addEntries().withLabel("a");
+		builder.addEntries().withLabel("b");
+		final List<EntryType> entries = new ArrayList<>();
+		try {
+			builder.streamEntries(entry -> {
+				throw new IllegalStateException(entry.getLabel());
+			});
+			Assert.fail();
+		} catch (final IllegalStateException e) {
+			Assert.assertEquals("a", e.getMessage());
+		}
+		builder.streamEntries(entries::add);
+
+		Assert.assertEquals(Arrays.asList("b"), labels(entries));
+	}
+}